@@ -0,0 +1,103 @@
+package com.example.prospera.admin.controllers;
+
+import com.example.prospera.certificate.dto.CertificateRegenerationJobDTO;
+import com.example.prospera.certificate.dto.CertificateRegenerationRequest;
+import com.example.prospera.certificate.service.CertificateRegenerationService;
+import com.example.prospera.certificate.service.CertificateRenderer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+/**
+ * Controlador REST para a administração dos certificados: regeneração em lote dos certificados
+ * emitidos, usada após mudanças no template, nos dados da empresa (app.company.*) ou na carga
+ * horária de um treinamento, e métricas do motor de renderização.
+ * <p>
+ * Todas as operações requerem autenticação com papel SYSTEM_ADMIN.
+ * <p>
+ * Endpoints disponíveis:
+ * - POST /admin/certificates/regenerations: Cria um job de regeneração
+ * - GET /admin/certificates/regenerations/{jobId}: Consulta o progresso do job
+ * - POST /admin/certificates/regenerations/{jobId}/pause: Pausa o job no próximo lote
+ * - POST /admin/certificates/regenerations/{jobId}/resume: Retoma o job do último checkpoint
+ * - POST /admin/certificates/regenerations/{jobId}/cancel: Cancela o job
+ * - GET /admin/certificates/render-stats: Métricas de renderização desta instância
+ *
+ * @see com.example.prospera.certificate.service.CertificateRegenerationService
+ */
+@RestController
+@RequestMapping("/admin/certificates")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('SYSTEM_ADMIN')")
+public class AdminCertificateController {
+
+    private final CertificateRegenerationService regenerationService;
+    private final CertificateRenderer certificateRenderer;
+
+    /**
+     * Cria um job de regeneração para os certificados prontos do filtro (treinamento e/ou período
+     * de emissão; sem filtros, todos). O processamento ocorre em segundo plano.
+     * Endpoint: POST /admin/certificates/regenerations
+     * Retorna: CertificateRegenerationJobDTO com o total de certificados selecionados
+     * Status: 202 Accepted em caso de sucesso
+     */
+    @PostMapping("/regenerations")
+    public ResponseEntity<CertificateRegenerationJobDTO> startRegeneration(@RequestBody CertificateRegenerationRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(regenerationService.start(request));
+    }
+
+    /**
+     * Consulta o status e o progresso (processados/falhas/total) de um job.
+     * Endpoint: GET /admin/certificates/regenerations/{jobId}
+     */
+    @GetMapping("/regenerations/{jobId}")
+    public ResponseEntity<CertificateRegenerationJobDTO> getRegeneration(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(regenerationService.getJob(jobId));
+    }
+
+    /**
+     * Pausa o job; o lote em andamento termina e o checkpoint é mantido.
+     * Endpoint: POST /admin/certificates/regenerations/{jobId}/pause
+     */
+    @PostMapping("/regenerations/{jobId}/pause")
+    public ResponseEntity<CertificateRegenerationJobDTO> pauseRegeneration(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(regenerationService.pause(jobId));
+    }
+
+    /**
+     * Retoma um job pausado a partir do último checkpoint.
+     * Endpoint: POST /admin/certificates/regenerations/{jobId}/resume
+     */
+    @PostMapping("/regenerations/{jobId}/resume")
+    public ResponseEntity<CertificateRegenerationJobDTO> resumeRegeneration(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(regenerationService.resume(jobId));
+    }
+
+    /**
+     * Cancela o job. Os certificados já regenerados permanecem com os novos arquivos.
+     * Endpoint: POST /admin/certificates/regenerations/{jobId}/cancel
+     */
+    @PostMapping("/regenerations/{jobId}/cancel")
+    public ResponseEntity<CertificateRegenerationJobDTO> cancelRegeneration(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(regenerationService.cancel(jobId));
+    }
+
+    /**
+     * Métricas de renderização de PDFs desde a subida (quantidade, tempo médio e máximo, uso do
+     * pool de renderers). Os valores são da instância que atendeu a requisição.
+     * Endpoint: GET /admin/certificates/render-stats
+     */
+    @GetMapping("/render-stats")
+    public ResponseEntity<CertificateRenderer.RenderStats> getRenderStats() {
+        return ResponseEntity.ok(certificateRenderer.stats());
+    }
+}
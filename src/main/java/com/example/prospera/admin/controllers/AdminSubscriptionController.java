@@ -2,13 +2,19 @@ package com.example.prospera.admin.controllers;
 
 import com.example.prospera.admin.dto.PlanIdRequest;
 import com.example.prospera.admin.dto.SubscriptionCreateRequest;
+import com.example.prospera.admin.dto.SubscriptionPageResponse;
 import com.example.prospera.admin.dto.SubscriptionResponse;
+import com.example.prospera.admin.services.AdminSubscriptionQueryService;
+import com.example.prospera.subscription.dto.SubscriptionFilter;
 import com.example.prospera.subscription.entities.Subscription;
 import com.example.prospera.subscription.enums.SubscriptionOrigin;
 import com.example.prospera.subscription.enums.SubscriptionStatus;
 import com.example.prospera.subscription.service.SubscriptionService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -20,9 +26,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Controlador REST para gerenciamento administrativo de assinaturas no sistema.
@@ -34,7 +41,8 @@ import java.util.stream.Collectors;
  * - POST /admin/subscriptions/users: Cria assinatura pessoal
  * - POST /admin/subscriptions/organizations/{organizationId}: Cria assinatura empresarial
  * - POST /admin/subscriptions/{subscriptionId}/cancel: Cancela uma assinatura
- * - GET /admin/subscriptions: Lista todas as assinaturas com filtros opcionais
+ * - GET /admin/subscriptions: Lista as assinaturas com filtros opcionais, paginadas por cursor
+ * - GET /admin/subscriptions/export: Exporta as assinaturas filtradas em CSV
  *
  * @see com.example.prospera.subscription.service.SubscriptionService
  * @see com.example.prospera.subscription.entities.Subscription
@@ -50,6 +58,11 @@ public class AdminSubscriptionController {
      */
     private final SubscriptionService subscriptionService;
 
+    /**
+     * Consultas da listagem e da exportação, com filtros aplicados no banco.
+     */
+    private final AdminSubscriptionQueryService subscriptionQueryService;
+
     /**
      * Cria uma nova assinatura pessoal para um usuário específico.
      * O backend encontra ou cria a "Conta Pessoal" do usuário e atrela a assinatura a ela.
@@ -94,24 +107,53 @@ public class AdminSubscriptionController {
     }
 
     /**
-     * Lista todas as assinaturas do sistema.
-     * Permite filtrar os resultados usando os parâmetros ?status= (ex: ACTIVE) e ?origin= (ex: MANUAL).
+     * Lista as assinaturas do sistema, da mais recente para a mais antiga, em páginas.
      * Endpoint: GET /admin/subscriptions
-     * Parâmetros opcionais: 
+     * Parâmetros opcionais:
      *   - status: Filtra por SubscriptionStatus (ACTIVE, CANCELED, etc)
      *   - origin: Filtra por SubscriptionOrigin (MANUAL, SYSTEM, etc)
-     * Retorna: Lista de SubscriptionResponse com todas as assinaturas que atendem aos filtros
+     *   - planId: Filtra por plano
+     *   - from / to: Período (yyyy-MM-dd, inclusive) pela data de início
+     *   - owner: Trecho do nome da conta ou do e-mail do dono
+     *   - cursor: nextCursor da página anterior
+     *   - size: Tamanho da página (padrão 50, máximo 200)
+     * Retorna: SubscriptionPageResponse com a página e o cursor da próxima (nulo na última)
      * Status: 200 OK em caso de sucesso
      */
     @GetMapping
-    public ResponseEntity<List<SubscriptionResponse>> listAllSubscriptions(
+    public ResponseEntity<SubscriptionPageResponse> listAllSubscriptions(
             @RequestParam(required = false) SubscriptionStatus status,
-            @RequestParam(required = false) SubscriptionOrigin origin) {
-        List<Subscription> subscriptions = subscriptionService.findAllSubscriptions(status, origin);
-        List<SubscriptionResponse> response = subscriptions.stream()
-                .map(this::mapToSubscriptionResponse) // Reutiliza o metodo de mapeamento
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+            @RequestParam(required = false) SubscriptionOrigin origin,
+            @RequestParam(required = false) UUID planId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String owner,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        SubscriptionFilter filter = new SubscriptionFilter(status, origin, planId, from, to, owner);
+        return ResponseEntity.ok(subscriptionQueryService.findPage(filter, cursor, size));
+    }
+
+    /**
+     * Exporta em CSV (separado por ponto e vírgula) todas as assinaturas dos filtros informados,
+     * para o financeiro. Aceita os mesmos filtros da listagem.
+     * Endpoint: GET /admin/subscriptions/export
+     */
+    @GetMapping("/export")
+    public void exportSubscriptions(
+            @RequestParam(required = false) SubscriptionStatus status,
+            @RequestParam(required = false) SubscriptionOrigin origin,
+            @RequestParam(required = false) UUID planId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String owner,
+            HttpServletResponse response) throws IOException {
+        response.setContentType("text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"assinaturas.csv\"");
+
+        SubscriptionFilter filter = new SubscriptionFilter(status, origin, planId, from, to, owner);
+        subscriptionQueryService.exportCsv(filter, response.getWriter());
     }
 
     /**
@@ -0,0 +1,15 @@
+package com.example.prospera.admin.dto;
+
+import java.util.List;
+
+/**
+ * Página da listagem administrativa de assinaturas.
+ *
+ * @param items      assinaturas da página, da mais recente para a mais antiga.
+ * @param nextCursor valor para o parâmetro {@code cursor} da próxima página, ou nulo na última.
+ */
+public record SubscriptionPageResponse(
+        List<SubscriptionResponse> items,
+        String nextCursor
+) {
+}
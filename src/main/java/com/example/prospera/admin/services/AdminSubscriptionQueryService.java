@@ -0,0 +1,158 @@
+package com.example.prospera.admin.services;
+
+import com.example.prospera.admin.dto.SubscriptionPageResponse;
+import com.example.prospera.admin.dto.SubscriptionResponse;
+import com.example.prospera.auth.domain.AuthUser;
+import com.example.prospera.common.csv.CsvWriter;
+import com.example.prospera.enterprise.domain.Account;
+import com.example.prospera.exceptions.BusinessRuleException;
+import com.example.prospera.subscription.dto.SubscriptionFilter;
+import com.example.prospera.subscription.entities.Plan;
+import com.example.prospera.subscription.entities.Subscription;
+import com.example.prospera.subscription.repositories.SubscriptionSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Listagem administrativa de assinaturas.
+ * <p>
+ * Os filtros ({@link SubscriptionSpecifications}) são aplicados no banco e cada linha já sai como
+ * {@link SubscriptionResponse}, com conta, dono pessoal e plano resolvidos por join na mesma
+ * consulta. A listagem é paginada por keyset em (data de início, id); a exportação em CSV
+ * percorre o resultado por cursor e escreve linha a linha.
+ */
+@Service
+@RequiredArgsConstructor
+public class AdminSubscriptionQueryService {
+
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private final EntityManager entityManager;
+
+    /**
+     * Retorna uma página de assinaturas, da mais recente para a mais antiga.
+     *
+     * @param cursor valor de {@code nextCursor} da página anterior, ou nulo para a primeira.
+     * @throws BusinessRuleException se o cursor for inválido
+     */
+    @Transactional(readOnly = true)
+    public SubscriptionPageResponse findPage(SubscriptionFilter filter, String cursor, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+
+        Specification<Subscription> specification = SubscriptionSpecifications.matching(filter);
+        if (cursor != null && !cursor.isBlank()) {
+            specification = specification.and(decodeCursor(cursor));
+        }
+
+        // Uma linha a mais indica se existe próxima página, sem COUNT.
+        List<SubscriptionResponse> rows = entityManager.createQuery(buildQuery(specification))
+                .setMaxResults(pageSize + 1)
+                .getResultList();
+
+        if (rows.size() <= pageSize) {
+            return new SubscriptionPageResponse(rows, null);
+        }
+        List<SubscriptionResponse> page = rows.subList(0, pageSize);
+        return new SubscriptionPageResponse(List.copyOf(page), encodeCursor(page.get(pageSize - 1)));
+    }
+
+    /**
+     * Escreve em CSV no {@code writer} todas as assinaturas do filtro, linha a linha.
+     */
+    @Transactional(readOnly = true)
+    public void exportCsv(SubscriptionFilter filter, Writer writer) throws IOException {
+        CsvWriter csv = new CsvWriter(writer);
+        csv.writeRow("ID", "Plano", "Dono", "ID da conta", "Status", "Origem", "Início", "Término");
+
+        // Com fetch size Integer.MIN_VALUE o driver do MySQL entrega as linhas uma a uma.
+        try (Stream<SubscriptionResponse> rows = entityManager.createQuery(buildQuery(SubscriptionSpecifications.matching(filter)))
+                .setHint("org.hibernate.fetchSize", Integer.MIN_VALUE)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream()) {
+            Iterator<SubscriptionResponse> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                SubscriptionResponse row = iterator.next();
+                csv.writeRow(
+                        row.id().toString(),
+                        row.planName(),
+                        row.ownerName(),
+                        row.ownerAccountId().toString(),
+                        row.status().name(),
+                        row.origin().name(),
+                        row.startDate() != null ? DATE_FORMAT.format(row.startDate()) : "",
+                        row.endDate() != null ? DATE_FORMAT.format(row.endDate()) : "");
+            }
+        }
+        csv.flush();
+    }
+
+    private CriteriaQuery<SubscriptionResponse> buildQuery(Specification<Subscription> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SubscriptionResponse> query = cb.createQuery(SubscriptionResponse.class);
+        Root<Subscription> root = query.from(Subscription.class);
+        Join<Subscription, Account> account = root.join("account");
+        Join<Subscription, Plan> plan = root.join("plan");
+        Join<Account, AuthUser> personalUser = account.join("personalUser", JoinType.LEFT);
+
+        // Mesma regra de exibição de antes: e-mail do dono na conta pessoal, nome da conta na empresarial.
+        query.select(cb.construct(SubscriptionResponse.class,
+                root.get("id"),
+                plan.get("id"),
+                plan.get("name"),
+                root.get("startDate"),
+                root.get("endDate"),
+                root.get("status"),
+                root.get("origin"),
+                account.get("id"),
+                cb.coalesce(personalUser.<String>get("email"), account.<String>get("name")),
+                personalUser.get("id")
+        ));
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.desc(root.get("startDate")), cb.desc(root.get("id")));
+        return query;
+    }
+
+    private static String encodeCursor(SubscriptionResponse last) {
+        String raw = last.startDate().toInstant() + "|" + last.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Specification<Subscription> decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            OffsetDateTime startDate = OffsetDateTime.ofInstant(Instant.parse(raw.substring(0, separator)), ZoneOffset.UTC);
+            UUID id = UUID.fromString(raw.substring(separator + 1));
+            return SubscriptionSpecifications.after(startDate, id);
+        } catch (RuntimeException e) {
+            throw new BusinessRuleException("Cursor de paginação inválido.");
+        }
+    }
+}
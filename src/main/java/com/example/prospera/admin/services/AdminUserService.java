@@ -3,6 +3,7 @@ package com.example.prospera.admin.services;
 import com.example.prospera.admin.dto.AdminUserUpdateRequest;
 import com.example.prospera.auth.domain.AuthUser;
 import com.example.prospera.auth.repositories.AuthUserRepository;
+import com.example.prospera.auth.services.UserSecurityVersionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -23,6 +24,7 @@ public class AdminUserService {
 
     private final AuthUserRepository authUserRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserSecurityVersionService securityVersionService;
 
     /**
      * Redefine a senha de um usuário administrativo identificado pelo email fornecido.
@@ -82,7 +84,9 @@ public class AdminUserService {
         AuthUser user = authUserRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado: " + userId));
         user.setEnabled(false);
+        user.bumpSecurityVersion();
         authUserRepository.save(user);
+        securityVersionService.invalidate(userId);
     }
 
     /**
@@ -98,6 +102,7 @@ public class AdminUserService {
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado: " + userId));
         user.setEnabled(true);
         authUserRepository.save(user);
+        securityVersionService.invalidate(userId);
     }
 
     /**
@@ -110,9 +115,11 @@ public class AdminUserService {
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado: " + userId));
 
         // 1. Atualiza dados da entidade AuthUser
-        if (request.role() != null) {
+        if (request.role() != null && request.role() != user.getRole()) {
             user.setRole(request.role());
+            user.bumpSecurityVersion();
         }
+        securityVersionService.invalidate(userId);
 
         // 2. Atualiza dados do Perfil Pessoal (se existir)
         if (user.getPersonalProfile() != null) {
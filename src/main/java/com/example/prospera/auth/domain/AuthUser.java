@@ -60,6 +60,13 @@ public class AuthUser implements UserDetails {
     @Column(nullable = false)
     private boolean enabled = true;
 
+    /**
+     * Versão de segurança do usuário, gravada no token (claim "sv").
+     * Incrementada sempre que o acesso do usuário muda, o que invalida os tokens antigos.
+     */
+    @Column(name = "security_version", nullable = false)
+    private int securityVersion = 0;
+
     /**
      * A conta pessoal deste usuário, usada para assinaturas individuais.
      * AuthUser é o "dono" da relação.
@@ -75,6 +82,14 @@ public class AuthUser implements UserDetails {
         this.role = role;
     }
 
+    /**
+     * Invalida os tokens já emitidos para este usuário.
+     * Deve ser chamado ao desativar o usuário ou alterar seus papéis/afiliações.
+     */
+    public void bumpSecurityVersion() {
+        this.securityVersion++;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         // SYSTEM_ADMIN sempre tem prioridade
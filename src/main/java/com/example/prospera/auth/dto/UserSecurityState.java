@@ -0,0 +1,11 @@
+package com.example.prospera.auth.dto;
+
+/**
+ * Projeção mínima do estado de segurança de um usuário, usada para validar
+ * tokens no modo de autenticação sem consulta completa ao usuário.
+ */
+public record UserSecurityState(
+        int securityVersion,
+        boolean enabled
+) {
+}
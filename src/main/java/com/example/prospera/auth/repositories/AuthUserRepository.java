@@ -1,6 +1,7 @@
 package com.example.prospera.auth.repositories;
 
 import com.example.prospera.auth.domain.AuthUser;
+import com.example.prospera.auth.dto.UserSecurityState;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -21,5 +22,8 @@ public interface AuthUserRepository extends JpaRepository<AuthUser, UUID> {
 
     boolean existsByEmail(String email);
 
+    @Query("SELECT new com.example.prospera.auth.dto.UserSecurityState(u.securityVersion, u.enabled) FROM AuthUser u WHERE u.id = :id")
+    Optional<UserSecurityState> findSecurityStateById(@Param("id") UUID id);
+
     Page<AuthUser> findByEmailContainingIgnoreCase(String email, Pageable pageable);
 }
\ No newline at end of file
@@ -31,6 +31,7 @@ public class AuthenticationService implements UserDetailsService {
     private final PasswordResetTokenRepository tokenRepository;
     private final EmailService emailService;
     private final EmailUpdateTokenRepository emailUpdateTokenRepository;
+    private final UserSecurityVersionService securityVersionService;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -184,7 +185,9 @@ public class AuthenticationService implements UserDetailsService {
 
         // 4. Efetiva a troca
         user.setEmail(token.getNewPendingEmail());
+        user.bumpSecurityVersion();
         authUserRepository.save(user);
+        securityVersionService.invalidate(userId);
 
         // 5. Limpa o token usado
         emailUpdateTokenRepository.delete(token);
@@ -7,6 +7,7 @@ import com.example.prospera.auth.dto.UserProfilePFRequest;
 import com.example.prospera.auth.repositories.AuthUserRepository;
 import com.example.prospera.auth.repositories.UserProfilePfRepository;
 import com.example.prospera.common.enums.OrganizationRole;
+import com.example.prospera.common.events.EntitlementsChangedEvent;
 import com.example.prospera.common.validation.CpfValidationService;
 import com.example.prospera.enterprise.domain.Membership;
 import com.example.prospera.enterprise.domain.Organization;
@@ -14,6 +15,7 @@ import com.example.prospera.enterprise.dto.OrganizationResponseDTO;
 import com.example.prospera.enterprise.repositories.MembershipRepository;
 import com.example.prospera.enterprise.repositories.OrganizationRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,6 +35,8 @@ public class UserProfileService {
     private final OrganizationRepository organizationRepository;
     private final MembershipRepository membershipRepository;
     private final CpfValidationService cpfValidationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserSecurityVersionService securityVersionService;
 
     /**
      * Cria e salva um perfil de Pessoa Física, associando-o a um AuthUser existente.
@@ -114,7 +118,11 @@ public class UserProfileService {
         // 4. Desativa a Conta (Soft Delete)
         managedUser.setEnabled(false);
 
+        // Os tokens já emitidos deixam de valer imediatamente, não só ao expirar.
+        managedUser.bumpSecurityVersion();
+
         authUserRepository.save(managedUser);
+        securityVersionService.invalidate(managedUser.getId());
 
         // Opcional: Desvincular de todas as organizações (embora um usuário PF não deva ter memberships)
         // membershipRepository.deleteAll(managedUser.getMemberships());
@@ -139,6 +147,11 @@ public class UserProfileService {
 
         // Ação final: deleta a afiliação
         membershipRepository.delete(membership);
+
+        // As afiliações fazem parte do token: os tokens antigos do usuário deixam de valer.
+        membership.getUser().bumpSecurityVersion();
+        securityVersionService.invalidate(currentUser.getId());
+        eventPublisher.publishEvent(EntitlementsChangedEvent.forUser(currentUser.getId()));
     }
 
     /**
@@ -0,0 +1,91 @@
+package com.example.prospera.auth.services;
+
+import com.example.prospera.auth.dto.UserSecurityState;
+import com.example.prospera.auth.repositories.AuthUserRepository;
+import com.example.prospera.config.jwt.VerifiedTokenCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mantém em memória a versão de segurança ({@code securityVersion}) e o status de cada usuário,
+ * permitindo validar um token apenas com as claims, sem carregar o usuário e suas afiliações.
+ * <p>
+ * As entradas expiram após um TTL curto, o que limita a janela de inconsistência caso
+ * a API rode em mais de uma instância. Na instância que fez a alteração, a entrada é
+ * descartada logo após o commit.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserSecurityVersionService {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final AuthUserRepository authUserRepository;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    @Value("${application.security.jwt.security-version-ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private final Map<UUID, CachedState> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Verifica se a versão gravada no token ainda é a versão atual do usuário
+     * e se o usuário continua ativo.
+     */
+    public boolean isCurrent(UUID userId, int tokenVersion) {
+        UserSecurityState state = getState(userId);
+        return state != null && state.enabled() && state.securityVersion() == tokenVersion;
+    }
+
+    /**
+     * Descarta o estado em cache do usuário e os tokens dele já verificados. Se houver uma transação ativa,
+     * o descarte acontece somente após o commit, para não recarregar o valor antigo.
+     */
+    public void invalidate(UUID userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        } else {
+            evict(userId);
+        }
+    }
+
+    private void evict(UUID userId) {
+        cache.remove(userId);
+        verifiedTokenCache.invalidateUser(userId);
+    }
+
+    private UserSecurityState getState(UUID userId) {
+        long now = System.currentTimeMillis();
+        CachedState cached = cache.get(userId);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.state();
+        }
+
+        UserSecurityState state = authUserRepository.findSecurityStateById(userId).orElse(null);
+        if (state == null) {
+            cache.remove(userId);
+            return null;
+        }
+
+        if (cache.size() >= MAX_ENTRIES) {
+            cache.values().removeIf(entry -> entry.expiresAt() <= now);
+        }
+        cache.put(userId, new CachedState(state, now + ttlSeconds * 1000));
+        return state;
+    }
+
+    private record CachedState(UserSecurityState state, long expiresAt) {
+    }
+}
@@ -1,12 +1,15 @@
 package com.example.prospera.certificate.controllers;
 
 import com.example.prospera.auth.domain.AuthUser;
-import com.example.prospera.certificate.domain.Certificate;
+import com.example.prospera.certificate.domain.enums.CertificateStatus;
 import com.example.prospera.certificate.dto.CertificateListItemDTO;
+import com.example.prospera.certificate.dto.CertificateStatusDTO;
 import com.example.prospera.certificate.service.CertificateService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -16,7 +19,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
@@ -28,17 +35,34 @@ public class CertificateController {
     private final CertificateService certificateService;
 
     /**
-     * Gera (se não existir) e retorna os dados do certificado.
+     * Solicita a emissão do certificado de uma matrícula concluída.
+     * Retorna 200 se o PDF já estiver pronto; caso contrário 202, com o endereço do status em {@code Location}.
      */
     @PostMapping("/issue/{enrollmentId}")
-    public ResponseEntity<String> issueCertificate(
+    public ResponseEntity<CertificateStatusDTO> issueCertificate(
             @AuthenticationPrincipal AuthUser user,
             @PathVariable UUID enrollmentId) {
 
-        // Adicione validação aqui para garantir que a matrícula pertence ao usuário logado!
+        CertificateStatusDTO status = certificateService.issue(enrollmentId, user.getId());
+        if (status.status() == CertificateStatus.READY) {
+            return ResponseEntity.ok(status);
+        }
 
-        Certificate cert = certificateService.issueCertificate(enrollmentId);
-        return ResponseEntity.ok(cert.getValidationCode());
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/certificates/{certificateId}/status")
+                .buildAndExpand(status.certificateId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(status);
+    }
+
+    /**
+     * Situação da emissão do certificado (PENDING, READY ou FAILED), para acompanhamento pelo cliente.
+     */
+    @GetMapping("/{certificateId}/status")
+    public ResponseEntity<CertificateStatusDTO> getCertificateStatus(
+            @AuthenticationPrincipal AuthUser user,
+            @PathVariable UUID certificateId) {
+        return ResponseEntity.ok(certificateService.getStatus(certificateId, user.getId()));
     }
 
     /**
@@ -67,14 +91,34 @@ public class CertificateController {
     }
 
     /**
-     * Retorna uma miniatura (imagem JPG) do certificado com os dados impressos.
+     * Retorna a miniatura (imagem JPG) do certificado, gerada na emissão, ao dono ou a um SYSTEM_ADMIN.
+     * A galeria aponta para a URL com o ETag em {@code v}: se ele for o atual, o conteúdo daquela URL não
+     * muda mais e o navegador pode guardá-la como imutável. Sem {@code v}, ou com um ETag antigo, o
+     * navegador revalida a cada uso e recebe 304 enquanto a miniatura não mudar.
      */
     @GetMapping(value = "/{certificateId}/thumbnail", produces = MediaType.IMAGE_JPEG_VALUE)
-    public ResponseEntity<byte[]> getCertificateThumbnail(@PathVariable UUID certificateId) {
-        byte[] imageBytes = certificateService.generateCertificateThumbnail(certificateId);
+    public ResponseEntity<Resource> getCertificateThumbnail(
+            @AuthenticationPrincipal AuthUser user,
+            @PathVariable UUID certificateId,
+            @RequestParam(name = "v", required = false) String version,
+            WebRequest request) {
+        CertificateService.ThumbnailFile thumbnail = certificateService.getThumbnail(certificateId, user);
+
+        // Privado: a miniatura traz o nome do aluno e não deve ficar em caches compartilhados.
+        boolean currentVersion = version != null && thumbnail.etag() != null
+                && version.equals(thumbnail.etag().replace("\"", ""));
+        CacheControl cacheControl = currentVersion
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable()
+                : CacheControl.noCache().cachePrivate();
+
+        // Define o ETag na resposta e devolve true se a versão do cliente ainda vale.
+        if (request.checkNotModified(thumbnail.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
 
         return ResponseEntity.ok()
                 .contentType(MediaType.IMAGE_JPEG)
-                .body(imageBytes);
+                .cacheControl(cacheControl)
+                .body(thumbnail.resource());
     }
-}
\ No newline at end of file
+}
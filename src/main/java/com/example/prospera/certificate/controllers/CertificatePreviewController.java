@@ -43,7 +43,7 @@ public class CertificatePreviewController {
             byte[] imageBytes = StreamUtils.copyToByteArray(imageFile.getInputStream());
             String bgImageBase64 = Base64.getEncoder().encodeToString(imageBytes);
 
-            context.setVariable("bgImageBase64", bgImageBase64);
+            context.setVariable("backgroundImage", "data:image/png;base64," + bgImageBase64);
         } catch (IOException e) {
             return ResponseEntity.internalServerError().body("Erro ao carregar imagem: " + e.getMessage());
         }
@@ -0,0 +1,60 @@
+package com.example.prospera.certificate.controllers;
+
+import com.example.prospera.certificate.dto.CertificateVerificationDTO;
+import com.example.prospera.certificate.service.CertificateVerificationService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/public/certificates") // Rota aberta: acessada pelo QR code do certificado impresso
+@RequiredArgsConstructor
+public class PublicCertificateController {
+
+    private final CertificateVerificationService verificationService;
+
+    /**
+     * Verifica a autenticidade de um certificado pelo código de validação.
+     * Retorna o nome do titular, o treinamento, a carga horária e a data de emissão;
+     * 404 se o código não corresponder a um certificado emitido e 429 acima do limite de consultas.
+     */
+    @GetMapping("/verify/{code}")
+    public ResponseEntity<CertificateVerificationDTO> verifyCertificate(@PathVariable String code, HttpServletRequest request) {
+        if (!verificationService.tryAcquire(clientKey(request))) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(verificationService.retryAfterSeconds()))
+                    .build();
+        }
+
+        return verificationService.verify(code)
+                .map(certificate -> ResponseEntity.ok()
+                        // O proxy (Traefik) e o navegador podem reutilizar a resposta de um código válido.
+                        .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                        .body(certificate))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * IP do cliente. Atrás do Traefik, o último valor de {@code X-Forwarded-For} é o endereço que o
+     * próprio proxy viu; os anteriores vêm do cliente e não são confiáveis.
+     */
+    private static String clientKey(HttpServletRequest request) {
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            String last = forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim();
+            if (!last.isEmpty()) {
+                return last;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.prospera.certificate.domain;
 
+import com.example.prospera.certificate.domain.enums.CertificateStatus;
 import com.example.prospera.courses.domain.Enrollment;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -42,10 +45,21 @@ public class Certificate {
     @Column(nullable = false, unique = true)
     private String validationCode;
 
-    // Caminho do arquivo PDF salvo no FileStorageService
-    @Column(nullable = false)
+    // Caminho do arquivo PDF salvo no FileStorageService (nulo enquanto o PDF não é gerado)
     private String filePath;
 
+    // Miniatura JPG gerada na emissão, salva junto do PDF, e o ETag (hash) do seu conteúdo
+    @Column(name = "thumbnail_path")
+    private String thumbnailPath;
+
+    @Column(name = "thumbnail_etag")
+    private String thumbnailEtag;
+
+    // Situação da emissão: o PDF é gerado em segundo plano após a reserva do certificado
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CertificateStatus status;
+
     // Armazena o texto exato que saiu no certificado (ex: "10 horas")
     @Column(name = "workload_snapshot")
     private String workloadSnapshot;
@@ -56,6 +70,9 @@ public class Certificate {
     @PrePersist
     void prePersist() {
         issuedAt = OffsetDateTime.now();
+        if (status == null) {
+            status = CertificateStatus.PENDING;
+        }
         if (validationCode == null) {
             validationCode = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
         }
@@ -0,0 +1,77 @@
+package com.example.prospera.certificate.domain;
+
+import com.example.prospera.certificate.domain.enums.RegenerationJobStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Job de regeneração em lote dos PDFs de certificados já emitidos.
+ * Filtros nulos não restringem a seleção (todos os certificados prontos).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "certificate_regeneration_jobs")
+public class CertificateRegenerationJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    private UUID trainingId;
+
+    // Intervalo de emissão [issuedFrom, issuedTo)
+    private OffsetDateTime issuedFrom;
+
+    private OffsetDateTime issuedTo;
+
+    // Recalcula a carga horária do treinamento em vez de manter o snapshot da emissão
+    @Column(nullable = false)
+    private boolean refreshWorkload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RegenerationJobStatus status;
+
+    @Column(nullable = false)
+    private long total;
+
+    @Column(nullable = false)
+    private long processed;
+
+    @Column(nullable = false)
+    private long failed;
+
+    // Último certificado processado, na ordem (issuedAt, id)
+    private OffsetDateTime checkpointIssuedAt;
+
+    private UUID checkpointCertificateId;
+
+    @Column(nullable = false)
+    private OffsetDateTime createdAt;
+
+    private OffsetDateTime finishedAt;
+
+    @PrePersist
+    void prePersist() {
+        createdAt = OffsetDateTime.now();
+    }
+}
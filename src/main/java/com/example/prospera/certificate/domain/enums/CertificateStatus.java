@@ -0,0 +1,7 @@
+package com.example.prospera.certificate.domain.enums;
+
+public enum CertificateStatus {
+    PENDING,
+    READY,
+    FAILED
+}
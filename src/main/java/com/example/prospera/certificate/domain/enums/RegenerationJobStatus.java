@@ -0,0 +1,8 @@
+package com.example.prospera.certificate.domain.enums;
+
+public enum RegenerationJobStatus {
+    RUNNING,
+    PAUSED,
+    COMPLETED,
+    CANCELLED
+}
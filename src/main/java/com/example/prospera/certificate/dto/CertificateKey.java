@@ -0,0 +1,13 @@
+package com.example.prospera.certificate.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Posição de um certificado na ordem (issuedAt, id), usada na paginação keyset da regeneração.
+ */
+public record CertificateKey(
+        UUID id,
+        OffsetDateTime issuedAt
+) {
+}
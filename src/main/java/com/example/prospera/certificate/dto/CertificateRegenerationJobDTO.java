@@ -0,0 +1,37 @@
+package com.example.prospera.certificate.dto;
+
+import com.example.prospera.certificate.domain.CertificateRegenerationJob;
+import com.example.prospera.certificate.domain.enums.RegenerationJobStatus;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record CertificateRegenerationJobDTO(
+        UUID id,
+        RegenerationJobStatus status,
+        UUID trainingId,
+        OffsetDateTime issuedFrom,
+        OffsetDateTime issuedTo,
+        boolean refreshWorkload,
+        long total,
+        long processed,
+        long failed,
+        OffsetDateTime createdAt,
+        OffsetDateTime finishedAt
+) {
+    public static CertificateRegenerationJobDTO fromEntity(CertificateRegenerationJob job) {
+        return new CertificateRegenerationJobDTO(
+                job.getId(),
+                job.getStatus(),
+                job.getTrainingId(),
+                job.getIssuedFrom(),
+                job.getIssuedTo(),
+                job.isRefreshWorkload(),
+                job.getTotal(),
+                job.getProcessed(),
+                job.getFailed(),
+                job.getCreatedAt(),
+                job.getFinishedAt()
+        );
+    }
+}
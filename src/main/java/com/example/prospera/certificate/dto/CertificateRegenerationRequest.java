@@ -0,0 +1,19 @@
+package com.example.prospera.certificate.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Seleção dos certificados a regenerar. Campos nulos não restringem a seleção.
+ *
+ * @param issuedFrom      primeiro dia de emissão (inclusivo).
+ * @param issuedTo        último dia de emissão (inclusivo).
+ * @param refreshWorkload recalcula a carga horária do treinamento em vez de manter o snapshot da emissão.
+ */
+public record CertificateRegenerationRequest(
+        UUID trainingId,
+        LocalDate issuedFrom,
+        LocalDate issuedTo,
+        boolean refreshWorkload
+) {
+}
@@ -0,0 +1,19 @@
+package com.example.prospera.certificate.dto;
+
+import com.example.prospera.certificate.domain.enums.CertificateStatus;
+
+import java.util.UUID;
+
+/**
+ * Situação da emissão de um certificado.
+ *
+ * @param downloadUrl preenchido somente quando o PDF está pronto (READY).
+ */
+public record CertificateStatusDTO(
+        UUID certificateId,
+        UUID enrollmentId,
+        CertificateStatus status,
+        String validationCode,
+        String downloadUrl
+) {
+}
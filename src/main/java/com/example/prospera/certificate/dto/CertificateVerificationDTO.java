@@ -0,0 +1,33 @@
+package com.example.prospera.certificate.dto;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Dados públicos de um certificado, exibidos na verificação pelo código (QR code impresso).
+ * Não inclui e-mail nem identificadores internos.
+ */
+public record CertificateVerificationDTO(
+        String validationCode,
+        String holderName,
+        String trainingTitle,
+        String workload,
+        OffsetDateTime issuedAt
+) {
+
+    /**
+     * Usado pela consulta: sem perfil pessoal, o certificado sai com o e-mail no lugar do nome;
+     * na verificação pública ele aparece mascarado (ex.: {@code j***@empresa.com}).
+     */
+    public CertificateVerificationDTO(String validationCode, String fullName, String email,
+                                      String trainingTitle, String workload, OffsetDateTime issuedAt) {
+        this(validationCode, fullName != null ? fullName : maskEmail(email), trainingTitle, workload, issuedAt);
+    }
+
+    private static String maskEmail(String email) {
+        int at = email == null ? -1 : email.indexOf('@');
+        if (at <= 0) {
+            return "Titular não identificado";
+        }
+        return email.charAt(0) + "***" + email.substring(at);
+    }
+}
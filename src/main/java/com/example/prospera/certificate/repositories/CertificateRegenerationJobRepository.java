@@ -0,0 +1,45 @@
+package com.example.prospera.certificate.repositories;
+
+import com.example.prospera.certificate.domain.CertificateRegenerationJob;
+import com.example.prospera.certificate.domain.enums.RegenerationJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface CertificateRegenerationJobRepository extends JpaRepository<CertificateRegenerationJob, UUID> {
+
+    Optional<CertificateRegenerationJob> findFirstByStatusOrderByCreatedAtAsc(RegenerationJobStatus status);
+
+    boolean existsByStatusIn(Collection<RegenerationJobStatus> statuses);
+
+    @Query("SELECT j.status FROM CertificateRegenerationJob j WHERE j.id = :jobId")
+    Optional<RegenerationJobStatus> findStatusById(@Param("jobId") UUID jobId);
+
+    /**
+     * Grava o checkpoint após um lote e soma os contadores do lote.
+     */
+    @Modifying
+    @Query("UPDATE CertificateRegenerationJob j SET j.checkpointIssuedAt = :issuedAt, j.checkpointCertificateId = :certificateId, " +
+            "j.processed = j.processed + :processed, j.failed = j.failed + :failed WHERE j.id = :jobId")
+    int checkpoint(@Param("jobId") UUID jobId,
+                   @Param("issuedAt") OffsetDateTime issuedAt,
+                   @Param("certificateId") UUID certificateId,
+                   @Param("processed") long processed,
+                   @Param("failed") long failed);
+
+    /**
+     * Transição de status condicionada ao status atual, para pausas e cancelamentos concorrentes com o worker.
+     */
+    @Modifying
+    @Query("UPDATE CertificateRegenerationJob j SET j.status = :to, j.finishedAt = :finishedAt WHERE j.id = :jobId AND j.status = :from")
+    int updateStatus(@Param("jobId") UUID jobId,
+                     @Param("from") RegenerationJobStatus from,
+                     @Param("to") RegenerationJobStatus to,
+                     @Param("finishedAt") OffsetDateTime finishedAt);
+}
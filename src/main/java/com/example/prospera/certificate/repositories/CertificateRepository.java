@@ -1,10 +1,17 @@
 package com.example.prospera.certificate.repositories;
 
 import com.example.prospera.certificate.domain.Certificate;
+import com.example.prospera.certificate.domain.enums.CertificateStatus;
+import com.example.prospera.certificate.dto.CertificateKey;
+import com.example.prospera.certificate.dto.CertificateVerificationDTO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -21,6 +28,7 @@ public interface CertificateRepository extends JpaRepository<Certificate, UUID>
                JOIN c.enrollment e
                JOIN e.training t
                WHERE e.user.id = :userId
+               AND c.status = com.example.prospera.certificate.domain.enums.CertificateStatus.READY
                AND (:search IS NULL OR LOWER(t.title) LIKE LOWER(CONCAT('%', :search, '%')))
                ORDER BY c.issuedAt DESC
             """)
@@ -28,4 +36,128 @@ public interface CertificateRepository extends JpaRepository<Certificate, UUID>
             @Param("userId") UUID userId,
             @Param("search") String search
     );
-}
\ No newline at end of file
+
+    @Query("SELECT e.user.id FROM Certificate c JOIN c.enrollment e WHERE c.id = :certificateId")
+    Optional<UUID> findOwnerIdById(@Param("certificateId") UUID certificateId);
+
+    /**
+     * Carrega o certificado com tudo o que o PDF precisa (aluno, perfil e treinamento) em uma consulta.
+     */
+    @Query("""
+               SELECT c FROM Certificate c
+               JOIN FETCH c.enrollment e
+               JOIN FETCH e.user u
+               LEFT JOIN FETCH u.personalProfile
+               JOIN FETCH e.training
+               WHERE c.id = :certificateId
+            """)
+    Optional<Certificate> findForRendering(@Param("certificateId") UUID certificateId);
+
+    /**
+     * Conclui a emissão; só altera certificados ainda pendentes.
+     *
+     * @return 1 se o certificado foi marcado como pronto agora, 0 caso contrário.
+     */
+    @Modifying
+    @Query("UPDATE Certificate c SET c.status = com.example.prospera.certificate.domain.enums.CertificateStatus.READY, " +
+            "c.filePath = :filePath, c.thumbnailPath = :thumbnailPath, c.thumbnailEtag = :thumbnailEtag " +
+            "WHERE c.id = :certificateId AND c.status = com.example.prospera.certificate.domain.enums.CertificateStatus.PENDING")
+    int markReady(@Param("certificateId") UUID certificateId,
+                  @Param("filePath") String filePath,
+                  @Param("thumbnailPath") String thumbnailPath,
+                  @Param("thumbnailEtag") String thumbnailEtag);
+
+    // Miniatura gerada sob demanda para certificados emitidos antes de ela existir
+    @Modifying
+    @Query("UPDATE Certificate c SET c.thumbnailPath = :thumbnailPath, c.thumbnailEtag = :thumbnailEtag " +
+            "WHERE c.id = :certificateId AND c.thumbnailPath IS NULL")
+    int setThumbnailIfAbsent(@Param("certificateId") UUID certificateId,
+                             @Param("thumbnailPath") String thumbnailPath,
+                             @Param("thumbnailEtag") String thumbnailEtag);
+
+    @Modifying
+    @Query("UPDATE Certificate c SET c.status = :to WHERE c.id = :certificateId AND c.status = :from")
+    int updateStatus(@Param("certificateId") UUID certificateId,
+                     @Param("from") CertificateStatus from,
+                     @Param("to") CertificateStatus to);
+
+    // Pendentes há mais tempo que o esperado: a tarefa de renderização se perdeu (fila cheia ou reinício)
+    @Query("SELECT c.id FROM Certificate c WHERE c.status = :status AND c.issuedAt < :before ORDER BY c.issuedAt")
+    List<UUID> findIdsByStatusIssuedBefore(@Param("status") CertificateStatus status,
+                                           @Param("before") OffsetDateTime before,
+                                           Pageable pageable);
+
+    // Matrículas concluídas recentemente cujo evento de conclusão não gerou certificado
+    @Query("""
+               SELECT e.id FROM Enrollment e
+               WHERE e.status = com.example.prospera.courses.domain.enums.EnrollmentStatus.COMPLETED
+               AND e.completedAt >= :since
+               AND NOT EXISTS (SELECT 1 FROM Certificate c WHERE c.enrollment = e)
+            """)
+    List<UUID> findCompletedEnrollmentIdsWithoutCertificate(@Param("since") OffsetDateTime since, Pageable pageable);
+
+    // Seleção da regeneração em lote, paginada por keyset em (issuedAt, id) a partir do checkpoint
+    @Query("""
+               SELECT new com.example.prospera.certificate.dto.CertificateKey(c.id, c.issuedAt)
+               FROM Certificate c
+               WHERE c.status = com.example.prospera.certificate.domain.enums.CertificateStatus.READY
+               AND (:trainingId IS NULL OR c.enrollment.training.id = :trainingId)
+               AND (:issuedFrom IS NULL OR c.issuedAt >= :issuedFrom)
+               AND (:issuedTo IS NULL OR c.issuedAt < :issuedTo)
+               AND (:afterIssuedAt IS NULL OR c.issuedAt > :afterIssuedAt
+                    OR (c.issuedAt = :afterIssuedAt AND c.id > :afterId))
+               ORDER BY c.issuedAt, c.id
+            """)
+    List<CertificateKey> findNextForRegeneration(@Param("trainingId") UUID trainingId,
+                                                 @Param("issuedFrom") OffsetDateTime issuedFrom,
+                                                 @Param("issuedTo") OffsetDateTime issuedTo,
+                                                 @Param("afterIssuedAt") OffsetDateTime afterIssuedAt,
+                                                 @Param("afterId") UUID afterId,
+                                                 Pageable pageable);
+
+    @Query("""
+               SELECT COUNT(c) FROM Certificate c
+               WHERE c.status = com.example.prospera.certificate.domain.enums.CertificateStatus.READY
+               AND (:trainingId IS NULL OR c.enrollment.training.id = :trainingId)
+               AND (:issuedFrom IS NULL OR c.issuedAt >= :issuedFrom)
+               AND (:issuedTo IS NULL OR c.issuedAt < :issuedTo)
+            """)
+    long countForRegeneration(@Param("trainingId") UUID trainingId,
+                              @Param("issuedFrom") OffsetDateTime issuedFrom,
+                              @Param("issuedTo") OffsetDateTime issuedTo);
+
+    /**
+     * Aponta o certificado para os arquivos regenerados. A troca é um único UPDATE: quem lê o
+     * registro vê os arquivos antigos ou os novos, nunca uma mistura.
+     *
+     * @return 1 se os arquivos foram trocados, 0 se o certificado não está mais pronto.
+     */
+    @Modifying
+    @Query("UPDATE Certificate c SET c.filePath = :filePath, c.thumbnailPath = :thumbnailPath, " +
+            "c.thumbnailEtag = :thumbnailEtag, c.workloadSnapshot = :workload " +
+            "WHERE c.id = :certificateId AND c.status = com.example.prospera.certificate.domain.enums.CertificateStatus.READY")
+    int swapFiles(@Param("certificateId") UUID certificateId,
+                  @Param("filePath") String filePath,
+                  @Param("thumbnailPath") String thumbnailPath,
+                  @Param("thumbnailEtag") String thumbnailEtag,
+                  @Param("workload") String workload);
+
+    // Verificação pública: só certificados prontos, já projetados nos dados exibidos
+    @Query("""
+               SELECT new com.example.prospera.certificate.dto.CertificateVerificationDTO(
+                   c.validationCode, p.fullName, u.email, t.title, c.workloadSnapshot, c.issuedAt)
+               FROM Certificate c
+               JOIN c.enrollment e
+               JOIN e.user u
+               LEFT JOIN u.personalProfile p
+               JOIN e.training t
+               WHERE c.validationCode = :validationCode
+               AND c.status = com.example.prospera.certificate.domain.enums.CertificateStatus.READY
+            """)
+    Optional<CertificateVerificationDTO> findVerificationByValidationCode(@Param("validationCode") String validationCode);
+
+    // Códigos reservados desde o instante informado, para manter o filtro de verificação atualizado
+    @Query("SELECT c.validationCode FROM Certificate c WHERE c.status IN :statuses AND c.issuedAt >= :since")
+    List<String> findValidationCodesIssuedSince(@Param("statuses") Collection<CertificateStatus> statuses,
+                                                @Param("since") OffsetDateTime since);
+}
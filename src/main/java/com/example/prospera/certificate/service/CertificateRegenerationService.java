@@ -0,0 +1,298 @@
+package com.example.prospera.certificate.service;
+
+import com.example.prospera.certificate.domain.CertificateRegenerationJob;
+import com.example.prospera.certificate.domain.enums.RegenerationJobStatus;
+import com.example.prospera.certificate.dto.CertificateKey;
+import com.example.prospera.certificate.dto.CertificateRegenerationJobDTO;
+import com.example.prospera.certificate.dto.CertificateRegenerationRequest;
+import com.example.prospera.certificate.repositories.CertificateRegenerationJobRepository;
+import com.example.prospera.certificate.repositories.CertificateRepository;
+import com.example.prospera.common.scheduling.JobLockService;
+import com.example.prospera.exceptions.BusinessRuleException;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Regeneração em lote dos certificados já emitidos, disparada pelo administrador após mudanças
+ * no template, nos dados da empresa ou na carga horária de um treinamento.
+ * <p>
+ * O job é gravado em {@code certificate_regeneration_jobs} e processado por uma rotina agendada
+ * que roda em um único nó (lease do {@link JobLockService}). Os certificados são percorridos em
+ * lotes por keyset em (issuedAt, id); cada lote é regenerado em um pool próprio e limitado
+ * ({@code app.certificates.regeneration.parallelism}) e, ao final, o checkpoint e os contadores
+ * são gravados. Um job interrompido (reinício, pausa) continua do último checkpoint.
+ * <p>
+ * A rotina agendada apenas dispara o processamento em uma thread própria e retorna, para não
+ * ocupar a thread única do agendador do Spring (que também executa as demais rotinas {@code @Scheduled})
+ * durante um job que pode levar horas. Um novo disparo é ignorado enquanto o anterior não termina.
+ * <p>
+ * Para não disputar com o tráfego, o pool é pequeno e o ritmo é limitado a
+ * {@code app.certificates.regeneration.max-per-second} certificados por segundo. Cada certificado
+ * é trocado de forma atômica por {@link CertificateService#regenerate}.
+ */
+@Service
+public class CertificateRegenerationService {
+
+    private static final Logger log = LoggerFactory.getLogger(CertificateRegenerationService.class);
+
+    private static final String JOB_NAME = "certificate-regeneration";
+
+    private final CertificateRegenerationJobRepository jobRepository;
+    private final CertificateRepository certificateRepository;
+    private final CertificateService certificateService;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLockService jobLockService;
+
+    private final int chunkSize;
+    private final int maxPerSecond;
+    private final ExecutorService workers;
+    private final ExecutorService coordinator;
+    private final AtomicBoolean processing = new AtomicBoolean();
+
+    public CertificateRegenerationService(CertificateRegenerationJobRepository jobRepository,
+                                          CertificateRepository certificateRepository,
+                                          CertificateService certificateService,
+                                          TransactionTemplate transactionTemplate,
+                                          JobLockService jobLockService,
+                                          @Value("${app.certificates.regeneration.parallelism:2}") int parallelism,
+                                          @Value("${app.certificates.regeneration.chunk-size:50}") int chunkSize,
+                                          @Value("${app.certificates.regeneration.max-per-second:5}") int maxPerSecond) {
+        this.jobRepository = jobRepository;
+        this.certificateRepository = certificateRepository;
+        this.certificateService = certificateService;
+        this.transactionTemplate = transactionTemplate;
+        this.jobLockService = jobLockService;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxPerSecond = Math.max(1, maxPerSecond);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "certificate-regeneration-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.coordinator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "certificate-regeneration-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Cria um job de regeneração. Ele começa a ser processado na próxima execução da rotina.
+     *
+     * @throws BusinessRuleException se o intervalo for inválido ou já houver um job em andamento
+     */
+    @Transactional
+    public CertificateRegenerationJobDTO start(CertificateRegenerationRequest request) {
+        if (request.issuedFrom() != null && request.issuedTo() != null && request.issuedFrom().isAfter(request.issuedTo())) {
+            throw new BusinessRuleException("A data inicial deve ser anterior ou igual à data final.");
+        }
+        if (jobRepository.existsByStatusIn(List.of(RegenerationJobStatus.RUNNING, RegenerationJobStatus.PAUSED))) {
+            throw new BusinessRuleException("Já existe uma regeneração de certificados em andamento.");
+        }
+
+        // Mesmo critério da listagem administrativa: dias completos no fuso do servidor, fim exclusivo
+        OffsetDateTime issuedFrom = request.issuedFrom() == null ? null
+                : request.issuedFrom().atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+        OffsetDateTime issuedTo = request.issuedTo() == null ? null
+                : request.issuedTo().plusDays(1).atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+
+        CertificateRegenerationJob job = CertificateRegenerationJob.builder()
+                .trainingId(request.trainingId())
+                .issuedFrom(issuedFrom)
+                .issuedTo(issuedTo)
+                .refreshWorkload(request.refreshWorkload())
+                .status(RegenerationJobStatus.RUNNING)
+                .total(certificateRepository.countForRegeneration(request.trainingId(), issuedFrom, issuedTo))
+                .build();
+
+        job = jobRepository.save(job);
+        log.info("Regeneração de certificados {} criada com {} certificados.", job.getId(), job.getTotal());
+        return CertificateRegenerationJobDTO.fromEntity(job);
+    }
+
+    @Transactional(readOnly = true)
+    public CertificateRegenerationJobDTO getJob(UUID jobId) {
+        return jobRepository.findById(jobId)
+                .map(CertificateRegenerationJobDTO::fromEntity)
+                .orElseThrow(() -> new EntityNotFoundException("Regeneração não encontrada."));
+    }
+
+    /**
+     * Pausa o job; o lote em andamento termina e o checkpoint é mantido.
+     */
+    @Transactional
+    public CertificateRegenerationJobDTO pause(UUID jobId) {
+        return transition(jobId, RegenerationJobStatus.RUNNING, RegenerationJobStatus.PAUSED, null);
+    }
+
+    /**
+     * Retoma um job pausado a partir do último checkpoint.
+     */
+    @Transactional
+    public CertificateRegenerationJobDTO resume(UUID jobId) {
+        return transition(jobId, RegenerationJobStatus.PAUSED, RegenerationJobStatus.RUNNING, null);
+    }
+
+    @Transactional
+    public CertificateRegenerationJobDTO cancel(UUID jobId) {
+        RegenerationJobStatus current = jobRepository.findStatusById(jobId)
+                .orElseThrow(() -> new EntityNotFoundException("Regeneração não encontrada."));
+        if (current != RegenerationJobStatus.RUNNING && current != RegenerationJobStatus.PAUSED) {
+            throw new BusinessRuleException("A regeneração já foi finalizada.");
+        }
+        return transition(jobId, current, RegenerationJobStatus.CANCELLED, OffsetDateTime.now());
+    }
+
+    /**
+     * Dispara o processamento do job em andamento mais antigo na thread coordenadora e retorna.
+     * Só um nó processa por vez; o lease é obtido e renovado pela própria thread coordenadora
+     * enquanto o job roda.
+     */
+    @Scheduled(fixedDelayString = "${app.certificates.regeneration.poll-interval-ms:30000}")
+    public void processPendingJobs() {
+        if (!processing.compareAndSet(false, true)) {
+            return; // O disparo anterior ainda está processando
+        }
+        try {
+            coordinator.execute(() -> {
+                try {
+                    jobLockService.runExclusively(JOB_NAME, Duration.ofSeconds(20), () ->
+                            jobRepository.findFirstByStatusOrderByCreatedAtAsc(RegenerationJobStatus.RUNNING).ifPresent(this::process));
+                } catch (RuntimeException e) {
+                    log.error("Falha ao processar a regeneração de certificados.", e);
+                } finally {
+                    processing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            processing.set(false); // Desligando
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void process(CertificateRegenerationJob job) {
+        UUID jobId = job.getId();
+        OffsetDateTime afterIssuedAt = job.getCheckpointIssuedAt();
+        UUID afterId = job.getCheckpointCertificateId();
+        long minNanosPerChunk = TimeUnit.SECONDS.toNanos(chunkSize) / maxPerSecond;
+
+        log.info("Regeneração de certificados {}: iniciando a partir de {}/{}.", jobId, afterIssuedAt, afterId);
+        while (true) {
+            // Pausa e cancelamento são vistos entre os lotes
+            if (jobRepository.findStatusById(jobId).orElse(null) != RegenerationJobStatus.RUNNING) {
+                log.info("Regeneração de certificados {} interrompida no checkpoint {}/{}.", jobId, afterIssuedAt, afterId);
+                return;
+            }
+
+            List<CertificateKey> chunk = certificateRepository.findNextForRegeneration(
+                    job.getTrainingId(), job.getIssuedFrom(), job.getIssuedTo(), afterIssuedAt, afterId,
+                    PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                transactionTemplate.execute(status -> jobRepository.updateStatus(
+                        jobId, RegenerationJobStatus.RUNNING, RegenerationJobStatus.COMPLETED, OffsetDateTime.now()));
+                log.info("Regeneração de certificados {} concluída.", jobId);
+                return;
+            }
+
+            long startedAt = System.nanoTime();
+            List<Future<Boolean>> results = chunk.stream()
+                    .map(key -> workers.submit(() -> regenerateOne(key.id(), job.isRefreshWorkload())))
+                    .toList();
+
+            long processed = 0;
+            long failed = 0;
+            for (Future<Boolean> result : results) {
+                try {
+                    if (result.get()) {
+                        processed++;
+                    } else {
+                        failed++;
+                    }
+                } catch (InterruptedException e) {
+                    // Desligamento: o lote é refeito a partir do último checkpoint
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    failed++;
+                }
+            }
+
+            CertificateKey last = chunk.getLast();
+            afterIssuedAt = last.issuedAt();
+            afterId = last.id();
+            long chunkProcessed = processed;
+            long chunkFailed = failed;
+            OffsetDateTime checkpointIssuedAt = afterIssuedAt;
+            UUID checkpointId = afterId;
+            transactionTemplate.execute(status -> jobRepository.checkpoint(
+                    jobId, checkpointIssuedAt, checkpointId, chunkProcessed, chunkFailed));
+
+            if (!throttle(minNanosPerChunk - (System.nanoTime() - startedAt))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return {@code false} apenas em caso de erro; certificados que deixaram de estar prontos são ignorados
+     */
+    private boolean regenerateOne(UUID certificateId, boolean refreshWorkload) {
+        try {
+            certificateService.regenerate(certificateId, refreshWorkload);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Falha ao regenerar o certificado {}.", certificateId, e);
+            return false;
+        }
+    }
+
+    private static boolean throttle(long remainingNanos) {
+        if (remainingNanos <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remainingNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private CertificateRegenerationJobDTO transition(UUID jobId, RegenerationJobStatus from,
+                                                     RegenerationJobStatus to, OffsetDateTime finishedAt) {
+        if (jobRepository.updateStatus(jobId, from, to, finishedAt) == 0) {
+            throw new BusinessRuleException("A regeneração não pode passar para " + to + " no status atual.");
+        }
+        return getJob(jobId);
+    }
+}
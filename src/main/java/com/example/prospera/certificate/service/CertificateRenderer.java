@@ -0,0 +1,198 @@
+package com.example.prospera.certificate.service;
+
+import com.lowagie.text.pdf.BaseFont;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+import org.xhtmlrenderer.pdf.ITextReplacedElementFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Motor de renderização do PDF do certificado.
+ * <p>
+ * Os recursos fixos são preparados uma única vez, na subida: cada {@link ITextRenderer} do pool
+ * já tem a fonte Montserrat registrada e, após um certificado de aquecimento, a imagem de fundo
+ * decodificada no cache do próprio renderer (o fundo é referenciado por URL, e não mais embutido
+ * em Base64 no HTML a cada emissão). O template do Thymeleaf fica no cache do {@link TemplateEngine}.
+ * <p>
+ * O {@link ITextRenderer} não é thread-safe: cada renderização toma um renderer emprestado de um
+ * pool limitado ({@code app.certificates.renderer-pool-size}), que também limita quantos PDFs são
+ * gerados em paralelo. Um renderer que falhar é descartado e substituído por um novo.
+ */
+@Component
+public class CertificateRenderer {
+
+    private static final Logger log = LoggerFactory.getLogger(CertificateRenderer.class);
+
+    private static final String TEMPLATE = "certificate";
+    private static final String BACKGROUND_IMAGE = "CERTIFICADO.png";
+    private static final String FONT = "fonts/Montserrat.ttf";
+
+    private final TemplateEngine templateEngine;
+    private final int poolSize;
+    private final long borrowTimeoutSeconds;
+
+    private BlockingQueue<ITextRenderer> pool;
+    private String fontUrl;
+    private String baseUrl;
+
+    private final AtomicLong renderCount = new AtomicLong();
+    private final AtomicLong totalRenderNanos = new AtomicLong();
+    private final AtomicLong maxRenderNanos = new AtomicLong();
+
+    public CertificateRenderer(TemplateEngine templateEngine,
+                               @Value("${app.certificates.renderer-pool-size:0}") int poolSize,
+                               @Value("${app.certificates.renderer-borrow-timeout-seconds:30}") long borrowTimeoutSeconds) {
+        this.templateEngine = templateEngine;
+        // 0 = um renderer por núcleo: a renderização é limitada por CPU.
+        this.poolSize = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.borrowTimeoutSeconds = borrowTimeoutSeconds;
+    }
+
+    @PostConstruct
+    void warmUp() throws IOException {
+        fontUrl = new ClassPathResource(FONT).getURL().toExternalForm();
+        // O fundo é resolvido relativo a esta URL, dentro ou fora do jar.
+        baseUrl = new ClassPathResource(BACKGROUND_IMAGE).getURL().toExternalForm();
+
+        pool = new ArrayBlockingQueue<>(poolSize);
+        CertificateData sample = new CertificateData("Aluno", "Treinamento", "1 horas", "WARMUP00", "01/01/2000", "", "");
+        for (int i = 0; i < poolSize; i++) {
+            ITextRenderer renderer = newRenderer();
+            try {
+                renderWith(renderer, sample);
+            } catch (IllegalStateException e) {
+                // Não impede a subida: a emissão real reporta o erro.
+                log.warn("Falha no certificado de aquecimento.", e);
+            }
+            pool.add(renderer);
+        }
+        log.info("Motor de certificados pronto com {} renderers.", poolSize);
+    }
+
+    /**
+     * Gera o PDF do certificado. Bloqueia até haver um renderer livre no pool.
+     *
+     * @throws IllegalStateException se nenhum renderer ficar livre dentro do tempo limite
+     */
+    public byte[] render(CertificateData data) {
+        ITextRenderer renderer = borrow();
+        long startedAt = System.nanoTime();
+        boolean healthy = false;
+        try {
+            byte[] pdf = renderWith(renderer, data);
+            healthy = true;
+            return pdf;
+        } finally {
+            record(System.nanoTime() - startedAt);
+            // Em caso de erro o estado interno do renderer é incerto: volta um novo ao pool.
+            pool.add(healthy ? renderer : newRenderer());
+        }
+    }
+
+    /**
+     * Métricas acumuladas desde a subida.
+     */
+    public RenderStats stats() {
+        long count = renderCount.get();
+        long total = totalRenderNanos.get();
+        return new RenderStats(
+                count,
+                count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(total / count),
+                TimeUnit.NANOSECONDS.toMillis(maxRenderNanos.get()),
+                poolSize,
+                pool.size()
+        );
+    }
+
+    private byte[] renderWith(ITextRenderer renderer, CertificateData data) {
+        Context context = new Context();
+        context.setVariable("studentName", data.studentName());
+        context.setVariable("courseName", data.courseName());
+        context.setVariable("workload", data.workload());
+        context.setVariable("validationCode", data.validationCode());
+        context.setVariable("completionDate", data.completionDate());
+        context.setVariable("companyName", data.companyName());
+        context.setVariable("companyCnpj", data.companyCnpj());
+        context.setVariable("backgroundImage", BACKGROUND_IMAGE);
+
+        String html = templateEngine.process(TEMPLATE, context);
+
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream(64 * 1024)) {
+            renderer.setDocumentFromString(html, baseUrl);
+            renderer.layout();
+            renderer.createPDF(outputStream);
+            return outputStream.toByteArray();
+        } catch (Exception e) {
+            throw new IllegalStateException("Erro ao gerar PDF do certificado", e);
+        }
+    }
+
+    private ITextRenderer newRenderer() {
+        ITextRenderer renderer = new ITextRenderer();
+        try {
+            renderer.getFontResolver().addFont(fontUrl, BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+        } catch (Exception e) {
+            // Sem a fonte o certificado sai com a fonte padrão, mas ainda é emitido.
+            log.error("Erro ao carregar a fonte {} do certificado.", FONT, e);
+        }
+        renderer.getSharedContext().setReplacedElementFactory(new ITextReplacedElementFactory(renderer.getOutputDevice()));
+        return renderer;
+    }
+
+    private ITextRenderer borrow() {
+        try {
+            ITextRenderer renderer = pool.poll(borrowTimeoutSeconds, TimeUnit.SECONDS);
+            if (renderer == null) {
+                throw new IllegalStateException("Nenhum renderer de certificado disponível.");
+            }
+            return renderer;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando um renderer de certificado.", e);
+        }
+    }
+
+    private void record(long nanos) {
+        long count = renderCount.incrementAndGet();
+        totalRenderNanos.addAndGet(nanos);
+        maxRenderNanos.accumulateAndGet(nanos, Math::max);
+        log.debug("Certificado renderizado em {} ms (total: {}).", TimeUnit.NANOSECONDS.toMillis(nanos), count);
+    }
+
+    /**
+     * Dados variáveis do certificado.
+     */
+    public record CertificateData(
+            String studentName,
+            String courseName,
+            String workload,
+            String validationCode,
+            String completionDate,
+            String companyName,
+            String companyCnpj
+    ) {
+    }
+
+    /**
+     * @param rendered           certificados renderizados desde a subida.
+     * @param averageMillis      tempo médio de renderização.
+     * @param maxMillis          maior tempo de renderização.
+     * @param poolSize           tamanho do pool de renderers.
+     * @param availableRenderers renderers livres no momento.
+     */
+    public record RenderStats(long rendered, long averageMillis, long maxMillis, int poolSize, int availableRenderers) {
+    }
+}
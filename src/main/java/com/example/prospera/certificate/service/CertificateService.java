@@ -1,8 +1,14 @@
 package com.example.prospera.certificate.service;
 
+import com.example.prospera.auth.domain.AuthUser;
 import com.example.prospera.certificate.domain.Certificate;
+import com.example.prospera.certificate.domain.enums.CertificateStatus;
 import com.example.prospera.certificate.dto.CertificateListItemDTO;
+import com.example.prospera.certificate.dto.CertificateStatusDTO;
 import com.example.prospera.certificate.repositories.CertificateRepository;
+import com.example.prospera.common.enums.UserRole;
+import com.example.prospera.common.events.EnrollmentCompletedEvent;
+import com.example.prospera.common.scheduling.JobLockService;
 import com.example.prospera.courses.domain.Enrollment;
 import com.example.prospera.courses.domain.Training;
 import com.example.prospera.courses.domain.enums.EnrollmentStatus;
@@ -12,46 +18,70 @@ import com.example.prospera.courses.repositories.ModuleRepository;
 import com.example.prospera.courses.service.FileStorageService;
 import com.example.prospera.email.service.EmailService;
 import com.example.prospera.exceptions.BusinessRuleException;
-import com.lowagie.text.pdf.BaseFont;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ClassPathResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StreamUtils;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
-import org.xhtmlrenderer.pdf.ITextRenderer;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
-import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.time.LocalDate;
+import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Emissão e consulta de certificados.
+ * <p>
+ * A emissão é assíncrona: a requisição (ou a conclusão da matrícula) apenas reserva o certificado
+ * como PENDING em uma transação curta, e o PDF é gerado no {@code certificateExecutor}, salvo em
+ * disco e marcado como READY (ou FAILED) sem manter uma conexão do banco aberta durante a
+ * renderização. Uma varredura periódica cobre tarefas perdidas.
+ */
 @Service
 @RequiredArgsConstructor
 public class CertificateService {
 
+    private static final Logger log = LoggerFactory.getLogger(CertificateService.class);
+
+    private static final int SWEEP_BATCH_SIZE = 500;
+
     private final CertificateRepository certificateRepository;
     private final EnrollmentRepository enrollmentRepository;
     private final FileStorageService fileStorageService;
-    private final TemplateEngine templateEngine;
+    private final CertificateRenderer certificateRenderer;
+    private final CertificateThumbnailRenderer thumbnailRenderer;
     private final ModuleRepository moduleRepository; // Para calcular horas de vídeo
     private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLockService jobLockService;
+    private final Executor certificateExecutor;
+
+    // Certificados na fila deste nó, para a varredura não enfileirar o mesmo duas vezes
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
 
     // Injeção dos valores do application.properties
     @org.springframework.beans.factory.annotation.Value("${app.company.name:Go-Tree Consultoria}")
@@ -60,58 +90,234 @@ public class CertificateService {
     @org.springframework.beans.factory.annotation.Value("${app.company.cnpj:CNPJ não informado}")
     private String companyCnpj;
 
-    @Transactional
-    public Certificate issueCertificate(UUID enrollmentId) {
-        // Busca Matrícula
+    @org.springframework.beans.factory.annotation.Value("${app.certificates.stale-minutes:5}")
+    private long staleMinutes;
+
+    @org.springframework.beans.factory.annotation.Value("${app.certificates.sweep-lookback-hours:24}")
+    private long lookbackHours;
+
+    /**
+     * Solicita o certificado de uma matrícula concluída do usuário.
+     * <p>
+     * Apenas reserva o certificado (código de validação, status PENDING) em uma transação curta e
+     * agenda a geração do PDF; o cliente acompanha a emissão por {@link #getStatus}. Se o
+     * certificado já existir, é devolvido como está, e um certificado FAILED volta para a fila.
+     *
+     * @throws AccessDeniedException se a matrícula não pertencer ao usuário
+     * @throws BusinessRuleException se a matrícula não existir ou não estiver concluída
+     */
+    public CertificateStatusDTO issue(UUID enrollmentId, UUID userId) {
+        Certificate certificate = reserve(enrollmentId, userId);
+        if (certificate.getStatus() == CertificateStatus.PENDING) {
+            enqueue(certificate.getId());
+        }
+        return toStatusDTO(certificate, enrollmentId);
+    }
+
+    /**
+     * Emite automaticamente o certificado quando a matrícula é concluída.
+     */
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentCompleted(EnrollmentCompletedEvent event) {
+        Certificate certificate = reserve(event.enrollmentId(), null);
+        if (certificate.getStatus() == CertificateStatus.PENDING) {
+            enqueue(certificate.getId());
+        }
+    }
+
+    /**
+     * Recoloca na fila os certificados pendentes há mais tempo que o esperado (fila cheia, nó
+     * reiniciado) e reserva os das matrículas concluídas recentemente cujo evento se perdeu.
+     */
+    @Scheduled(fixedDelayString = "${app.certificates.sweep-interval-ms:60000}")
+    public void sweepPending() {
+        jobLockService.runExclusively("certificate-sweep", Duration.ofSeconds(30), () -> {
+            OffsetDateTime now = OffsetDateTime.now();
+            PageRequest batch = PageRequest.of(0, SWEEP_BATCH_SIZE);
+
+            certificateRepository.findIdsByStatusIssuedBefore(
+                    CertificateStatus.PENDING, now.minusMinutes(staleMinutes), batch).forEach(this::enqueue);
+
+            for (UUID enrollmentId : certificateRepository.findCompletedEnrollmentIdsWithoutCertificate(
+                    now.minusHours(lookbackHours), batch)) {
+                try {
+                    Certificate certificate = reserve(enrollmentId, null);
+                    if (certificate.getStatus() == CertificateStatus.PENDING) {
+                        enqueue(certificate.getId());
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Falha ao reservar o certificado da matrícula {}.", enrollmentId, e);
+                }
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public CertificateStatusDTO getStatus(UUID certificateId, UUID userId) {
+        Certificate cert = certificateRepository.findById(certificateId)
+                .orElseThrow(() -> new EntityNotFoundException("Certificado não encontrado."));
+        Enrollment enrollment = cert.getEnrollment();
+        if (!enrollment.getUser().getId().equals(userId)) {
+            throw new AccessDeniedException("Este certificado não pertence ao usuário.");
+        }
+        return toStatusDTO(cert, enrollment.getId());
+    }
+
+    /**
+     * Reserva o certificado da matrícula, ou devolve o já existente. {@code userId} nulo dispensa
+     * a verificação de dono (emissão automática).
+     */
+    private Certificate reserve(UUID enrollmentId, UUID userId) {
+        try {
+            return transactionTemplate.execute(status -> reserveInTransaction(enrollmentId, userId));
+        } catch (DataIntegrityViolationException e) {
+            // Outra requisição (ou o evento de conclusão) reservou o mesmo certificado ao mesmo tempo.
+            return certificateRepository.findByEnrollmentId(enrollmentId).orElseThrow(() -> e);
+        }
+    }
+
+    private Certificate reserveInTransaction(UUID enrollmentId, UUID userId) {
         Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
                 .orElseThrow(() -> new BusinessRuleException("Matrícula não encontrada."));
 
+        if (userId != null && !enrollment.getUser().getId().equals(userId)) {
+            throw new AccessDeniedException("Esta matrícula não pertence ao usuário.");
+        }
+
         // Valida se o curso está concluído
         if (enrollment.getStatus() != EnrollmentStatus.COMPLETED) {
             throw new BusinessRuleException("O certificado só pode ser emitido após a conclusão do curso.");
         }
 
         // Valida se já existe (Retorna o existente para evitar duplicidade)
-        if (certificateRepository.existsByEnrollmentId(enrollmentId)) {
-            return certificateRepository.findByEnrollmentId(enrollmentId).orElseThrow();
+        Optional<Certificate> existing = certificateRepository.findByEnrollmentId(enrollmentId);
+        if (existing.isPresent()) {
+            Certificate cert = existing.get();
+            if (cert.getStatus() == CertificateStatus.FAILED) {
+                cert.setStatus(CertificateStatus.PENDING);
+            }
+            return cert;
         }
 
-        // Gera Código de Validação
-        String validationCode = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        // O código de validação é gerado no @PrePersist; a carga horária é guardada como snapshot
+        Certificate cert = Certificate.builder()
+                .enrollment(enrollment)
+                .status(CertificateStatus.PENDING)
+                .workloadSnapshot(calculateWorkloadText(enrollment.getTraining()))
+                .build();
+        return certificateRepository.saveAndFlush(cert);
+    }
+
+    /**
+     * Agenda a geração do PDF. Se a fila estiver cheia, o certificado continua PENDING e é
+     * recolocado na fila pela varredura.
+     */
+    private void enqueue(UUID certificateId) {
+        if (!inFlight.add(certificateId)) {
+            return; // Já está na fila deste nó
+        }
+        try {
+            certificateExecutor.execute(() -> {
+                try {
+                    renderAndStore(certificateId);
+                } finally {
+                    inFlight.remove(certificateId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(certificateId);
+            log.warn("Fila de certificados cheia; o certificado {} será gerado pela varredura.", certificateId);
+        }
+    }
 
-        // Calcula a Carga Horária (Texto formatado, ex: "10 horas")
-        String workloadText = calculateWorkloadText(enrollment.getTraining());
+    /**
+     * Gera o PDF fora de transação: os dados são lidos em uma transação curta e o status é
+     * atualizado em outra, de modo que nenhuma conexão fica presa durante a renderização.
+     */
+    private void renderAndStore(UUID certificateId) {
+        try {
+            RenderJob job = transactionTemplate.execute(status -> prepareRender(certificateId));
+            if (job == null) {
+                return; // Já foi gerado (ou não existe mais)
+            }
 
-        // Gera o PDF a partir do HTML
-        byte[] pdfBytes = generatePdfFromTemplate(enrollment, validationCode, workloadText);
+            byte[] pdfBytes = certificateRenderer.render(job.data());
+            CertificateThumbnailRenderer.Thumbnail thumbnail = thumbnailRenderer.render(job.data());
+
+            // Salva os arquivos físicos (PDF e miniatura)
+            String fileName = "certificate_" + job.enrollmentId() + ".pdf";
+            String storedPath = fileStorageService.save(new ByteArrayMultipartFile(pdfBytes, fileName, "application/pdf"));
+            String thumbnailPath = fileStorageService.save(
+                    new ByteArrayMultipartFile(thumbnail.jpeg(), thumbnailFileName(job.enrollmentId()), "image/jpeg"));
+
+            Integer updated = transactionTemplate.execute(status ->
+                    certificateRepository.markReady(certificateId, storedPath, thumbnailPath, thumbnail.etag()));
+            if (updated != null && updated == 1) {
+                // Envia o e-mail de forma assíncrona com o byte[] do PDF
+                emailService.sendCertificateEmail(
+                        job.email(),
+                        job.data().studentName(),
+                        job.data().courseName(),
+                        pdfBytes,
+                        fileName
+                );
+            } else {
+                // Outra execução concluiu antes (ou o certificado saiu de PENDING): os arquivos ficam órfãos.
+                deleteQuietly(storedPath);
+                deleteQuietly(thumbnailPath);
+            }
+        } catch (RuntimeException e) {
+            log.error("Falha ao gerar o certificado {}.", certificateId, e);
+            transactionTemplate.executeWithoutResult(status -> certificateRepository.updateStatus(
+                    certificateId, CertificateStatus.PENDING, CertificateStatus.FAILED));
+        }
+    }
 
-        // Salva o arquivo físico
-        String fileName = "certificate_" + enrollmentId + ".pdf";
-        MultipartFile multipartFile = new ByteArrayMultipartFile(pdfBytes, fileName, "application/pdf");
-        String storedPath = fileStorageService.save(multipartFile);
+    private RenderJob prepareRender(UUID certificateId) {
+        Certificate cert = certificateRepository.findForRendering(certificateId).orElse(null);
+        if (cert == null || cert.getStatus() != CertificateStatus.PENDING) {
+            return null;
+        }
+        return toRenderJob(cert, cert.getWorkloadSnapshot());
+    }
 
-        // Salva no Banco (com o snapshot da carga horária)
-        Certificate cert = Certificate.builder()
-                .enrollment(enrollment)
-                .validationCode(validationCode)
-                .filePath(storedPath)
-                .workloadSnapshot(workloadText) // Importante: Salva o valor calculado
-                .build();
+    private RenderJob toRenderJob(Certificate cert, String workload) {
+        Enrollment enrollment = cert.getEnrollment();
 
-        // Pega o nome do aluno (ou o e-mail se o nome estiver nulo)
+        // Nome do aluno (Prefere do perfil, fallback para email)
         String studentName = (enrollment.getUser().getPersonalProfile() != null)
                 ? enrollment.getUser().getPersonalProfile().getFullName()
                 : enrollment.getUser().getEmail();
 
-        // Envia o e-mail de forma assíncrona com o byte[] do PDF
-        emailService.sendCertificateEmail(
-                enrollment.getUser().getEmail(),
+        OffsetDateTime completedAt = enrollment.getCompletedAt() != null ? enrollment.getCompletedAt() : cert.getIssuedAt();
+
+        CertificateRenderer.CertificateData data = new CertificateRenderer.CertificateData(
                 studentName,
                 enrollment.getTraining().getTitle(),
-                pdfBytes,
-                fileName
+                workload,
+                cert.getValidationCode(),
+                completedAt.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")),
+                companyName,
+                companyCnpj
         );
-        return certificateRepository.save(cert);
+        return new RenderJob(enrollment.getId(), enrollment.getUser().getEmail(), data);
+    }
+
+    private CertificateStatusDTO toStatusDTO(Certificate cert, UUID enrollmentId) {
+        String downloadUrl = cert.getStatus() == CertificateStatus.READY ? downloadUrl(cert.getId()) : null;
+        return new CertificateStatusDTO(cert.getId(), enrollmentId, cert.getStatus(), cert.getValidationCode(), downloadUrl);
+    }
+
+    private static String thumbnailFileName(UUID enrollmentId) {
+        return "certificate_" + enrollmentId + "_thumbnail.jpg";
+    }
+
+    private static String downloadUrl(UUID certificateId) {
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/controllers/certificates/download/")
+                .path(certificateId.toString())
+                .toUriString();
     }
 
     @Transactional(readOnly = true)
@@ -124,16 +330,15 @@ public class CertificateService {
         return certificates.stream().map(cert -> {
 
             // Gera a URL de download dinâmica
-            String downloadUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
-                    .path("/controllers/certificates/download/")
-                    .path(cert.getId().toString())
-                    .toUriString();
+            String downloadUrl = downloadUrl(cert.getId());
 
             // Gera a URL da miniatura dinâmica
+            // O ETag vai na URL: a miniatura pode ser guardada como imutável pelo navegador
             String thumbnailUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
                     .path("/controllers/certificates/")
                     .path(cert.getId().toString())
                     .path("/thumbnail")
+                    .queryParamIfPresent("v", Optional.ofNullable(cert.getThumbnailEtag()).map(etag -> etag.replace("\"", "")))
                     .toUriString();
 
             return new CertificateListItemDTO(
@@ -149,106 +354,85 @@ public class CertificateService {
     }
 
     /**
-     * Gera uma imagem (JPG) dinâmica do certificado para usar como miniatura.
-     * Desenha o texto sobre a imagem de fundo padrão.
+     * Gera novamente o PDF e a miniatura de um certificado pronto, com o template e os dados
+     * da empresa atuais. Os novos arquivos são gravados com outro nome e o registro passa a
+     * apontar para eles em um único UPDATE; só então os antigos são removidos. Não reenvia e-mail.
+     *
+     * @param refreshWorkload recalcula a carga horária do treinamento em vez de manter o snapshot
+     * @return {@code false} se o certificado não existe ou não está pronto
      */
-    public byte[] generateCertificateThumbnail(UUID certificateId) {
-        Certificate cert = certificateRepository.findById(certificateId)
-                .orElseThrow(() -> new EntityNotFoundException("Certificado não encontrado."));
-        Enrollment enrollment = cert.getEnrollment();
+    public boolean regenerate(UUID certificateId, boolean refreshWorkload) {
+        Regeneration current = transactionTemplate.execute(status -> certificateRepository.findForRendering(certificateId)
+                .filter(cert -> cert.getStatus() == CertificateStatus.READY)
+                .map(cert -> new Regeneration(
+                        toRenderJob(cert, refreshWorkload
+                                ? calculateWorkloadText(cert.getEnrollment().getTraining())
+                                : cert.getWorkloadSnapshot()),
+                        cert.getFilePath(),
+                        cert.getThumbnailPath()))
+                .orElse(null));
+        if (current == null) {
+            return false;
+        }
+        RenderJob job = current.job();
+
+        byte[] pdfBytes = certificateRenderer.render(job.data());
+        CertificateThumbnailRenderer.Thumbnail thumbnail = thumbnailRenderer.render(job.data());
+        String storedPath = fileStorageService.save(
+                new ByteArrayMultipartFile(pdfBytes, "certificate_" + job.enrollmentId() + ".pdf", "application/pdf"));
+        String thumbnailPath = fileStorageService.save(
+                new ByteArrayMultipartFile(thumbnail.jpeg(), thumbnailFileName(job.enrollmentId()), "image/jpeg"));
+
+        Integer updated = transactionTemplate.execute(status -> certificateRepository.swapFiles(
+                certificateId, storedPath, thumbnailPath, thumbnail.etag(), job.data().workload()));
+        boolean swapped = updated != null && updated == 1;
+
+        // Remove os arquivos que ficaram sem referência: os antigos, ou os novos se a troca não ocorreu
+        deleteQuietly(swapped ? current.filePath() : storedPath);
+        deleteQuietly(swapped ? current.thumbnailPath() : thumbnailPath);
+        return swapped;
+    }
 
+    private void deleteQuietly(String filename) {
+        if (filename == null) {
+            return;
+        }
         try {
-            Resource resource = new ClassPathResource("CERTIFICADO.png"); // Sua imagem corrigida
-            BufferedImage originalImage = ImageIO.read(resource.getInputStream());
-
-            // CORREÇÃO: Criar uma nova imagem RGB (sem transparência) para evitar erros no JPG
-            BufferedImage image = new BufferedImage(
-                    originalImage.getWidth(),
-                    originalImage.getHeight(),
-                    BufferedImage.TYPE_INT_RGB
-            );
-
-            Graphics2D g2d = image.createGraphics();
-
-            // Pinta o fundo de branco antes de desenhar o PNG por cima
-            g2d.setColor(Color.WHITE);
-            g2d.fillRect(0, 0, image.getWidth(), image.getHeight());
-
-            // Desenha a imagem original (CERTIFICADO.png) sobre o fundo branco
-            g2d.drawImage(originalImage, 0, 0, null);
-
-            // Configurações de qualidade de renderização de texto (anti-aliasing)
-            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-
-            // --- CONFIGURAÇÃO DE FONTES E CORES ---
-            // Cor do texto (verde escuro da sua identidade visual)
-            Color primaryColor = new Color(15, 76, 58); // #0f4c3a
-            g2d.setColor(primaryColor);
-
-            // Definindo fontes (usando Serif padrão do sistema para simplificar,
-            // para usar a Montserrat aqui seria necessário carregar o .ttf também)
-            Font fontText = new Font("Serif", Font.PLAIN, 40); // Texto comum
-            Font fontBoldBig = new Font("Serif", Font.BOLD, 70);   // Nome do Aluno
-            Font fontBoldMedium = new Font("Serif", Font.BOLD, 50); // Nome do Curso
-            Font fontSmall = new Font("Serif", Font.PLAIN, 30); // Rodapé
-
-            int imgWidth = image.getWidth();
-            // int imgHeight = image.getHeight(); // Se precisar para cálculos verticais
-
-            // --- DESENHANDO OS TEXTOS (Bloco Central) ---
-
-            // "Certificamos que"
-            drawCenteredString(g2d, "Certificamos que", imgWidth, 800, fontText);
-
-            // NOME DO ALUNO
-            String studentName = enrollment.getUser().getPersonalProfile().getFullName();
-            drawCenteredString(g2d, studentName, imgWidth, 950, fontBoldBig);
-
-            // "concluiu com êxito o treinamento"
-            drawCenteredString(g2d, "concluiu com êxito o treinamento", imgWidth, 1100, fontText);
-
-            // NOME DO CURSO
-            drawCenteredString(g2d, enrollment.getTraining().getTitle(), imgWidth, 1250, fontBoldMedium);
-
-            // --- RODAPÉ ---
-            g2d.setFont(fontSmall);
-
-            // Canto Inferior Esquerdo (CNPJ e Empresa)
-            int footerY = 1900; // Altura aproximada do rodapé
-            int leftMargin = 150;
-
-            g2d.drawString("Oferecido pela " + companyName, leftMargin, footerY);
-            g2d.drawString("CNPJ: " + companyCnpj, leftMargin, footerY + 50);
-
-            // Centro/Direita (Carga horária e Data)
-            // Usando o snapshot salvo no momento da emissão
-            String workload = cert.getWorkloadSnapshot() != null ? cert.getWorkloadSnapshot() : "N/A";
-            String date = cert.getIssuedAt().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
-
-            drawCenteredString(g2d, "Carga Horária: " + workload, imgWidth, footerY, fontSmall);
-            drawCenteredString(g2d, "Data de Conclusão: " + date, imgWidth, footerY + 50, fontSmall);
-
-            // --- FINALIZAÇÃO ---
-            g2d.dispose(); // Libera recursos gráficos
-
-            // Converte a imagem alterada para array de bytes (JPG)
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            // Usamos JPEG para a miniatura ficar mais leve
-            ImageIO.write(image, "jpg", baos);
-            return baos.toByteArray();
-
-        } catch (IOException e) {
-            throw new RuntimeException("Erro ao gerar miniatura do certificado", e);
+            fileStorageService.delete(filename);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao remover o arquivo {} do certificado.", filename, e);
         }
     }
 
-    // Metodo auxiliar para centralizar texto horizontalmente
-    private void drawCenteredString(Graphics2D g2d, String text, int width, int y, Font font) {
-        g2d.setFont(font);
-        FontMetrics metrics = g2d.getFontMetrics(font);
-        int x = (width - metrics.stringWidth(text)) / 2;
-        g2d.drawString(text, x, y);
+    /**
+     * Miniatura do certificado para a galeria, gerada na emissão. Certificados emitidos antes
+     * disso recebem a miniatura no primeiro acesso, e ela fica salva para os seguintes.
+     *
+     * @throws AccessDeniedException se o certificado não pertencer ao usuário e ele não for SYSTEM_ADMIN
+     */
+    public ThumbnailFile getThumbnail(UUID certificateId, AuthUser user) {
+        Certificate cert = certificateRepository.findById(certificateId)
+                .orElseThrow(() -> new EntityNotFoundException("Certificado não encontrado."));
+        // A miniatura traz o nome do aluno: só o dono ou um administrador podem vê-la.
+        if (user.getRole() != UserRole.SYSTEM_ADMIN
+                && certificateRepository.findOwnerIdById(certificateId).filter(user.getId()::equals).isEmpty()) {
+            throw new AccessDeniedException("Este certificado não pertence ao usuário.");
+        }
+        if (cert.getStatus() != CertificateStatus.READY) {
+            throw new BusinessRuleException("O certificado ainda não está disponível.");
+        }
+        if (cert.getThumbnailPath() != null) {
+            return new ThumbnailFile(fileStorageService.loadAsResource(cert.getThumbnailPath()), cert.getThumbnailEtag());
+        }
+
+        RenderJob job = transactionTemplate.execute(status -> certificateRepository.findForRendering(certificateId)
+                .map(rendering -> toRenderJob(rendering, rendering.getWorkloadSnapshot()))
+                .orElseThrow(() -> new EntityNotFoundException("Certificado não encontrado.")));
+        CertificateThumbnailRenderer.Thumbnail thumbnail = thumbnailRenderer.render(job.data());
+        String storedPath = fileStorageService.save(
+                new ByteArrayMultipartFile(thumbnail.jpeg(), thumbnailFileName(job.enrollmentId()), "image/jpeg"));
+        transactionTemplate.execute(status -> certificateRepository.setThumbnailIfAbsent(certificateId, storedPath, thumbnail.etag()));
+        return new ThumbnailFile(new ByteArrayResource(thumbnail.jpeg()), thumbnail.etag());
     }
 
     /**
@@ -279,82 +463,25 @@ public class CertificateService {
         return hours + " horas";
     }
 
-    /**
-     * Gera o PDF processando o template HTML com o Thymeleaf e convertendo com Flying Saucer.
-     */
-    private byte[] generatePdfFromTemplate(Enrollment enrollment, String validationCode, String workloadText) {
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            // 1. Contexto do Thymeleaf (Variáveis para o HTML)
-            Context context = new Context();
-
-            // Nome do aluno (Prefere do perfil, fallback para email)
-            String studentName = (enrollment.getUser().getPersonalProfile() != null)
-                    ? enrollment.getUser().getPersonalProfile().getFullName()
-                    : enrollment.getUser().getEmail();
-
-            context.setVariable("studentName", studentName);
-            context.setVariable("courseName", enrollment.getTraining().getTitle()); // Ajustado para bater com seu HTML
-            context.setVariable("workload", workloadText);
-            context.setVariable("validationCode", validationCode);
-            context.setVariable("completionDate", LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))); // Ajustado nome da variável
-            context.setVariable("companyName", companyName); // Variável injetada do application.properties
-            context.setVariable("companyCnpj", companyCnpj); // Variável injetada do application.properties
-
-            // 2. Carregar imagem de fundo e converter para Base64
-            try {
-                String bgImageBase64 = convertImageToBase64("CERTIFICADO.png");
-                context.setVariable("bgImageBase64", bgImageBase64);
-            } catch (IOException e) {
-                // Se der erro na imagem, logamos mas não paramos o processo (o certificado sai sem fundo)
-                System.err.println("Aviso: Imagem de fundo do certificado não encontrada.");
-                context.setVariable("bgImageBase64", "");
-            }
-
-            // 3. Processa o HTML
-            String htmlContent = templateEngine.process("certificate", context);
-
-            // 4. Converte HTML para PDF
-            ITextRenderer renderer = new ITextRenderer();
-
-            try {
-                renderer.getFontResolver().addFont(
-                        new ClassPathResource("fonts/Montserrat.ttf").getURL().toExternalForm(),
-                        BaseFont.IDENTITY_H,
-                        BaseFont.EMBEDDED
-                );
-            } catch (IOException e) {
-                // Logue o erro, mas não trave a aplicação se a fonte falhar (vai usar a padrão)
-                System.err.println("Erro ao carregar fonte customizada: " + e.getMessage());
-            }
-
-            // Configuração para Imagens
-            renderer.getSharedContext().setReplacedElementFactory(
-                    new org.xhtmlrenderer.pdf.ITextReplacedElementFactory(renderer.getOutputDevice())
-            );
-
-            renderer.setDocumentFromString(htmlContent);
-            renderer.layout();
-            renderer.createPDF(outputStream);
-
-            return outputStream.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao gerar PDF do certificado", e);
+    public Resource getCertificateFile(UUID certificateId) {
+        Certificate cert = certificateRepository.findById(certificateId)
+                .orElseThrow(() -> new BusinessRuleException("Certificado não encontrado."));
+        if (cert.getStatus() != CertificateStatus.READY) {
+            throw new BusinessRuleException("O certificado ainda não está disponível para download.");
         }
+        return fileStorageService.loadAsResource(cert.getFilePath());
     }
 
     /**
-     * Lê um arquivo da pasta resources e converte para String Base64.
+     * @param etag ETag forte (entre aspas) derivado do conteúdo da miniatura.
      */
-    private String convertImageToBase64(String fileName) throws IOException {
-        Resource resource = new ClassPathResource(fileName);
-        byte[] imageBytes = StreamUtils.copyToByteArray(resource.getInputStream());
-        return Base64.getEncoder().encodeToString(imageBytes);
+    public record ThumbnailFile(Resource resource, String etag) {
     }
 
-    public Resource getCertificateFile(UUID certificateId) {
-        Certificate cert = certificateRepository.findById(certificateId)
-                .orElseThrow(() -> new BusinessRuleException("Certificado não encontrado."));
-        return fileStorageService.loadAsResource(cert.getFilePath());
+    private record RenderJob(UUID enrollmentId, String email, CertificateRenderer.CertificateData data) {
+    }
+
+    private record Regeneration(RenderJob job, String filePath, String thumbnailPath) {
     }
 
     // =================================================================================
@@ -0,0 +1,179 @@
+package com.example.prospera.certificate.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Gera a miniatura (JPG) do certificado exibida na galeria.
+ * <p>
+ * O {@code CERTIFICADO.png} é decodificado uma única vez, na subida. Cada miniatura é desenhada
+ * na resolução original (as posições do texto são as do layout impresso) e reduzida em etapas
+ * de metade com interpolação bilinear até a largura de listagem
+ * ({@code app.certificates.thumbnail-width}), o que evita o serrilhado de uma redução direta.
+ * A miniatura é gerada na emissão e guardada junto do PDF; o ETag é o hash do conteúdo.
+ */
+@Component
+public class CertificateThumbnailRenderer {
+
+    private static final String BACKGROUND_IMAGE = "CERTIFICADO.png";
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final Color PRIMARY_COLOR = new Color(15, 76, 58); // #0f4c3a
+
+    private static final Font FONT_TEXT = new Font("Serif", Font.PLAIN, 40);
+    private static final Font FONT_STUDENT = new Font("Serif", Font.BOLD, 70);
+    private static final Font FONT_COURSE = new Font("Serif", Font.BOLD, 50);
+    private static final Font FONT_FOOTER = new Font("Serif", Font.PLAIN, 30);
+
+    private final int thumbnailWidth;
+
+    // Fundo já decodificado e sem transparência; só é lido, nunca alterado.
+    private BufferedImage background;
+
+    public CertificateThumbnailRenderer(@Value("${app.certificates.thumbnail-width:640}") int thumbnailWidth) {
+        this.thumbnailWidth = thumbnailWidth;
+    }
+
+    @PostConstruct
+    void loadBackground() throws IOException {
+        BufferedImage original;
+        try (InputStream input = new ClassPathResource(BACKGROUND_IMAGE).getInputStream()) {
+            original = ImageIO.read(input);
+        }
+        // JPG não tem canal alfa: o PNG é achatado sobre fundo branco.
+        background = new BufferedImage(original.getWidth(), original.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = background.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, background.getWidth(), background.getHeight());
+        g2d.drawImage(original, 0, 0, null);
+        g2d.dispose();
+    }
+
+    /**
+     * Desenha a miniatura com os dados do certificado.
+     */
+    public Thumbnail render(CertificateRenderer.CertificateData data) {
+        BufferedImage image = new BufferedImage(background.getWidth(), background.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.drawImage(background, 0, 0, null);
+            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2d.setColor(PRIMARY_COLOR);
+
+            int width = image.getWidth();
+
+            // --- Bloco central ---
+            drawCenteredString(g2d, "Certificamos que", width, 800, FONT_TEXT);
+            drawCenteredString(g2d, data.studentName(), width, 950, FONT_STUDENT);
+            drawCenteredString(g2d, "concluiu com êxito o treinamento", width, 1100, FONT_TEXT);
+            drawCenteredString(g2d, data.courseName(), width, 1250, FONT_COURSE);
+
+            // --- Rodapé ---
+            int footerY = 1900;
+            int leftMargin = 150;
+            g2d.setFont(FONT_FOOTER);
+            g2d.drawString("Oferecido pela " + data.companyName(), leftMargin, footerY);
+            g2d.drawString("CNPJ: " + data.companyCnpj(), leftMargin, footerY + 50);
+
+            String workload = data.workload() != null ? data.workload() : "N/A";
+            drawCenteredString(g2d, "Carga Horária: " + workload, width, footerY, FONT_FOOTER);
+            drawCenteredString(g2d, "Data de Conclusão: " + data.completionDate(), width, footerY + 50, FONT_FOOTER);
+        } finally {
+            g2d.dispose();
+        }
+
+        byte[] jpeg = encodeJpeg(downscale(image, thumbnailWidth));
+        return new Thumbnail(jpeg, contentEtag(jpeg));
+    }
+
+    /**
+     * Reduz em etapas de no máximo metade do tamanho: cada passo bilinear usa todos os pixels
+     * de origem, com qualidade próxima à de um filtro de área e custo bem menor.
+     */
+    private static BufferedImage downscale(BufferedImage source, int targetWidth) {
+        if (source.getWidth() <= targetWidth) {
+            return source;
+        }
+        int targetHeight = (int) Math.round(source.getHeight() * (targetWidth / (double) source.getWidth()));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        while (width > targetWidth || height > targetHeight) {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = step.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2d.drawImage(current, 0, 0, width, height, null);
+            g2d.dispose();
+            current = step;
+        }
+        return current;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(buffer)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao gerar miniatura do certificado", e);
+        } finally {
+            writer.dispose();
+        }
+        return buffer.toByteArray();
+    }
+
+    private static String contentEtag(byte[] content) {
+        try {
+            // ETag forte derivado do conteúdo, igual em todas as instâncias da API.
+            String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content), 0, 16);
+            return "\"" + hash + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível na JVM.", e);
+        }
+    }
+
+    // Metodo auxiliar para centralizar texto horizontalmente
+    private static void drawCenteredString(Graphics2D g2d, String text, int width, int y, Font font) {
+        g2d.setFont(font);
+        FontMetrics metrics = g2d.getFontMetrics(font);
+        int x = (width - metrics.stringWidth(text)) / 2;
+        g2d.drawString(text, x, y);
+    }
+
+    /**
+     * @param jpeg miniatura codificada em JPG.
+     * @param etag ETag forte (entre aspas) derivado do conteúdo.
+     */
+    public record Thumbnail(byte[] jpeg, String etag) {
+    }
+}
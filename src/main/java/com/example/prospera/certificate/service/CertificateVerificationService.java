@@ -0,0 +1,169 @@
+package com.example.prospera.certificate.service;
+
+import com.example.prospera.certificate.domain.enums.CertificateStatus;
+import com.example.prospera.certificate.dto.CertificateVerificationDTO;
+import com.example.prospera.certificate.repositories.CertificateRepository;
+import com.example.prospera.common.cache.BloomFilter;
+import com.example.prospera.common.web.ClientRateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Verificação pública de certificados pelo código de validação (QR code impresso).
+ * <p>
+ * A rota é aberta e quente, então cada consulta passa por três camadas antes do MySQL:
+ * <ol>
+ *     <li>um limite de requisições por cliente ({@link ClientRateLimiter});</li>
+ *     <li>um cache LRU limitado das verificações recentes, inclusive das que não encontraram nada;</li>
+ *     <li>um {@link BloomFilter} com todos os códigos já emitidos: um código que nunca existiu
+ *     (erro de digitação ou tentativa de enumeração) é recusado sem ir ao banco.</li>
+ * </ol>
+ * O filtro é montado na subida e atualizado em intervalos curtos com os códigos reservados desde a
+ * última atualização (em qualquer réplica). Quando passa da capacidade prevista, é reconstruído
+ * maior. Enquanto não está pronto, as consultas vão direto ao banco.
+ */
+@Service
+public class CertificateVerificationService {
+
+    private static final Logger log = LoggerFactory.getLogger(CertificateVerificationService.class);
+
+    // Mesmo formato gerado na emissão: 8 caracteres hexadecimais em maiúsculas.
+    private static final Pattern CODE_FORMAT = Pattern.compile("[0-9A-F]{8}");
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final long MIN_FILTER_CAPACITY = 100_000;
+    // Margem na atualização incremental: cobre diferenças de relógio entre as réplicas que emitem.
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(5);
+    // Um código pendente pode ficar pronto logo depois: respostas negativas valem pouco tempo.
+    private static final long NEGATIVE_TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final CertificateRepository certificateRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ClientRateLimiter rateLimiter;
+    private final long positiveTtlNanos;
+    private final Map<String, CachedVerification> recent;
+
+    private volatile BloomFilter issuedCodes;
+    private volatile OffsetDateTime syncedAt;
+
+    public CertificateVerificationService(CertificateRepository certificateRepository,
+                                          JdbcTemplate jdbcTemplate,
+                                          @Value("${app.certificates.verification.cache-size:10000}") int cacheSize,
+                                          @Value("${app.certificates.verification.cache-ttl-seconds:600}") long cacheTtlSeconds,
+                                          @Value("${app.certificates.verification.rate-limit.capacity:20}") int rateLimitCapacity,
+                                          @Value("${app.certificates.verification.rate-limit.refill-per-minute:60}") int rateLimitRefillPerMinute,
+                                          @Value("${app.certificates.verification.rate-limit.max-clients:100000}") int rateLimitMaxClients) {
+        this.certificateRepository = certificateRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.rateLimiter = new ClientRateLimiter(rateLimitCapacity, rateLimitRefillPerMinute, rateLimitMaxClients);
+        this.positiveTtlNanos = TimeUnit.SECONDS.toNanos(cacheTtlSeconds);
+
+        int maxEntries = Math.max(1, cacheSize);
+        // LinkedHashMap em ordem de acesso descarta a entrada usada há mais tempo.
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<String, CachedVerification>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedVerification> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Consome uma requisição do limite do cliente.
+     *
+     * @return {@code false} se o cliente passou do limite
+     */
+    public boolean tryAcquire(String clientKey) {
+        return rateLimiter.tryAcquire(clientKey);
+    }
+
+    public long retryAfterSeconds() {
+        return rateLimiter.retryAfterSeconds();
+    }
+
+    /**
+     * Busca os dados públicos do certificado pronto com o código informado.
+     */
+    public Optional<CertificateVerificationDTO> verify(String rawCode) {
+        String code = rawCode == null ? "" : rawCode.trim().toUpperCase(Locale.ROOT);
+        if (!CODE_FORMAT.matcher(code).matches()) {
+            return Optional.empty();
+        }
+
+        long now = System.nanoTime();
+        CachedVerification cached = recent.get(code);
+        if (cached != null && cached.expiresAt() - now > 0) {
+            return cached.result();
+        }
+
+        BloomFilter filter = issuedCodes;
+        if (filter != null && !filter.mightContain(code)) {
+            return Optional.empty();
+        }
+
+        Optional<CertificateVerificationDTO> result = certificateRepository.findVerificationByValidationCode(code);
+        recent.put(code, new CachedVerification(result, now + (result.isPresent() ? positiveTtlNanos : NEGATIVE_TTL_NANOS)));
+        return result;
+    }
+
+    /**
+     * Monta o filtro na primeira execução e, depois, acrescenta os códigos reservados desde a última.
+     */
+    @Scheduled(fixedDelayString = "${app.certificates.verification.sync-interval-ms:10000}")
+    public void syncIssuedCodes() {
+        OffsetDateTime startedAt = OffsetDateTime.now();
+        try {
+            BloomFilter filter = issuedCodes;
+            if (filter == null || filter.insertions() > filter.expectedInsertions()) {
+                rebuild();
+            } else {
+                certificateRepository.findValidationCodesIssuedSince(
+                        EnumSet.allOf(CertificateStatus.class), syncedAt.minus(SYNC_OVERLAP)).forEach(filter::put);
+            }
+            syncedAt = startedAt;
+        } catch (DataAccessException e) {
+            // Sem atualizar, o filtro apenas deixa de conhecer os códigos mais novos até a próxima execução.
+            log.warn("Falha ao atualizar o filtro de códigos de certificados.", e);
+        }
+    }
+
+    private void rebuild() {
+        long startedAt = System.nanoTime();
+        long expected = Math.max(MIN_FILTER_CAPACITY, certificateRepository.count() * 2);
+        BloomFilter filter = new BloomFilter(expected, FALSE_POSITIVE_RATE);
+
+        // Com fetch size Integer.MIN_VALUE o driver do MySQL entrega as linhas uma a uma.
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("SELECT validation_code FROM certificates",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            return statement;
+        }, (RowCallbackHandler) rs -> filter.put(rs.getString(1)));
+
+        issuedCodes = filter;
+        log.info("Filtro de códigos de certificados montado com {} códigos (capacidade {}) em {} ms.",
+                filter.insertions(), expected, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    private record CachedVerification(Optional<CertificateVerificationDTO> result, long expiresAt) {
+    }
+}
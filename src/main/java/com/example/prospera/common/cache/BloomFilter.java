@@ -0,0 +1,119 @@
+package com.example.prospera.common.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de strings, seguro para leituras e escritas concorrentes.
+ * <p>
+ * {@link #mightContain} nunca dá falso negativo: {@code false} garante que o valor não foi
+ * adicionado, e {@code true} pode ser um falso positivo com a probabilidade escolhida na criação
+ * (enquanto o número de valores não passar do esperado). Os {@code k} índices vêm de dois hashes
+ * de 64 bits combinados (h1 + i * h2), sem depender de bibliotecas externas.
+ */
+public final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedInsertions;
+    private final AtomicLong insertions = new AtomicLong();
+
+    /**
+     * @param expectedInsertions quantidade de valores prevista.
+     * @param falsePositiveRate  taxa de falso positivo desejada nessa quantidade (ex.: 0.01).
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Parâmetros inválidos para o filtro de Bloom.");
+        }
+        long bitsNeeded = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+        this.bits = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE - 8, (bitsNeeded + 63) / 64));
+        this.bitCount = (long) bits.length() * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * LN2));
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    /**
+     * Adiciona o valor.
+     *
+     * @return {@code true} se algum bit mudou, isto é, se o valor certamente ainda não estava no filtro.
+     */
+    public boolean put(String value) {
+        long[] hashes = hash(value);
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            changed |= setBit(index(hashes, i));
+        }
+        if (changed) {
+            insertions.incrementAndGet();
+        }
+        return changed;
+    }
+
+    public boolean mightContain(String value) {
+        long[] hashes = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(hashes, i);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Valores adicionados (aproximado: repetições não contam).
+     */
+    public long insertions() {
+        return insertions.get();
+    }
+
+    public long expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    private long index(long[] hashes, int i) {
+        long combined = hashes[0] + i * hashes[1];
+        return Math.floorMod(combined, bitCount);
+    }
+
+    private boolean setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        while (true) {
+            long current = bits.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (bits.compareAndSet(word, current, current | mask)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Dois hashes de 64 bits independentes: FNV-1a e uma variante com outra semente, ambos
+     * finalizados com o mix do SplitMix64 para espalhar bem valores curtos e parecidos.
+     */
+    private static long[] hash(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long h1 = 0xcbf29ce484222325L;
+        long h2 = 0x9e3779b97f4a7c15L;
+        for (byte b : bytes) {
+            h1 = (h1 ^ (b & 0xff)) * 0x100000001b3L;
+            h2 = (h2 ^ (b & 0xff)) * 0xff51afd7ed558ccdL;
+        }
+        // h2 ímpar: todos os k índices ficam distintos módulo uma potência de dois
+        return new long[]{mix(h1), mix(h2) | 1};
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.prospera.common.csv;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escreve CSV no formato que o Excel em pt-BR abre direto: BOM UTF-8, separador {@code ;} e
+ * linhas terminadas em CRLF. As linhas vão para o {@link Writer} à medida que são escritas, com
+ * flush periódico, para exportações lidas por cursor.
+ * <p>
+ * Valores que começam com {@code =}, {@code +}, {@code -}, {@code @}, tabulação ou CR recebem um
+ * apóstrofo na frente, para que a planilha os mostre como texto em vez de executá-los como fórmula
+ * (nomes e títulos vêm de cadastros feitos pelos próprios usuários).
+ */
+public final class CsvWriter {
+
+    private static final char SEPARATOR = ';'; // Padrão do Excel em pt-BR
+    private static final int FLUSH_EVERY_ROWS = 1_000;
+
+    private final Writer writer;
+    private int rows;
+
+    public CsvWriter(Writer writer) throws IOException {
+        this.writer = writer;
+        writer.write('\uFEFF'); // BOM para o Excel reconhecer UTF-8
+    }
+
+    public void writeRow(String... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(SEPARATOR);
+            }
+            writer.write(escape(values[i]));
+        }
+        writer.write("\r\n");
+        if (++rows % FLUSH_EVERY_ROWS == 0) {
+            writer.flush();
+        }
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    static String escape(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r') {
+            value = "'" + value;
+        }
+        boolean needsQuotes = value.indexOf(SEPARATOR) >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        return needsQuotes ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
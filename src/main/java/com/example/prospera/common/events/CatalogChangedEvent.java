@@ -0,0 +1,12 @@
+package com.example.prospera.common.events;
+
+import java.util.UUID;
+
+/**
+ * Publicado quando um treinamento muda algo visível no catálogo publicado
+ * (status, dados de vitrine, capa, setores ou arquivo do e-book).
+ */
+public record CatalogChangedEvent(
+        UUID trainingId
+) {
+}
@@ -0,0 +1,27 @@
+package com.example.prospera.common.events;
+
+import java.util.UUID;
+
+/**
+ * Publicado quando pode haver novas matrículas obrigatórias a criar: um treinamento obrigatório
+ * foi associado a um setor, um membro recebeu um setor ou um treinamento foi publicado.
+ * Campos nulos não restringem a reconciliação.
+ */
+public record CompulsoryTrainingsChangedEvent(
+        UUID sectorId,
+        UUID trainingId,
+        UUID userId
+) {
+
+    public static CompulsoryTrainingsChangedEvent forSectorAssignment(UUID sectorId, UUID trainingId) {
+        return new CompulsoryTrainingsChangedEvent(sectorId, trainingId, null);
+    }
+
+    public static CompulsoryTrainingsChangedEvent forMemberSector(UUID sectorId, UUID userId) {
+        return new CompulsoryTrainingsChangedEvent(sectorId, null, userId);
+    }
+
+    public static CompulsoryTrainingsChangedEvent forTraining(UUID trainingId) {
+        return new CompulsoryTrainingsChangedEvent(null, trainingId, null);
+    }
+}
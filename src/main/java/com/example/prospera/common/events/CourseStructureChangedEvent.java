@@ -0,0 +1,12 @@
+package com.example.prospera.common.events;
+
+import java.util.UUID;
+
+/**
+ * Publicado quando módulos ou aulas de um curso gravado são criados, alterados,
+ * excluídos ou reordenados.
+ */
+public record CourseStructureChangedEvent(
+        UUID trainingId
+) {
+}
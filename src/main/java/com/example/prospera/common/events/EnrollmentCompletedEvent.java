@@ -0,0 +1,11 @@
+package com.example.prospera.common.events;
+
+import java.util.UUID;
+
+/**
+ * Publicado quando uma matrícula passa a COMPLETED; dispara a emissão automática do certificado.
+ */
+public record EnrollmentCompletedEvent(
+        UUID enrollmentId
+) {
+}
@@ -0,0 +1,21 @@
+package com.example.prospera.common.events;
+
+import java.util.UUID;
+
+/**
+ * Publicado quando algo que define o acesso aos treinamentos muda (matrícula, afiliação,
+ * assinatura ou treinamentos de um plano). {@code userId} nulo significa "todos os usuários",
+ * usado quando a mudança afeta uma conta inteira ou um plano.
+ */
+public record EntitlementsChangedEvent(
+        UUID userId
+) {
+
+    public static EntitlementsChangedEvent forUser(UUID userId) {
+        return new EntitlementsChangedEvent(userId);
+    }
+
+    public static EntitlementsChangedEvent forAllUsers() {
+        return new EntitlementsChangedEvent(null);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.prospera.common.events;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Publicado pelo job de expiração a cada lote confirmado, com as contas (pessoais ou de
+ * organização) que tiveram assinaturas expiradas.
+ */
+public record SubscriptionsExpiredEvent(
+        Set<UUID> accountIds
+) {
+}
@@ -0,0 +1,32 @@
+package com.example.prospera.common.jdbc;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Conversão de UUID para o formato {@code binary(16)} usado pelo Hibernate nas colunas de ID,
+ * para leituras e escritas em lote via JDBC.
+ */
+public final class UuidBinary {
+
+    private UuidBinary() {
+    }
+
+    public static byte[] toBytes(UUID uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static UUID fromBytes(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.prospera.common.scheduling;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lease de rotinas agendadas guardado na tabela {@code scheduled_job_locks}.
+ * <p>
+ * Com a API escalada em várias réplicas, todas disparam os mesmos {@code @Scheduled}. Cada rotina
+ * passa por {@link #runExclusively} (disparos por cron) ou {@link #tryAcquire} (rotinas de
+ * tique curto): o lease é obtido com um {@code UPDATE} atômico que só vence se estiver livre,
+ * expirado ou já for deste nó, e a rotina é pulada nos demais. O prazo é calculado com o relógio
+ * do banco, para não depender do relógio de cada réplica; se o nó cair, o lease simplesmente vence.
+ */
+@Service
+@RequiredArgsConstructor
+public class JobLockService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobLockService.class);
+
+    private static final String ACQUIRE_SQL =
+            "UPDATE scheduled_job_locks " +
+                    "SET locked_by = ?, locked_at = CURRENT_TIMESTAMP(6), " +
+                    "    locked_until = TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP(6)) " +
+                    "WHERE name = ? AND (locked_by = ? OR locked_until <= CURRENT_TIMESTAMP(6))";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO scheduled_job_locks (name, locked_by, locked_at, locked_until) " +
+                    "VALUES (?, ?, CURRENT_TIMESTAMP(6), TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP(6)))";
+
+    private static final String RELEASE_SQL =
+            "UPDATE scheduled_job_locks SET locked_until = CURRENT_TIMESTAMP(6) " +
+                    "WHERE name = ? AND locked_by = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String nodeId = resolveNodeId();
+
+    // Prazo local (System.nanoTime) dos leases deste nó: evita ir ao banco a cada tique.
+    private final Map<String, Long> heldUntil = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "job-lock-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Executa a rotina somente se este nó obtiver o lease. Enquanto a rotina roda, o lease é
+     * renovado a cada terço do prazo. Ao terminar ele não é liberado, apenas vence no prazo:
+     * assim uma réplica com o relógio um pouco atrasado não repete o mesmo disparo. O prazo
+     * deve, portanto, ser menor que o intervalo entre os disparos.
+     *
+     * @return {@code false} se outro nó detém o lease e a execução foi pulada
+     */
+    public boolean runExclusively(String jobName, Duration lease, Runnable task) {
+        if (!acquire(jobName, lease)) {
+            log.debug("Rotina {} pulada: lease com outro nó.", jobName);
+            return false;
+        }
+
+        long period = Math.max(1, lease.toMillis() / 3);
+        ScheduledFuture<?> renewal = heartbeat.scheduleAtFixedRate(
+                () -> renew(jobName, lease), period, period, TimeUnit.MILLISECONDS);
+        try {
+            task.run();
+            return true;
+        } finally {
+            renewal.cancel(false);
+        }
+    }
+
+    /**
+     * Obtém ou mantém o lease para rotinas de tique curto, que o seguram entre execuções.
+     * Só vai ao banco quando falta menos da metade do prazo, o que serve de renovação.
+     */
+    public boolean tryAcquire(String jobName, Duration lease) {
+        Long until = heldUntil.get(jobName);
+        if (until != null && until - System.nanoTime() > lease.toNanos() / 2) {
+            return true;
+        }
+        return acquire(jobName, lease);
+    }
+
+    /**
+     * Libera o lease deste nó, se ainda for dele.
+     */
+    public void release(String jobName) {
+        heldUntil.remove(jobName);
+        try {
+            jdbcTemplate.update(RELEASE_SQL, jobName, nodeId);
+        } catch (DataAccessException e) {
+            // O lease vence sozinho no prazo.
+            log.warn("Falha ao liberar o lease da rotina {}.", jobName, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        heldUntil.keySet().forEach(this::release);
+    }
+
+    private boolean acquire(String jobName, Duration lease) {
+        long startedAt = System.nanoTime();
+        long seconds = Math.max(1, lease.toSeconds());
+        try {
+            boolean acquired = jdbcTemplate.update(ACQUIRE_SQL, nodeId, seconds, jobName, nodeId) == 1;
+            if (!acquired) {
+                acquired = insert(jobName, seconds);
+            }
+            if (acquired) {
+                heldUntil.put(jobName, startedAt + TimeUnit.SECONDS.toNanos(seconds));
+            } else {
+                heldUntil.remove(jobName);
+            }
+            return acquired;
+        } catch (DataAccessException e) {
+            heldUntil.remove(jobName);
+            log.warn("Falha ao obter o lease da rotina {}; execução pulada.", jobName, e);
+            return false;
+        }
+    }
+
+    private boolean insert(String jobName, long seconds) {
+        try {
+            return jdbcTemplate.update(INSERT_SQL, jobName, nodeId, seconds) == 1;
+        } catch (DuplicateKeyException e) {
+            // Outro nó criou o registro e detém o lease.
+            return false;
+        }
+    }
+
+    private void renew(String jobName, Duration lease) {
+        if (!acquire(jobName, lease)) {
+            log.warn("Lease da rotina {} perdido durante a execução.", jobName);
+        }
+    }
+
+    private static String resolveNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        // Sufixo aleatório: dois contêineres podem ter o mesmo hostname.
+        return host + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
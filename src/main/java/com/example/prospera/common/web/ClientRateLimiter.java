@@ -0,0 +1,95 @@
+package com.example.prospera.common.web;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limite de requisições por cliente (token bucket em memória, por instância da API).
+ * <p>
+ * Cada cliente tem um balde de {@code capacity} fichas, reposto a {@code refillPerMinute} por
+ * minuto; cada requisição consome uma. Baldes cheios equivalem a um cliente novo e são descartados
+ * quando o mapa chega a {@code maxClients}. Se mesmo assim não houver espaço (muitos clientes
+ * ativos ao mesmo tempo), clientes novos são recusados até os baldes se esvaziarem do mapa.
+ */
+public class ClientRateLimiter {
+
+    private static final long EVICTION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int capacity;
+    private final double refillPerNano;
+    private final int maxClients;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastEvictionAt = new AtomicLong(System.nanoTime() - EVICTION_INTERVAL_NANOS);
+
+    public ClientRateLimiter(int capacity, int refillPerMinute, int maxClients) {
+        this.capacity = Math.max(1, capacity);
+        this.refillPerNano = Math.max(1, refillPerMinute) / (double) TimeUnit.MINUTES.toNanos(1);
+        this.maxClients = Math.max(1, maxClients);
+    }
+
+    /**
+     * Consome uma ficha do cliente.
+     *
+     * @return {@code false} se o cliente passou do limite
+     */
+    public boolean tryAcquire(String clientKey) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.get(clientKey);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients && !evictFullBuckets(now)) {
+                return false;
+            }
+            bucket = buckets.computeIfAbsent(clientKey, key -> new Bucket(capacity, now));
+        }
+        return bucket.tryConsume(now, capacity, refillPerNano);
+    }
+
+    /**
+     * Segundos até o cliente ter uma nova ficha, para o cabeçalho {@code Retry-After}.
+     */
+    public long retryAfterSeconds() {
+        return Math.max(1, (long) Math.ceil(1 / (refillPerNano * TimeUnit.SECONDS.toNanos(1))));
+    }
+
+    private boolean evictFullBuckets(long now) {
+        // Varre o mapa no máximo uma vez por segundo, para que um ataque não pague a varredura a cada requisição.
+        long last = lastEvictionAt.get();
+        if (now - last >= EVICTION_INTERVAL_NANOS && lastEvictionAt.compareAndSet(last, now)) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now, capacity, refillPerNano));
+        }
+        return buckets.size() < maxClients;
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        synchronized boolean tryConsume(long now, int capacity, double refillPerNano) {
+            refill(now, capacity, refillPerNano);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized boolean isFull(long now, int capacity, double refillPerNano) {
+            refill(now, capacity, refillPerNano);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now, int capacity, double refillPerNano) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -21,4 +21,21 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Geração de PDFs de certificado. Separado do {@code taskExecutor} para que uma fila de
+     * emissões não atrase os e-mails e demais tarefas assíncronas. A renderização é limitada
+     * por CPU, então há uma thread por núcleo; a fila é longa para absorver picos de conclusões.
+     */
+    @Bean(name = "certificateExecutor")
+    public Executor certificateExecutor() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(10_000);
+        executor.setThreadNamePrefix("certificate-");
+        executor.initialize();
+        return executor;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.example.prospera.config.jwt;
+
+import com.example.prospera.auth.domain.AuthUser;
+import com.example.prospera.auth.repositories.AuthUserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolve parâmetros {@code @AuthenticationPrincipal AuthUser} tanto no modo tradicional
+ * (principal já é a entidade) quanto no modo stateless (principal é um {@link JwtPrincipal}).
+ * <p>
+ * No modo stateless é devolvida uma referência preguiçosa da entidade: endpoints que usam
+ * apenas {@code getId()} não tocam o banco, e os demais carregam o usuário sob demanda.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final AuthUserRepository authUserRepository;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(AuthenticationPrincipal.class)
+                && AuthUser.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return null;
+        }
+
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof AuthUser authUser) {
+            return authUser;
+        }
+        if (principal instanceof JwtPrincipal jwtPrincipal) {
+            return authUserRepository.getReferenceById(jwtPrincipal.userId());
+        }
+        return null;
+    }
+}
@@ -1,12 +1,16 @@
 package com.example.prospera.config.jwt;
 
+import com.example.prospera.auth.services.UserSecurityVersionService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -15,13 +19,24 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
+    private final VerifiedTokenCache verifiedTokenCache;
     private final UserDetailsService userDetailsService;
+    private final UserSecurityVersionService securityVersionService;
+
+    /**
+     * Quando ativo, o usuário é autenticado apenas com as claims do token e a versão de segurança,
+     * sem carregar o usuário e suas afiliações a cada requisição.
+     */
+    @Value("${application.security.jwt.stateless-principal:false}")
+    private boolean statelessPrincipal;
 
     @Override
     protected void doFilterInternal(
@@ -31,7 +46,6 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -39,24 +53,57 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
-
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Assinatura e expiração verificadas uma única vez por token (rajadas reaproveitam o cache).
+            final VerifiedToken token = verifiedTokenCache.verify(jwt);
 
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+            if (statelessPrincipal && token.userId() != null && token.securityVersion() != null) {
+                authenticateFromClaims(token, request);
+            } else {
+                // Tokens emitidos antes da versão de segurança seguem o fluxo tradicional.
+                authenticateFromDatabase(token, request);
             }
         }
 
         filterChain.doFilter(request, response);
     }
+
+    private void authenticateFromDatabase(VerifiedToken token, HttpServletRequest request) {
+        if (token.subject() == null) {
+            return;
+        }
+
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(token.subject());
+
+        if (jwtService.isTokenValid(token, userDetails)) {
+            setAuthentication(userDetails, userDetails.getAuthorities(), request);
+        }
+    }
+
+    private void authenticateFromClaims(VerifiedToken token, HttpServletRequest request) {
+        if (token.subject() == null || !securityVersionService.isCurrent(token.userId(), token.securityVersion())) {
+            return;
+        }
+
+        List<GrantedAuthority> authorities = token.roles().stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role))
+                .toList();
+
+        setAuthentication(new JwtPrincipal(token.userId(), token.subject(), token.memberOfOrgs(), authorities), authorities, request);
+    }
+
+    private void setAuthentication(Object principal,
+                                   Collection<? extends GrantedAuthority> authorities,
+                                   HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken authToken =
+                new UsernamePasswordAuthenticationToken(
+                        principal,
+                        null,
+                        authorities
+                );
+
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 }
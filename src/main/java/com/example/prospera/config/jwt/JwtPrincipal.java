@@ -0,0 +1,24 @@
+package com.example.prospera.config.jwt;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Principal leve construído apenas a partir das claims de um token já verificado.
+ * Usado no modo de autenticação stateless, em que o filtro não consulta o banco.
+ */
+public record JwtPrincipal(
+        UUID userId,
+        String email,
+        List<UUID> memberOfOrgs,
+        List<GrantedAuthority> authorities
+) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -2,9 +2,12 @@ package com.example.prospera.config.jwt;
 
 import com.example.prospera.auth.domain.AuthUser;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
@@ -12,6 +15,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -30,6 +34,42 @@ public class JwtService {
     @Value("${application.security.jwt.expiration}")
     private long jwtExpiration; // Em milissegundos
 
+    // Chave e parser são imutáveis e thread-safe: criados uma única vez na inicialização.
+    @Getter(AccessLevel.NONE)
+    private SecretKey signInKey;
+
+    @Getter(AccessLevel.NONE)
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signInKey)
+                .build();
+    }
+
+    /**
+     * Verifica assinatura e expiração do token uma única vez e devolve suas claims já convertidas.
+     *
+     * @throws io.jsonwebtoken.JwtException se o token for inválido ou estiver expirado.
+     */
+    public VerifiedToken verify(String token) {
+        final Claims claims = extractAllClaims(token);
+        final Object userId = claims.get("userId");
+        final Date issuedAt = claims.getIssuedAt();
+
+        return new VerifiedToken(
+                claims.getSubject(),
+                userId != null ? UUID.fromString(userId.toString()) : null,
+                toStringList(claims.get("roles")),
+                toStringList(claims.get("memberOfOrgs")).stream().map(UUID::fromString).toList(),
+                claims.get("sv", Integer.class),
+                issuedAt != null ? issuedAt.toInstant() : null,
+                claims.getExpiration().toInstant()
+        );
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -62,6 +102,9 @@ public class JwtService {
             // Adiciona a lista de IDs ao token.
             // O nome 'memberOfOrgs' é mais descritivo que 'organizationId'.
             extraClaims.put("memberOfOrgs", orgIds);
+
+            // Versão de segurança: permite invalidar o token quando o acesso do usuário muda.
+            extraClaims.put("sv", authUser.getSecurityVersion());
         }
 
         return generateToken(extraClaims, userDetails);
@@ -77,34 +120,34 @@ public class JwtService {
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey())
+                .signWith(signInKey)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(verify(token), userDetails);
     }
 
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Versão sem novo parse, para quando o token já foi verificado.
+     */
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.subject() != null
+                && token.subject().equals(userDetails.getUsername())
+                && token.expiresAt().isAfter(Instant.now());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
+        return jwtParser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static List<String> toStringList(Object claim) {
+        if (claim instanceof List<?> values) {
+            return values.stream().map(String::valueOf).toList();
+        }
+        return List.of();
     }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.example.prospera.config.jwt;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Resultado imutável da verificação de um token: assinatura e expiração já conferidas,
+ * claims já convertidas para os tipos usados pela aplicação.
+ *
+ * @param userId          pode ser nulo em tokens gerados sem a claim "userId".
+ * @param securityVersion pode ser nulo em tokens emitidos antes da versão de segurança.
+ */
+public record VerifiedToken(
+        String subject,
+        UUID userId,
+        List<String> roles,
+        List<UUID> memberOfOrgs,
+        Integer securityVersion,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+
+    public VerifiedToken {
+        roles = roles == null ? List.of() : List.copyOf(roles);
+        memberOfOrgs = memberOfOrgs == null ? List.of() : List.copyOf(memberOfOrgs);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.prospera.config.jwt;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache dos tokens já verificados, na frente do {@link JwtService}.
+ * <p>
+ * O front envia várias requisições paralelas com o mesmo token a cada carregamento de página;
+ * com o cache, apenas a primeira paga a verificação da assinatura e o parse das claims.
+ * A chave é o hash SHA-256 do token (o token bruto não fica em memória) e cada entrada
+ * vale no máximo até o {@code exp} do token.
+ * <p>
+ * Requisições paralelas com o mesmo token ainda fora do cache esperam a verificação que já está
+ * em andamento em vez de repeti-la.
+ */
+@Component
+@RequiredArgsConstructor
+public class VerifiedTokenCache {
+
+    private final JwtService jwtService;
+
+    @Value("${application.security.jwt.token-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${application.security.jwt.token-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final Map<String, CachedToken> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<VerifiedToken>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Devolve o token verificado do cache ou, se ausente/expirado, verifica com o {@link JwtService}.
+     *
+     * @throws io.jsonwebtoken.JwtException se o token for inválido ou estiver expirado.
+     */
+    public VerifiedToken verify(String token) {
+        final String key = hash(token);
+        final Instant now = Instant.now();
+
+        CachedToken cached = cache.get(key);
+        if (cached != null) {
+            if (cached.validUntil().isAfter(now)) {
+                return cached.token();
+            }
+            cache.remove(key, cached);
+        }
+
+        CompletableFuture<VerifiedToken> verification = new CompletableFuture<>();
+        CompletableFuture<VerifiedToken> pending = inFlight.putIfAbsent(key, verification);
+        if (pending != null) {
+            return await(pending);
+        }
+        try {
+            VerifiedToken verified = jwtService.verify(token);
+            put(key, verified, now);
+            verification.complete(verified);
+            return verified;
+        } catch (RuntimeException e) {
+            verification.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, verification);
+        }
+    }
+
+    /**
+     * Remove todos os tokens em cache de um usuário, para que a próxima requisição
+     * seja verificada novamente.
+     */
+    public void invalidateUser(UUID userId) {
+        cache.values().removeIf(entry -> userId.equals(entry.token().userId()));
+    }
+
+    private void put(String key, VerifiedToken token, Instant now) {
+        if (cache.size() >= maxSize) {
+            cache.values().removeIf(entry -> !entry.validUntil().isAfter(now));
+            if (cache.size() >= maxSize) {
+                // Cache cheio de tokens válidos: não armazena, apenas segue com a verificação normal.
+                return;
+            }
+        }
+
+        Instant maxValidity = now.plusSeconds(ttlSeconds);
+        Instant validUntil = token.expiresAt().isBefore(maxValidity) ? token.expiresAt() : maxValidity;
+        cache.put(key, new CachedToken(token, validUntil));
+    }
+
+    // Repassa o mesmo erro da verificação (ex.: JwtException) para quem esperava por ela.
+    private static VerifiedToken await(CompletableFuture<VerifiedToken> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível na JVM.", e);
+        }
+    }
+
+    private record CachedToken(VerifiedToken token, Instant validUntil) {
+    }
+}
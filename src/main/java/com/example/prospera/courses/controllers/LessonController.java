@@ -40,8 +40,7 @@ public class LessonController {
     @GetMapping("/{lessonId}/next")
     public ResponseEntity<?> getNextLesson(@PathVariable UUID lessonId) {
         return lessonService.findNextLesson(lessonId)
-                // Reutilizando seu metodo estático fromEntity para mapear
-                .map(lesson -> ResponseEntity.ok(LessonDTO.fromEntity(lesson)))
+                .map(lesson -> ResponseEntity.ok(LessonDTO.fromNode(lesson, false)))
                 .orElse(ResponseEntity.noContent().build());
     }
 
@@ -54,7 +53,7 @@ public class LessonController {
     @GetMapping("/{lessonId}/previous")
     public ResponseEntity<?> getPreviousLesson(@PathVariable UUID lessonId) {
         return lessonService.findPreviousLesson(lessonId)
-                .map(lesson -> ResponseEntity.ok(LessonDTO.fromEntity(lesson)))
+                .map(lesson -> ResponseEntity.ok(LessonDTO.fromNode(lesson, false)))
                 .orElse(ResponseEntity.noContent().build());
     }
 
@@ -1,6 +1,6 @@
 package com.example.prospera.courses.controllers;
 
-import com.example.prospera.courses.dto.PublicTrainingDTO;
+import com.example.prospera.courses.service.PublishedCatalogCache;
 import com.example.prospera.courses.service.TrainingCatalogService;
 import com.example.prospera.enterprise.dto.SectorDTO;
 import com.example.prospera.enterprise.service.SectorService;
@@ -8,12 +8,19 @@ import com.example.prospera.subscription.dto.PlanResponse;
 import com.example.prospera.subscription.entities.Plan;
 import com.example.prospera.subscription.service.PlanService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,22 +33,24 @@ public class PublicCatalogController {
     private final SectorService sectorService;
     private final PlanService planService;
 
+    // Tempo que navegadores e o proxy (Traefik) podem reutilizar a vitrine sem revalidar.
+    @Value("${app.public-catalog.max-age-seconds:60}")
+    private long catalogMaxAgeSeconds;
+
     /**
      * Lista todos os treinamentos publicados para a vitrine pública.
      */
     @GetMapping
-    public ResponseEntity<List<PublicTrainingDTO>> listPublicTrainings() {
-        List<PublicTrainingDTO> catalog = trainingCatalogService.findAllPublishedForPublic();
-        return ResponseEntity.ok(catalog);
+    public ResponseEntity<byte[]> listPublicTrainings(WebRequest request) {
+        return serveCached(trainingCatalogService.getPublishedCatalogBody(), request);
     }
 
     /**
      * Mostra os detalhes públicos de um treinamento específico.
      */
     @GetMapping("/{trainingId}")
-    public ResponseEntity<PublicTrainingDTO> getPublicTrainingDetails(@PathVariable UUID trainingId) {
-        PublicTrainingDTO training = trainingCatalogService.findPublishedByIdForPublic(trainingId);
-        return ResponseEntity.ok(training);
+    public ResponseEntity<byte[]> getPublicTrainingDetails(@PathVariable UUID trainingId, WebRequest request) {
+        return serveCached(trainingCatalogService.getPublishedTrainingBody(trainingId), request);
     }
 
     /**
@@ -66,4 +75,34 @@ public class PublicCatalogController {
 
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Envia um corpo já serializado, respondendo 304 quando o cliente já tem a versão atual
+     * (If-None-Match / If-Modified-Since) e usando a versão gzip quando o cliente aceita.
+     */
+    private ResponseEntity<byte[]> serveCached(PublishedCatalogCache.SerializedBody body, WebRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = gzip ? body.gzipEtag() : body.etag();
+
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(catalogMaxAgeSeconds)).cachePublic();
+
+        // Define ETag/Last-Modified na resposta e devolve true se a versão do cliente ainda vale.
+        if (request.checkNotModified(etag, body.lastModified().toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return response.body(body.json());
+    }
+}
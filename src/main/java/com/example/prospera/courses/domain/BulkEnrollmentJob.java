@@ -0,0 +1,71 @@
+package com.example.prospera.courses.domain;
+
+import com.example.prospera.courses.domain.enums.BulkJobStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Matrícula em lote processada em segundo plano. A situação fica no banco para que o
+ * acompanhamento funcione em qualquer instância, não só na que executa o lote.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "bulk_enrollment_jobs")
+public class BulkEnrollmentJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID organizationId;
+
+    @Column(nullable = false)
+    private UUID trainingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BulkJobStatus status;
+
+    // Usuários distintos solicitados
+    @Column(nullable = false)
+    private int requested;
+
+    @Column(nullable = false)
+    private int processed;
+
+    // Matrículas criadas; os demais processados já estavam matriculados
+    @Column(nullable = false)
+    private int created;
+
+    private String error;
+
+    @Column(nullable = false)
+    private OffsetDateTime createdAt;
+
+    private OffsetDateTime finishedAt;
+
+    @PrePersist
+    void prePersist() {
+        createdAt = OffsetDateTime.now();
+    }
+}
@@ -9,6 +9,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,7 +24,9 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "ebook_progress")
+@Table(name = "ebook_progress", uniqueConstraints = {
+        @UniqueConstraint(name = "UK_ebook_progress_user_training", columnNames = {"user_id", "training_id"})
+})
 public class EbookProgress {
 
     @Id
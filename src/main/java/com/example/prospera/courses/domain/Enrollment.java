@@ -15,6 +15,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -37,7 +38,9 @@ import java.util.UUID;
 @Builder
 @EqualsAndHashCode(of = "id")
 @Entity
-@Table(name = "course_enrollments")
+@Table(name = "course_enrollments", uniqueConstraints = {
+        @UniqueConstraint(name = "UK_enrollments_user_training", columnNames = {"auth_user_id", "training_id"})
+})
 public class Enrollment {
 
     /**
@@ -78,6 +81,13 @@ public class Enrollment {
 
     private OffsetDateTime completedAt;
 
+    /**
+     * Quantidade de aulas concluídas nesta matrícula (espelha as linhas de {@code lesson_progress}).
+     * Atualizado apenas por UPDATE atômico em {@code EnrollmentRepository}.
+     */
+    @Column(name = "completed_lessons", nullable = false)
+    private int completedLessons;
+
     @PrePersist
     void prePersist() {
         enrolledAt = OffsetDateTime.now();
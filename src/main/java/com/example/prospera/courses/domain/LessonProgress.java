@@ -9,6 +9,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -22,7 +23,9 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "lesson_progress")
+@Table(name = "lesson_progress", uniqueConstraints = {
+        @UniqueConstraint(name = "UK_lesson_progress_enrollment_lesson", columnNames = {"enrollment_id", "lesson_id"})
+})
 public class LessonProgress {
 
     @Id
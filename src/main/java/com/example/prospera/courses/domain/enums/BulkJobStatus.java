@@ -0,0 +1,9 @@
+package com.example.prospera.courses.domain.enums;
+
+public enum BulkJobStatus {
+
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
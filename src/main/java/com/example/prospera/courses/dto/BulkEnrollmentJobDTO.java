@@ -0,0 +1,30 @@
+package com.example.prospera.courses.dto;
+
+import com.example.prospera.courses.domain.enums.BulkJobStatus;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Situação de uma matrícula em lote.
+ *
+ * @param jobId     ID para acompanhar o processamento, ou {@code null} se o lote foi processado na própria requisição.
+ * @param requested usuários distintos solicitados.
+ * @param processed usuários já processados.
+ * @param created   matrículas criadas.
+ * @param skipped   usuários que já estavam matriculados.
+ * @param error     motivo da falha, se houver.
+ */
+public record BulkEnrollmentJobDTO(
+        UUID jobId,
+        UUID trainingId,
+        BulkJobStatus status,
+        int requested,
+        int processed,
+        int created,
+        int skipped,
+        String error,
+        OffsetDateTime createdAt,
+        OffsetDateTime finishedAt
+) {
+}
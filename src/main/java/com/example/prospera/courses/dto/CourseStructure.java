@@ -0,0 +1,92 @@
+package com.example.prospera.courses.dto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Estrutura imutável de um curso gravado: módulos e aulas já ordenados, mais um índice
+ * linear de todas as aulas do curso (na ordem em que o aluno as assiste).
+ * <p>
+ * A navegação (próxima/anterior) usa apenas o índice linear: módulos vazios e lacunas na
+ * numeração das ordens não interrompem a sequência.
+ *
+ * @param trainingId         ID do curso.
+ * @param modules            módulos na ordem do curso, cada um com suas aulas ordenadas.
+ * @param lessons            todas as aulas do curso, em sequência.
+ * @param positionByLessonId posição de cada aula em {@code lessons}.
+ * @param totalMinutes       soma da duração de todas as aulas.
+ */
+public record CourseStructure(
+        UUID trainingId,
+        List<ModuleNode> modules,
+        List<LessonNode> lessons,
+        Map<UUID, Integer> positionByLessonId,
+        int totalMinutes
+) {
+
+    public CourseStructure {
+        modules = List.copyOf(modules);
+        lessons = List.copyOf(lessons);
+        positionByLessonId = Map.copyOf(positionByLessonId);
+    }
+
+    public int lessonCount() {
+        return lessons.size();
+    }
+
+    public boolean isEmpty() {
+        return modules.isEmpty();
+    }
+
+    public Optional<LessonNode> findLesson(UUID lessonId) {
+        Integer position = positionByLessonId.get(lessonId);
+        return position == null ? Optional.empty() : Optional.of(lessons.get(position));
+    }
+
+    /**
+     * Aula seguinte na sequência do curso, ou vazio se for a última (ou não pertencer ao curso).
+     */
+    public Optional<LessonNode> next(UUID lessonId) {
+        return lessonAt(lessonId, 1);
+    }
+
+    /**
+     * Aula anterior na sequência do curso, ou vazio se for a primeira (ou não pertencer ao curso).
+     */
+    public Optional<LessonNode> previous(UUID lessonId) {
+        return lessonAt(lessonId, -1);
+    }
+
+    private Optional<LessonNode> lessonAt(UUID lessonId, int offset) {
+        Integer position = positionByLessonId.get(lessonId);
+        if (position == null) {
+            return Optional.empty();
+        }
+        int target = position + offset;
+        return target >= 0 && target < lessons.size() ? Optional.of(lessons.get(target)) : Optional.empty();
+    }
+
+    public record ModuleNode(
+            UUID id,
+            String title,
+            int order,
+            List<LessonNode> lessons
+    ) {
+        public ModuleNode {
+            lessons = List.copyOf(lessons);
+        }
+    }
+
+    public record LessonNode(
+            UUID id,
+            UUID moduleId,
+            String title,
+            String content,
+            int order,
+            String videoUrl,
+            int durationInMinutes
+    ) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.prospera.courses.dto;
+
+import com.example.prospera.courses.domain.enums.EnrollmentStatus;
+import com.example.prospera.courses.domain.enums.TrainingEntityType;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Linha do painel "meus treinamentos": a matrícula com tudo o que o painel exibe
+ * (progresso bruto, certificado e avaliação), carregada em uma única consulta.
+ *
+ * @param completedLessons aulas concluídas (cursos gravados).
+ * @param lastPageRead     última página gravada (e-books), ou {@code null} se não houver progresso.
+ * @param totalPages       total de páginas (e-books).
+ */
+public record EnrollmentSummaryRow(
+        UUID enrollmentId,
+        UUID trainingId,
+        String trainingTitle,
+        TrainingEntityType entityType,
+        EnrollmentStatus status,
+        OffsetDateTime enrolledAt,
+        String coverImageUrl,
+        int completedLessons,
+        Integer lastPageRead,
+        Integer totalPages,
+        UUID certificateId,
+        String validationCode,
+        Integer userRating
+) {
+}
@@ -27,6 +27,19 @@ public record LessonDTO(
         );
     }
 
+    // Metodo 1b: A partir da estrutura do curso em cache
+    public static LessonDTO fromNode(CourseStructure.LessonNode lesson, boolean isCompleted) {
+        return new LessonDTO(
+                lesson.id(),
+                lesson.title(),
+                lesson.content(),
+                lesson.order(),
+                lesson.videoUrl(),
+                lesson.durationInMinutes(),
+                isCompleted
+        );
+    }
+
     // Metodo 2: Simplificado (usado pelo Next/Previous, assume false)
     // Corrige o erro "cannot be applied to given types"
     public static LessonDTO fromEntity(Lesson lesson) {
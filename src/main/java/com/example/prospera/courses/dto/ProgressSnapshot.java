@@ -0,0 +1,72 @@
+package com.example.prospera.courses.dto;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Fotografia imutável das aulas concluídas em uma matrícula, carregada em uma única consulta.
+ * Permite marcar todas as aulas de um curso sem consultar o banco aula por aula.
+ * <p>
+ * As aulas concluídas ficam em um bitmap indexado pela posição da aula na sequência do curso
+ * ({@link CourseStructure#positionByLessonId()}): um bit por aula, em vez de um conjunto de UUIDs.
+ * Aulas concluídas que não fazem mais parte da estrutura (removidas do curso) são ignoradas.
+ */
+public final class ProgressSnapshot {
+
+    private static final ProgressSnapshot EMPTY = new ProgressSnapshot(null, Map.of(), new BitSet());
+
+    private final UUID enrollmentId;
+    private final Map<UUID, Integer> positionByLessonId;
+    private final BitSet completed;
+
+    private ProgressSnapshot(UUID enrollmentId, Map<UUID, Integer> positionByLessonId, BitSet completed) {
+        this.enrollmentId = enrollmentId;
+        this.positionByLessonId = positionByLessonId;
+        this.completed = completed;
+    }
+
+    /**
+     * @param enrollmentId       ID da matrícula.
+     * @param structure          estrutura do curso, que define a posição de cada aula no bitmap.
+     * @param completedLessonIds IDs das aulas concluídas.
+     */
+    public static ProgressSnapshot of(UUID enrollmentId, CourseStructure structure, Collection<UUID> completedLessonIds) {
+        BitSet completed = new BitSet(structure.lessonCount());
+        for (UUID lessonId : completedLessonIds) {
+            Integer position = structure.positionByLessonId().get(lessonId);
+            if (position != null) {
+                completed.set(position);
+            }
+        }
+        return new ProgressSnapshot(enrollmentId, structure.positionByLessonId(), completed);
+    }
+
+    public static ProgressSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * ID da matrícula, ou {@code null} quando o usuário não está matriculado.
+     */
+    public UUID enrollmentId() {
+        return enrollmentId;
+    }
+
+    public boolean isCompleted(UUID lessonId) {
+        Integer position = positionByLessonId.get(lessonId);
+        return position != null && completed.get(position);
+    }
+
+    /**
+     * Se a aula na posição informada da sequência do curso foi concluída.
+     */
+    public boolean isCompletedAt(int position) {
+        return completed.get(position);
+    }
+
+    public int completedCount() {
+        return completed.cardinality();
+    }
+}
@@ -2,6 +2,7 @@ package com.example.prospera.courses.dto;
 
 import com.example.prospera.courses.domain.enums.EnrollmentStatus;
 import com.example.prospera.courses.domain.enums.TrainingType;
+import com.example.prospera.subscription.enums.TrainingAccessPath;
 
 import java.util.UUID;
 
@@ -17,6 +18,7 @@ public record TrainingCatalogItemDTO(
         String trainingEntityType, // "EBOOK", "COURSE", "LIVE" - para o frontend saber como renderizar
         TrainingType consolidatedTrainingType, // O tipo consolidado para o usuário (COMPULSORY ou ELECTIVE)
         EnrollmentStatus enrollmentStatus, // Status da matrícula do usuário (NOT_ENROLLED, ACTIVE, COMPLETED)
-        String coverImageUrl
+        String coverImageUrl,
+        TrainingAccessPath accessPath // Caminho de acesso do usuário; nulo quando o conteúdo está bloqueado
 ) {
 }
\ No newline at end of file
@@ -34,12 +34,21 @@ public record TrainingDetailDTO(
 
 ) {
     public static TrainingDetailDTO fromEntity(Training training) {
+        return fromEntity(training, null);
+    }
+
+    /**
+     * @param structure estrutura do curso em cache; se nula, os módulos são lidos da entidade.
+     */
+    public static TrainingDetailDTO fromEntity(Training training, CourseStructure structure) {
         EbookDetails ebook = null;
         CourseDetails course = null;
         LiveDetails live = null;
 
         if (training instanceof EbookTraining et) {
             ebook = new EbookDetails(et.getFilePath(), et.getTotalPages(), et.getFileUploadedAt());
+        } else if (training instanceof RecordedCourse && structure != null) {
+            course = new CourseDetails(structure.modules().stream().map(CourseDetails.ModuleDetail::fromNode).collect(Collectors.toList()));
         } else if (training instanceof RecordedCourse rc) {
             course = new CourseDetails(rc.getModules().stream().map(CourseDetails.ModuleDetail::fromEntity).collect(Collectors.toList()));
         } else if (training instanceof LiveTraining lt) {
@@ -89,6 +98,15 @@ public record TrainingDetailDTO(
                         module.getLessons().stream().map(LessonSummary::fromEntity).collect(Collectors.toList())
                 );
             }
+
+            public static ModuleDetail fromNode(CourseStructure.ModuleNode module) {
+                return new ModuleDetail(
+                        module.id(),
+                        module.title(),
+                        module.order(),
+                        module.lessons().stream().map(LessonSummary::fromNode).collect(Collectors.toList())
+                );
+            }
         }
 
         public record LessonSummary(UUID id, String title, int order, String videoUrl, String content) {
@@ -101,6 +119,16 @@ public record TrainingDetailDTO(
                         lesson.getContent()
                 );
             }
+
+            public static LessonSummary fromNode(CourseStructure.LessonNode lesson) {
+                return new LessonSummary(
+                        lesson.id(),
+                        lesson.title(),
+                        lesson.order(),
+                        lesson.videoUrl(),
+                        lesson.content()
+                );
+            }
         }
     }
 }
\ No newline at end of file
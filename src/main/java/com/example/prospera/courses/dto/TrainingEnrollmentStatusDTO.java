@@ -0,0 +1,15 @@
+package com.example.prospera.courses.dto;
+
+import com.example.prospera.courses.domain.enums.EnrollmentStatus;
+
+import java.util.UUID;
+
+/**
+ * Projeção enxuta de uma matrícula: apenas o treinamento e o status.
+ * Usada para mesclar o progresso do usuário ao catálogo compartilhado.
+ */
+public record TrainingEnrollmentStatusDTO(
+        UUID trainingId,
+        EnrollmentStatus status
+) {
+}
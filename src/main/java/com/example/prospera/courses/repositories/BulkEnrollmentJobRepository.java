@@ -0,0 +1,33 @@
+package com.example.prospera.courses.repositories;
+
+import com.example.prospera.courses.domain.BulkEnrollmentJob;
+import com.example.prospera.courses.domain.enums.BulkJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BulkEnrollmentJobRepository extends JpaRepository<BulkEnrollmentJob, UUID> {
+
+    Optional<BulkEnrollmentJob> findByIdAndOrganizationId(UUID id, UUID organizationId);
+
+    /**
+     * Soma os contadores de um bloco, na mesma transação que grava as matrículas do bloco.
+     */
+    @Modifying
+    @Query("UPDATE BulkEnrollmentJob j SET j.processed = j.processed + :processed, j.created = j.created + :created WHERE j.id = :jobId")
+    int addProgress(@Param("jobId") UUID jobId,
+                    @Param("processed") int processed,
+                    @Param("created") int created);
+
+    @Modifying
+    @Query("UPDATE BulkEnrollmentJob j SET j.status = :status, j.error = :error, j.finishedAt = :finishedAt WHERE j.id = :jobId")
+    int updateStatus(@Param("jobId") UUID jobId,
+                     @Param("status") BulkJobStatus status,
+                     @Param("error") String error,
+                     @Param("finishedAt") OffsetDateTime finishedAt);
+}
@@ -3,12 +3,16 @@ package com.example.prospera.courses.repositories;
 import com.example.prospera.auth.domain.AuthUser;
 import com.example.prospera.courses.domain.Enrollment;
 import com.example.prospera.courses.domain.Training;
+import com.example.prospera.courses.dto.EnrollmentSummaryRow;
+import com.example.prospera.courses.dto.TrainingEnrollmentStatusDTO;
 import com.example.prospera.enterprise.domain.Membership;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -23,6 +27,29 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, UUID> {
 
     List<Enrollment> findByUserIdAndTrainingIdIn(UUID userId, Set<UUID> trainingIds);
 
+    @Query("SELECT e.id FROM Enrollment e WHERE e.user.id = :userId AND e.training.id = :trainingId")
+    Optional<UUID> findIdByUserIdAndTrainingId(@Param("userId") UUID userId, @Param("trainingId") UUID trainingId);
+
+    /**
+     * Incrementa atomicamente o contador de aulas concluídas da matrícula.
+     */
+    @Modifying
+    @Query("UPDATE Enrollment e SET e.completedLessons = e.completedLessons + 1 WHERE e.id = :enrollmentId")
+    int incrementCompletedLessons(@Param("enrollmentId") UUID enrollmentId);
+
+    /**
+     * Marca a matrícula como concluída se o contador já alcançou o total de aulas do curso.
+     *
+     * @return 1 se a matrícula foi concluída agora, 0 caso contrário.
+     */
+    @Modifying
+    @Query("UPDATE Enrollment e SET e.status = com.example.prospera.courses.domain.enums.EnrollmentStatus.COMPLETED, e.completedAt = :completedAt " +
+            "WHERE e.id = :enrollmentId AND e.completedLessons >= :totalLessons " +
+            "AND e.status <> com.example.prospera.courses.domain.enums.EnrollmentStatus.COMPLETED")
+    int completeIfAllLessonsDone(@Param("enrollmentId") UUID enrollmentId,
+                                 @Param("totalLessons") int totalLessons,
+                                 @Param("completedAt") OffsetDateTime completedAt);
+
 
     /**
      * Busca, de uma só vez, todos os IDs de usuários de uma lista que já estão
@@ -54,6 +81,26 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, UUID> {
     @Query("SELECT e FROM Enrollment e JOIN FETCH e.training WHERE e.user = :user")
     List<Enrollment> findByUserWithTrainingDetails(@Param("user") AuthUser user);
 
+    /**
+     * Painel "meus treinamentos" em uma única consulta: cada matrícula do usuário com o treinamento,
+     * o progresso bruto (aulas concluídas ou última página), o certificado e a avaliação.
+     */
+    @Query("""
+               SELECT new com.example.prospera.courses.dto.EnrollmentSummaryRow(
+                   e.id, t.id, t.title, t.entityType, e.status, e.enrolledAt, t.coverImageUrl,
+                   e.completedLessons, ep.lastPageRead,
+                   (SELECT eb.totalPages FROM EbookTraining eb WHERE eb.id = t.id),
+                   c.id, c.validationCode, r.score)
+               FROM Enrollment e
+               JOIN e.training t
+               LEFT JOIN EbookProgress ep ON ep.training.id = t.id AND ep.userId = e.user.id
+               LEFT JOIN Certificate c ON c.enrollment.id = e.id
+                   AND c.status = com.example.prospera.certificate.domain.enums.CertificateStatus.READY
+               LEFT JOIN TrainingRating r ON r.enrollment.id = e.id
+               WHERE e.user.id = :userId
+            """)
+    List<EnrollmentSummaryRow> findEnrollmentSummariesByUserId(@Param("userId") UUID userId);
+
     /**
      * Verifica se existe alguma matrícula para um treinamento específico.
      */
@@ -64,4 +111,16 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, UUID> {
      * de ID de usuário e ID de treinamento.
      */
     boolean existsByUserIdAndTrainingId(UUID userId, UUID trainingId);
+
+    /**
+     * IDs de todos os treinamentos em que o usuário está matriculado.
+     */
+    @Query("SELECT e.training.id FROM Enrollment e WHERE e.user.id = :userId")
+    Set<UUID> findTrainingIdsByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Status de todas as matrículas do usuário, sem carregar as entidades.
+     */
+    @Query("SELECT new com.example.prospera.courses.dto.TrainingEnrollmentStatusDTO(e.training.id, e.status) FROM Enrollment e WHERE e.user.id = :userId")
+    List<TrainingEnrollmentStatusDTO> findEnrollmentStatusesByUserId(@Param("userId") UUID userId);
 }
\ No newline at end of file
@@ -4,8 +4,11 @@ import com.example.prospera.courses.domain.Enrollment;
 import com.example.prospera.courses.domain.Lesson;
 import com.example.prospera.courses.domain.LessonProgress;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
@@ -17,4 +20,12 @@ public interface LessonProgressRepository extends JpaRepository<LessonProgress,
     // Conta quantos progressos uma matrícula possui
     long countByEnrollment(Enrollment enrollment);
 
+    // IDs de todas as lições concluídas de uma matrícula, em uma única consulta
+    @Query("SELECT lp.lesson.id FROM LessonProgress lp WHERE lp.enrollment.id = :enrollmentId")
+    Set<UUID> findCompletedLessonIdsByEnrollmentId(@Param("enrollmentId") UUID enrollmentId);
+
+    // Verifica, com um único JOIN, se o usuário concluiu a lição
+    @Query("SELECT COUNT(lp) > 0 FROM LessonProgress lp WHERE lp.lesson.id = :lessonId AND lp.enrollment.user.id = :userId")
+    boolean existsByUserIdAndLessonId(@Param("userId") UUID userId, @Param("lessonId") UUID lessonId);
+
 }
\ No newline at end of file
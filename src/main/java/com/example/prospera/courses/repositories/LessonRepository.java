@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -20,5 +21,12 @@ public interface LessonRepository extends JpaRepository<Lesson, UUID> {
 
     Optional<Lesson> findByModuleAndLessonOrder(Module module, int lessonOrder);
 
+    @Query("SELECT l.module.course.id FROM Lesson l WHERE l.id = :lessonId")
+    Optional<UUID> findTrainingIdByLessonId(@Param("lessonId") UUID lessonId);
+
+    // Todas as aulas do curso em uma consulta, na ordem do curso (módulo e depois aula)
+    @Query("SELECT l FROM Lesson l WHERE l.module.course.id = :courseId ORDER BY l.module.moduleOrder ASC, l.lessonOrder ASC")
+    List<Lesson> findAllByCourseIdOrdered(@Param("courseId") UUID courseId);
+
 
 }
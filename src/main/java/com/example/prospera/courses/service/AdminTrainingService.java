@@ -1,5 +1,8 @@
 package com.example.prospera.courses.service;
 
+import com.example.prospera.common.events.CatalogChangedEvent;
+import com.example.prospera.common.events.CompulsoryTrainingsChangedEvent;
+import com.example.prospera.common.events.CourseStructureChangedEvent;
 import com.example.prospera.courses.domain.EbookTraining;
 import com.example.prospera.courses.domain.Lesson;
 import com.example.prospera.courses.domain.LiveTraining;
@@ -9,6 +12,7 @@ import com.example.prospera.courses.domain.Training;
 import com.example.prospera.courses.domain.TrainingSectorAssignment;
 import com.example.prospera.courses.domain.enums.PublicationStatus;
 import com.example.prospera.courses.domain.enums.TrainingEntityType;
+import com.example.prospera.courses.domain.enums.TrainingType;
 import com.example.prospera.courses.dto.LessonCreateRequest;
 import com.example.prospera.courses.dto.LessonDTO;
 import com.example.prospera.courses.dto.LessonUpdateRequest;
@@ -34,6 +38,7 @@ import com.example.prospera.exceptions.SectorNotFoundException;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -63,6 +68,8 @@ public class AdminTrainingService {
     private final WebClient enterpriseWebClient;
     private final EnrollmentRepository enrollmentRepository;
     private final SectorAssignmentService sectorAssignmentService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CourseStructureCache courseStructureCache;
 
 
     /**
@@ -108,6 +115,10 @@ public class AdminTrainingService {
         assignment.setLegalBasis(dto.legalBasis());
 
         assignmentRepository.save(assignment);
+        eventPublisher.publishEvent(new CatalogChangedEvent(trainingId));
+        if (dto.trainingType() == TrainingType.COMPULSORY) {
+            eventPublisher.publishEvent(CompulsoryTrainingsChangedEvent.forSectorAssignment(dto.sectorId(), trainingId));
+        }
     }
 
     /**
@@ -129,6 +140,7 @@ public class AdminTrainingService {
                 .build();
 
         Module savedModule = moduleRepository.save(newModule);
+        eventPublisher.publishEvent(new CourseStructureChangedEvent(trainingId));
         return ModuleDTO.fromEntity(savedModule);
     }
 
@@ -149,6 +161,7 @@ public class AdminTrainingService {
                 .build();
 
         Lesson savedLesson = lessonRepository.save(newLesson);
+        eventPublisher.publishEvent(new CourseStructureChangedEvent(module.getCourse().getId()));
         return LessonDTO.fromEntity(savedLesson);
     }
 
@@ -161,6 +174,10 @@ public class AdminTrainingService {
                 .orElseThrow(() -> new EntityNotFoundException("Treinamento não encontrado com o ID: " + trainingId));
         training.setStatus(status);
         trainingRepository.save(training);
+        eventPublisher.publishEvent(new CatalogChangedEvent(trainingId));
+        if (status == PublicationStatus.PUBLISHED) {
+            eventPublisher.publishEvent(CompulsoryTrainingsChangedEvent.forTraining(trainingId));
+        }
     }
 
     @Transactional
@@ -187,6 +204,7 @@ public class AdminTrainingService {
             ebook.setFileUploadedAt(OffsetDateTime.now());
 
             trainingRepository.save(ebook);
+            eventPublisher.publishEvent(new CatalogChangedEvent(trainingId));
 
         } catch (IOException e) {
             throw new RuntimeException("Falha ao processar o arquivo PDF.", e);
@@ -264,7 +282,10 @@ public class AdminTrainingService {
         Training training = trainingRepository.findById(trainingId)
                 .orElseThrow(() -> new EntityNotFoundException("Treinamento não encontrado com o ID: " + trainingId));
 
-        // E garanta que ele chama o DTO correto aqui
+        // Cursos gravados usam a estrutura de módulos/aulas em cache em vez das coleções lazy
+        if (training instanceof RecordedCourse) {
+            return TrainingDetailDTO.fromEntity(training, courseStructureCache.get(trainingId));
+        }
         return TrainingDetailDTO.fromEntity(training);
     }
 
@@ -284,6 +305,7 @@ public class AdminTrainingService {
         // Adicione outros campos que podem ser atualizados
 
         Training updatedTraining = trainingRepository.save(training);
+        eventPublisher.publishEvent(new CatalogChangedEvent(trainingId));
         return TrainingDTO.fromEntity(updatedTraining);
     }
 
@@ -315,6 +337,7 @@ public class AdminTrainingService {
 
         // Se todas as validações passaram, a exclusão é segura.
         trainingRepository.deleteById(trainingId);
+        eventPublisher.publishEvent(new CatalogChangedEvent(trainingId));
     }
 
     @Transactional
@@ -335,6 +358,7 @@ public class AdminTrainingService {
         // 3. Salva a URL completa no banco de dados.
         training.setCoverImageUrl(imageUrl);
         trainingRepository.save(training);
+        eventPublisher.publishEvent(new CatalogChangedEvent(trainingId));
     }
 
     /**
@@ -346,6 +370,7 @@ public class AdminTrainingService {
 
         // Chama o novo metodo do repositório para executar a exclusão.
         assignmentRepository.deleteByTrainingIdAndSectorId(trainingId, sectorId);
+        eventPublisher.publishEvent(new CatalogChangedEvent(trainingId));
     }
 
     // =======================================================================================
@@ -364,6 +389,7 @@ public class AdminTrainingService {
         module.setModuleOrder(dto.moduleOrder());
 
         Module updatedModule = moduleRepository.save(module);
+        eventPublisher.publishEvent(new CourseStructureChangedEvent(module.getCourse().getId()));
         return ModuleDTO.fromEntity(updatedModule);
     }
 
@@ -372,13 +398,14 @@ public class AdminTrainingService {
      */
     @Transactional
     public void deleteModule(UUID moduleId) {
-        if (!moduleRepository.existsById(moduleId)) {
-            throw new ResourceNotFoundException("Módulo não encontrado com o ID: " + moduleId);
-        }
+        Module module = moduleRepository.findById(moduleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Módulo não encontrado com o ID: " + moduleId));
+        UUID trainingId = module.getCourse().getId();
 
         // Dica de Ouro: Certifique-se de que na sua entidade Module,
         // a anotação @OneToMany para "lessons" tenha cascade = CascadeType.ALL e orphanRemoval = true.
-        moduleRepository.deleteById(moduleId);
+        moduleRepository.delete(module);
+        eventPublisher.publishEvent(new CourseStructureChangedEvent(trainingId));
     }
 
     /**
@@ -398,6 +425,7 @@ public class AdminTrainingService {
         lesson.setVideoUrl(dto.videoUrl());
 
         Lesson updatedLesson = lessonRepository.save(lesson);
+        eventPublisher.publishEvent(new CourseStructureChangedEvent(lesson.getModule().getCourse().getId()));
         return LessonDTO.fromEntity(updatedLesson);
     }
 
@@ -406,11 +434,12 @@ public class AdminTrainingService {
      */
     @Transactional
     public void deleteLesson(UUID lessonId) {
-        if (!lessonRepository.existsById(lessonId)) {
-            throw new ResourceNotFoundException("Aula não encontrada com o ID: " + lessonId);
-        }
+        Lesson lesson = lessonRepository.findById(lessonId)
+                .orElseThrow(() -> new ResourceNotFoundException("Aula não encontrada com o ID: " + lessonId));
+        UUID trainingId = lesson.getModule().getCourse().getId();
 
-        lessonRepository.deleteById(lessonId);
+        lessonRepository.delete(lesson);
+        eventPublisher.publishEvent(new CourseStructureChangedEvent(trainingId));
     }
 
     // =======================================================================================
@@ -437,6 +466,7 @@ public class AdminTrainingService {
                 }
             });
         }
+        eventPublisher.publishEvent(new CourseStructureChangedEvent(trainingId));
     }
 
     /**
@@ -444,9 +474,8 @@ public class AdminTrainingService {
      */
     @Transactional
     public void reorderLessons(UUID moduleId, ReorderRequest request) {
-        if (!moduleRepository.existsById(moduleId)) {
-            throw new ResourceNotFoundException("Módulo não encontrado: " + moduleId);
-        }
+        Module module = moduleRepository.findById(moduleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Módulo não encontrado: " + moduleId));
 
         for (ReorderRequest.OrderItem item : request.items()) {
             lessonRepository.findById(item.id()).ifPresent(lesson -> {
@@ -456,5 +485,6 @@ public class AdminTrainingService {
                 }
             });
         }
+        eventPublisher.publishEvent(new CourseStructureChangedEvent(module.getCourse().getId()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,225 @@
+package com.example.prospera.courses.service;
+
+import com.example.prospera.common.events.EntitlementsChangedEvent;
+import com.example.prospera.common.jdbc.UuidBinary;
+import com.example.prospera.courses.domain.BulkEnrollmentJob;
+import com.example.prospera.courses.domain.enums.BulkJobStatus;
+import com.example.prospera.courses.domain.enums.EnrollmentStatus;
+import com.example.prospera.courses.dto.BulkEnrollmentJobDTO;
+import com.example.prospera.courses.repositories.BulkEnrollmentJobRepository;
+import com.example.prospera.courses.repositories.TrainingRepository;
+import com.example.prospera.enterprise.repositories.MembershipRepository;
+import com.example.prospera.exceptions.BusinessRuleException;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Matrícula em lote de membros de uma organização em um treinamento.
+ * <p>
+ * A afiliação de todos os usuários é validada com uma consulta {@code IN} por bloco e as
+ * matrículas são inseridas com JDBC em lote e {@code INSERT IGNORE} sobre a chave única
+ * (usuário, treinamento): quem já estava matriculado é contado como ignorado. Lotes acima
+ * de {@code app.enrollments.bulk.async-threshold} usuários rodam em segundo plano e podem
+ * ser acompanhados pelo ID retornado; a situação desses lotes é gravada em
+ * {@code bulk_enrollment_jobs}, então a consulta funciona em qualquer instância. Um lote
+ * interrompido pela queda da instância que o executava fica como RUNNING; reenviá-lo apenas
+ * matricula quem faltou.
+ */
+@Service
+public class BulkEnrollmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkEnrollmentService.class);
+
+    private static final int CHUNK_SIZE = 1_000;
+
+    private static final String INSERT_SQL =
+            "INSERT IGNORE INTO course_enrollments " +
+                    "(id, auth_user_id, training_id, organization_id, status, enrolled_at, completed_lessons) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, 0)";
+
+    private final TrainingRepository trainingRepository;
+    private final MembershipRepository membershipRepository;
+    private final BulkEnrollmentJobRepository jobRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Executor taskExecutor;
+
+    @Value("${app.enrollments.bulk.async-threshold:500}")
+    private int asyncThreshold;
+
+    public BulkEnrollmentService(TrainingRepository trainingRepository,
+                                 MembershipRepository membershipRepository,
+                                 BulkEnrollmentJobRepository jobRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Qualifier("taskExecutor") Executor taskExecutor) {
+        this.trainingRepository = trainingRepository;
+        this.membershipRepository = membershipRepository;
+        this.jobRepository = jobRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Valida e matricula os usuários. Lotes pequenos são processados na hora (status COMPLETED);
+     * lotes grandes retornam QUEUED com o ID para acompanhamento.
+     *
+     * @throws EntityNotFoundException se o treinamento não existir
+     * @throws AccessDeniedException   se algum usuário não for membro da organização
+     */
+    public BulkEnrollmentJobDTO enroll(UUID organizationId, UUID trainingId, List<UUID> userIds) {
+        if (!trainingRepository.existsById(trainingId)) {
+            throw new EntityNotFoundException("Treinamento não encontrado.");
+        }
+
+        List<UUID> distinctUserIds = List.copyOf(new LinkedHashSet<>(userIds));
+        checkAllAreMembers(organizationId, distinctUserIds);
+
+        if (distinctUserIds.size() <= asyncThreshold) {
+            OffsetDateTime createdAt = OffsetDateTime.now();
+            int created = insertAll(null, organizationId, trainingId, distinctUserIds);
+            int requested = distinctUserIds.size();
+            return new BulkEnrollmentJobDTO(null, trainingId, BulkJobStatus.COMPLETED, requested, requested,
+                    created, requested - created, null, createdAt, OffsetDateTime.now());
+        }
+
+        BulkEnrollmentJob job = jobRepository.save(BulkEnrollmentJob.builder()
+                .organizationId(organizationId)
+                .trainingId(trainingId)
+                .status(BulkJobStatus.QUEUED)
+                .requested(distinctUserIds.size())
+                .build());
+        try {
+            taskExecutor.execute(() -> runInBackground(job.getId(), organizationId, trainingId, distinctUserIds));
+        } catch (RejectedExecutionException e) {
+            jobRepository.deleteById(job.getId());
+            throw new BusinessRuleException("Há muitas matrículas em lote em processamento. Tente novamente em instantes.");
+        }
+        return toDTO(job);
+    }
+
+    /**
+     * Situação de uma matrícula em lote em segundo plano, restrita à organização que a iniciou.
+     */
+    public Optional<BulkEnrollmentJobDTO> findJob(UUID organizationId, UUID jobId) {
+        return jobRepository.findByIdAndOrganizationId(jobId, organizationId).map(this::toDTO);
+    }
+
+    private void checkAllAreMembers(UUID organizationId, List<UUID> userIds) {
+        for (int from = 0; from < userIds.size(); from += CHUNK_SIZE) {
+            List<UUID> chunk = userIds.subList(from, Math.min(from + CHUNK_SIZE, userIds.size()));
+            if (membershipRepository.findMemberUserIds(organizationId, chunk).size() != chunk.size()) {
+                throw new AccessDeniedException("O usuário não é membro da organização especificada.");
+            }
+        }
+    }
+
+    private void runInBackground(UUID jobId, UUID organizationId, UUID trainingId, List<UUID> userIds) {
+        try {
+            updateStatus(jobId, BulkJobStatus.RUNNING, null, null);
+            insertAll(jobId, organizationId, trainingId, userIds);
+            updateStatus(jobId, BulkJobStatus.COMPLETED, null, OffsetDateTime.now());
+        } catch (RuntimeException e) {
+            log.error("Falha na matrícula em lote {} do treinamento {}.", jobId, trainingId, e);
+            updateStatus(jobId, BulkJobStatus.FAILED,
+                    "Falha ao processar as matrículas. Os usuários já processados permanecem matriculados.",
+                    OffsetDateTime.now());
+        }
+    }
+
+    /**
+     * @param jobId lote em segundo plano cujos contadores acompanham cada bloco, ou {@code null}.
+     * @return matrículas criadas.
+     */
+    private int insertAll(UUID jobId, UUID organizationId, UUID trainingId, List<UUID> userIds) {
+        int created = 0;
+        for (int from = 0; from < userIds.size(); from += CHUNK_SIZE) {
+            List<UUID> chunk = userIds.subList(from, Math.min(from + CHUNK_SIZE, userIds.size()));
+            // Cada bloco é confirmado em sua própria transação: uma falha não desfaz os blocos anteriores
+            // e reenviar o mesmo lote apenas ignora quem já foi matriculado.
+            Integer chunkCreated = transactionTemplate.execute(status -> {
+                int inserted = insertChunk(organizationId, trainingId, chunk);
+                if (jobId != null) {
+                    jobRepository.addProgress(jobId, chunk.size(), inserted);
+                }
+                return inserted;
+            });
+            created += chunkCreated != null ? chunkCreated : 0;
+        }
+        return created;
+    }
+
+    private int insertChunk(UUID organizationId, UUID trainingId, List<UUID> chunk) {
+        Timestamp now = Timestamp.from(Instant.now());
+        byte[] trainingIdBytes = UuidBinary.toBytes(trainingId);
+        byte[] organizationIdBytes = UuidBinary.toBytes(organizationId);
+
+        List<Object[]> rows = chunk.stream()
+                .map(userId -> new Object[]{
+                        UuidBinary.toBytes(UUID.randomUUID()),
+                        UuidBinary.toBytes(userId),
+                        trainingIdBytes,
+                        organizationIdBytes,
+                        EnrollmentStatus.ACTIVE.name(),
+                        now
+                })
+                .toList();
+
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+
+        int created = 0;
+        for (int i = 0; i < counts.length; i++) {
+            // 0 = já matriculado (ignorado); valores negativos indicam sucesso sem contagem.
+            if (counts[i] != 0) {
+                created++;
+                eventPublisher.publishEvent(EntitlementsChangedEvent.forUser(chunk.get(i)));
+            }
+        }
+        return created;
+    }
+
+    private void updateStatus(UUID jobId, BulkJobStatus status, String error, OffsetDateTime finishedAt) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> jobRepository.updateStatus(jobId, status, error, finishedAt));
+        } catch (RuntimeException e) {
+            log.error("Não foi possível gravar a situação {} da matrícula em lote {}.", status, jobId, e);
+        }
+    }
+
+    private BulkEnrollmentJobDTO toDTO(BulkEnrollmentJob job) {
+        return new BulkEnrollmentJobDTO(
+                job.getId(),
+                job.getTrainingId(),
+                job.getStatus(),
+                job.getRequested(),
+                job.getProcessed(),
+                job.getCreated(),
+                job.getProcessed() - job.getCreated(),
+                job.getError(),
+                job.getCreatedAt(),
+                job.getFinishedAt()
+        );
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.prospera.courses.service;
+
+import com.example.prospera.common.events.CompulsoryTrainingsChangedEvent;
+import com.example.prospera.common.events.EntitlementsChangedEvent;
+import com.example.prospera.common.jdbc.UuidBinary;
+import com.example.prospera.common.scheduling.JobLockService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Matricula automaticamente os membros nos treinamentos obrigatórios dos seus setores.
+ * <p>
+ * O conjunto "deveria estar matriculado" (membros atuais da organização x setores x treinamentos
+ * obrigatórios e publicados desses setores) é comparado com as matrículas existentes no banco, que
+ * devolve só o que falta, paginado por chave (usuário, treinamento). Cada página é inserida com
+ * JDBC em lote e {@code INSERT IGNORE} em sua própria transação; a paginação avança mesmo quando
+ * nenhuma linha da página é inserida (matrícula criada em paralelo, por exemplo) e termina na
+ * primeira página incompleta. Uma execução interrompida é retomada na próxima sem duplicar nada
+ * (chave única usuário/treinamento).
+ * <p>
+ * As mudanças relevantes publicam um {@link CompulsoryTrainingsChangedEvent}, reconciliado em
+ * segundo plano após o commit e restrito ao setor/treinamento/usuário afetado. Uma reconciliação
+ * completa agendada cobre eventos perdidos (por exemplo, queda da instância antes do processamento).
+ */
+@Service
+@RequiredArgsConstructor
+public class CompulsoryEnrollmentReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(CompulsoryEnrollmentReconciler.class);
+
+    // O JOIN com memberships exclui quem saiu da organização mas ainda tem linhas em user_sectors.
+    private static final String MISSING_SQL =
+            "SELECT DISTINCT us.user_id, tsa.training_id, us.organization_id " +
+                    "FROM user_sectors us " +
+                    "JOIN memberships m ON m.auth_user_id = us.user_id AND m.organization_id = us.organization_id " +
+                    "JOIN training_sector_assignments tsa ON tsa.sector_id = us.sector_id " +
+                    "JOIN trainings t ON t.id = tsa.training_id " +
+                    "WHERE tsa.training_type = 'COMPULSORY' " +
+                    "  AND t.status = 'PUBLISHED' " +
+                    "  AND (t.organization_id IS NULL OR t.organization_id = us.organization_id) " +
+                    "  AND NOT EXISTS (SELECT 1 FROM course_enrollments e " +
+                    "                  WHERE e.auth_user_id = us.user_id AND e.training_id = tsa.training_id) ";
+
+    private static final String INSERT_SQL =
+            "INSERT IGNORE INTO course_enrollments " +
+                    "(id, auth_user_id, training_id, organization_id, status, enrolled_at, completed_lessons) " +
+                    "VALUES (?, ?, ?, ?, 'ACTIVE', ?, 0)";
+
+    private static final RowMapper<Missing> MISSING_ROW_MAPPER = (rs, rowNum) -> new Missing(
+            rs.getBytes("user_id"), rs.getBytes("training_id"), rs.getBytes("organization_id"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JobLockService jobLockService;
+
+    @Value("${app.enrollments.compulsory.batch-size:1000}")
+    private int batchSize;
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompulsoryTrainingsChanged(CompulsoryTrainingsChangedEvent event) {
+        reconcile(event.sectorId(), event.trainingId(), event.userId());
+    }
+
+    /**
+     * Reconciliação completa, para matrículas que um evento perdido deixou de criar.
+     */
+    @Scheduled(cron = "${app.enrollments.compulsory.reconcile-cron:0 30 3 * * *}")
+    public void reconcileAll() {
+        jobLockService.runExclusively("compulsory-enrollment-reconcile", Duration.ofMinutes(5),
+                () -> reconcile(null, null, null));
+    }
+
+    /**
+     * Cria as matrículas obrigatórias que faltam. Filtros nulos não restringem a busca.
+     *
+     * @return quantidade de matrículas criadas
+     */
+    public int reconcile(UUID sectorId, UUID trainingId, UUID userId) {
+        MapSqlParameterSource params = new MapSqlParameterSource().addValue("batchSize", batchSize);
+        StringBuilder filters = new StringBuilder();
+        if (sectorId != null) {
+            filters.append("AND us.sector_id = :sectorId ");
+            params.addValue("sectorId", UuidBinary.toBytes(sectorId));
+        }
+        if (trainingId != null) {
+            filters.append("AND tsa.training_id = :trainingId ");
+            params.addValue("trainingId", UuidBinary.toBytes(trainingId));
+        }
+        if (userId != null) {
+            filters.append("AND us.user_id = :userId ");
+            params.addValue("userId", UuidBinary.toBytes(userId));
+        }
+        String firstPage = MISSING_SQL + filters + "ORDER BY us.user_id, tsa.training_id LIMIT :batchSize";
+        String nextPage = MISSING_SQL + filters +
+                "AND (us.user_id > :afterUserId OR (us.user_id = :afterUserId AND tsa.training_id > :afterTrainingId)) " +
+                "ORDER BY us.user_id, tsa.training_id LIMIT :batchSize";
+
+        int total = 0;
+        List<Missing> page = jdbcTemplate.query(firstPage, params, MISSING_ROW_MAPPER);
+        while (!page.isEmpty()) {
+            List<Missing> rows = page;
+            Integer inserted = transactionTemplate.execute(status -> insert(rows));
+            total += inserted == null ? 0 : inserted;
+            if (page.size() < batchSize) {
+                break;
+            }
+
+            Missing last = page.get(page.size() - 1);
+            params.addValue("afterUserId", last.userId()).addValue("afterTrainingId", last.trainingId());
+            page = jdbcTemplate.query(nextPage, params, MISSING_ROW_MAPPER);
+        }
+
+        if (total > 0) {
+            eventPublisher.publishEvent(userId != null
+                    ? EntitlementsChangedEvent.forUser(userId)
+                    : EntitlementsChangedEvent.forAllUsers());
+            log.info("Matrículas obrigatórias criadas: {} (setor={}, treinamento={}, usuário={}).",
+                    total, sectorId, trainingId, userId);
+        }
+        return total;
+    }
+
+    private int insert(List<Missing> rows) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> args = rows.stream()
+                .map(row -> new Object[]{
+                        UuidBinary.toBytes(UUID.randomUUID()),
+                        row.userId(),
+                        row.trainingId(),
+                        row.organizationId(),
+                        now
+                })
+                .toList();
+
+        int created = 0;
+        // 0 = já matriculado (ignorado); valores negativos indicam sucesso sem contagem.
+        for (int count : jdbcTemplate.getJdbcOperations().batchUpdate(INSERT_SQL, args)) {
+            if (count != 0) {
+                created++;
+            }
+        }
+        return created;
+    }
+
+    // IDs no formato binary(16) do banco, usados direto como parâmetros.
+    private record Missing(byte[] userId, byte[] trainingId, byte[] organizationId) {
+    }
+}
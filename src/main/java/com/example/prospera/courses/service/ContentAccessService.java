@@ -4,9 +4,8 @@ import com.example.prospera.auth.domain.AuthUser;
 import com.example.prospera.common.enums.UserRole;
 import com.example.prospera.courses.domain.EbookTraining;
 import com.example.prospera.courses.domain.Training;
-import com.example.prospera.courses.repositories.EnrollmentRepository;
 import com.example.prospera.courses.repositories.TrainingRepository;
-import com.example.prospera.subscription.service.SubscriptionService;
+import com.example.prospera.subscription.service.EntitlementService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
@@ -21,8 +20,7 @@ public class ContentAccessService {
 
     private final FileStorageService fileStorageService;
     private final TrainingRepository trainingRepository;
-    private final EnrollmentRepository enrollmentRepository;
-    private final SubscriptionService subscriptionService;
+    private final EntitlementService entitlementService;
 
     /**
      * Carrega um recurso de imagem pública. Não há verificação de segurança aqui.
@@ -44,12 +42,8 @@ public class ContentAccessService {
         }
 
         // LÓGICA DE NEGÓCIO (O "PAYWALL"):
-        // O usuário está matriculado neste treinamento?
-        boolean isEnrolled = enrollmentRepository.existsByUserIdAndTrainingId(user.getId(), trainingId);
-
-        boolean hasActiveSubscription = subscriptionService.hasActiveSubscriptionForTraining(user.getId(), trainingId);
-
-        if (!isEnrolled && !hasActiveSubscription) {
+        // O usuário está matriculado ou tem assinatura que libera este treinamento?
+        if (!entitlementService.canAccess(user.getId(), trainingId)) {
             throw new AccessDeniedException("Você não tem permissão para acessar este conteúdo.");
         }
 
@@ -0,0 +1,153 @@
+package com.example.prospera.courses.service;
+
+import com.example.prospera.common.events.CourseStructureChangedEvent;
+import com.example.prospera.courses.domain.Lesson;
+import com.example.prospera.courses.domain.Module;
+import com.example.prospera.courses.dto.CourseStructure;
+import com.example.prospera.courses.repositories.LessonRepository;
+import com.example.prospera.courses.repositories.ModuleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Estrutura de módulos e aulas de cada curso gravado, mantida em memória.
+ * <p>
+ * A estrutura é lida a cada aula assistida e muda poucas vezes por mês. Ela é montada com
+ * duas consultas na primeira leitura e descartada após o commit de qualquer alteração de
+ * módulo ou aula ({@link CourseStructureChangedEvent}).
+ * <p>
+ * Um índice aula → curso permite resolver a navegação do player a partir do ID da aula
+ * sem consultar o banco.
+ * <p>
+ * Uma leitura com a estrutura em cache não abre transação; só a montagem roda em uma transação
+ * somente leitura. O descarte por evento vale apenas para a instância que fez a alteração, então
+ * cada estrutura também expira após {@code app.courses.structure-cache.ttl-seconds}: com mais de
+ * uma réplica, esse é o prazo máximo para as demais verem a mudança (inclusive a contagem de aulas
+ * usada na conclusão do curso).
+ */
+@Component
+@RequiredArgsConstructor
+public class CourseStructureCache {
+
+    private final ModuleRepository moduleRepository;
+    private final LessonRepository lessonRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.courses.structure-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    // Incrementado a cada alteração: impede que uma montagem iniciada antes dela seja guardada.
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Map<UUID, CachedStructure> cache = new ConcurrentHashMap<>();
+
+    private final Map<UUID, UUID> trainingIdByLessonId = new ConcurrentHashMap<>();
+
+    /**
+     * Retorna a estrutura do curso, montando-a se necessário.
+     * Treinamentos sem módulos resultam em uma estrutura vazia, guardada como as demais.
+     */
+    public CourseStructure get(UUID trainingId) {
+        CourseStructure cached = cached(trainingId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long startedAt = generation.get();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        CourseStructure built = readOnly.execute(status -> build(trainingId));
+
+        synchronized (this) {
+            if (generation.get() == startedAt) {
+                CachedStructure previous = cache.put(trainingId,
+                        new CachedStructure(built, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds)));
+                if (previous != null) {
+                    previous.structure().lessons().forEach(lesson -> trainingIdByLessonId.remove(lesson.id(), trainingId));
+                }
+                built.lessons().forEach(lesson -> trainingIdByLessonId.put(lesson.id(), trainingId));
+            }
+        }
+        return built;
+    }
+
+    /**
+     * Retorna a estrutura do curso ao qual a aula pertence, ou vazio se a aula não existir.
+     */
+    public Optional<CourseStructure> findByLessonId(UUID lessonId) {
+        UUID trainingId = trainingIdByLessonId.get(lessonId);
+        if (trainingId != null) {
+            CourseStructure cached = cached(trainingId);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+
+        return lessonRepository.findTrainingIdByLessonId(lessonId).map(this::get);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCourseStructureChanged(CourseStructureChangedEvent event) {
+        generation.incrementAndGet();
+        CachedStructure removed = cache.remove(event.trainingId());
+        if (removed != null) {
+            removed.structure().lessons().forEach(lesson -> trainingIdByLessonId.remove(lesson.id()));
+        }
+    }
+
+    private CourseStructure cached(UUID trainingId) {
+        CachedStructure cached = cache.get(trainingId);
+        return cached != null && cached.expiresAt() - System.nanoTime() > 0 ? cached.structure() : null;
+    }
+
+    private CourseStructure build(UUID trainingId) {
+        List<Module> modules = moduleRepository.findAllByCourse_IdOrderByModuleOrder(trainingId);
+        Map<UUID, List<Lesson>> lessonsByModuleId = lessonRepository.findAllByCourseIdOrdered(trainingId).stream()
+                .collect(Collectors.groupingBy(lesson -> lesson.getModule().getId()));
+
+        List<CourseStructure.ModuleNode> moduleNodes = new ArrayList<>(modules.size());
+        List<CourseStructure.LessonNode> lessonNodes = new ArrayList<>();
+        Map<UUID, Integer> positionByLessonId = new HashMap<>();
+        int totalMinutes = 0;
+
+        for (Module module : modules) {
+            List<CourseStructure.LessonNode> moduleLessons = new ArrayList<>();
+            for (Lesson lesson : lessonsByModuleId.getOrDefault(module.getId(), List.of())) {
+                CourseStructure.LessonNode node = new CourseStructure.LessonNode(
+                        lesson.getId(),
+                        module.getId(),
+                        lesson.getTitle(),
+                        lesson.getContent(),
+                        lesson.getLessonOrder(),
+                        lesson.getVideoUrl(),
+                        lesson.getDurationInMinutes()
+                );
+                moduleLessons.add(node);
+                positionByLessonId.put(node.id(), lessonNodes.size());
+                lessonNodes.add(node);
+                totalMinutes += node.durationInMinutes();
+            }
+            moduleNodes.add(new CourseStructure.ModuleNode(module.getId(), module.getTitle(), module.getModuleOrder(), moduleLessons));
+        }
+
+        return new CourseStructure(trainingId, moduleNodes, lessonNodes, positionByLessonId, totalMinutes);
+    }
+
+    private record CachedStructure(CourseStructure structure, long expiresAt) {
+    }
+}
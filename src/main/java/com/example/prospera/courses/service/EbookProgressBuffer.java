@@ -0,0 +1,198 @@
+package com.example.prospera.courses.service;
+
+import com.example.prospera.common.jdbc.UuidBinary;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffer de escrita (write-behind) do progresso de leitura de e-books.
+ * <p>
+ * O leitor envia a página atual a cada virada de página. Em vez de gravar cada chamada,
+ * o buffer guarda apenas a última página de cada (usuário, e-book) e um agendador grava
+ * as entradas pendentes em lote a cada poucos segundos; ao desligar a aplicação, o que
+ * restar é gravado. As leituras consultam o buffer antes do banco.
+ * <p>
+ * Se um lote falhar, as entradas são gravadas uma a uma para isolar a que causou o erro:
+ * violações de integridade (usuário ou e-book removido, por exemplo) são descartadas na hora e
+ * outras falhas de uma entrada isolada, após {@code app.ebook-progress.write-behind.max-attempts}
+ * ciclos. Falhas de conexão indicam banco indisponível: tudo fica pendente, sem contar tentativas,
+ * até o próximo ciclo.
+ * <p>
+ * Com {@code app.ebook-progress.write-behind.enabled=false} cada chamada é gravada na hora.
+ */
+@Component
+@RequiredArgsConstructor
+public class EbookProgressBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(EbookProgressBuffer.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO ebook_progress (id, last_page_read, updated_at, user_id, training_id) VALUES (?, ?, ?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE last_page_read = VALUES(last_page_read), updated_at = VALUES(updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.ebook-progress.write-behind.enabled:true}")
+    private boolean writeBehind;
+
+    @Value("${app.ebook-progress.write-behind.max-attempts:5}")
+    private int maxAttempts;
+
+    private final Map<ProgressKey, PendingProgress> pending = new ConcurrentHashMap<>();
+
+    // Ciclos consecutivos em que a entrada falhou sozinha; acessado apenas dentro de flush().
+    private final Map<ProgressKey, Integer> failedAttempts = new HashMap<>();
+
+    /**
+     * Registra a última página lida. No modo write-behind retorna imediatamente.
+     */
+    public void record(UUID userId, UUID trainingId, int lastPageRead) {
+        ProgressKey key = new ProgressKey(userId, trainingId);
+        PendingProgress progress = new PendingProgress(lastPageRead, OffsetDateTime.now());
+
+        if (writeBehind) {
+            pending.put(key, progress);
+        } else {
+            write(List.of(Map.entry(key, progress)));
+        }
+    }
+
+    /**
+     * Progresso ainda não gravado no banco, se houver.
+     */
+    public Optional<PendingProgress> find(UUID userId, UUID trainingId) {
+        return Optional.ofNullable(pending.get(new ProgressKey(userId, trainingId)));
+    }
+
+    /**
+     * Grava em lote todas as entradas pendentes.
+     */
+    @Scheduled(fixedDelayString = "${app.ebook-progress.write-behind.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<ProgressKey, PendingProgress>> batch = new ArrayList<>(Math.min(pending.size(), BATCH_SIZE));
+        for (Map.Entry<ProgressKey, PendingProgress> entry : pending.entrySet()) {
+            batch.add(Map.entry(entry.getKey(), entry.getValue()));
+            if (batch.size() == BATCH_SIZE) {
+                if (!flushBatch(batch)) {
+                    return;
+                }
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flushBatch(batch);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * @return {@code false} se o banco estiver indisponível e o ciclo deve parar.
+     */
+    private boolean flushBatch(List<Map.Entry<ProgressKey, PendingProgress>> batch) {
+        try {
+            write(batch);
+        } catch (DataAccessResourceFailureException | TransientDataAccessResourceException e) {
+            log.error("Banco indisponível ao gravar {} progressos de e-book. Nova tentativa no próximo ciclo.", batch.size(), e);
+            return false;
+        } catch (DataAccessException e) {
+            log.warn("Falha ao gravar lote de {} progressos de e-book; gravando um a um.", batch.size(), e);
+            return flushOneByOne(batch);
+        }
+
+        batch.forEach(this::forget);
+        return true;
+    }
+
+    private boolean flushOneByOne(List<Map.Entry<ProgressKey, PendingProgress>> batch) {
+        List<Map.Entry<ProgressKey, PendingProgress>> failed = new ArrayList<>();
+
+        for (Map.Entry<ProgressKey, PendingProgress> entry : batch) {
+            try {
+                write(List.of(entry));
+                forget(entry);
+            } catch (DataAccessResourceFailureException | TransientDataAccessResourceException e) {
+                log.error("Banco indisponível ao gravar progressos de e-book. Nova tentativa no próximo ciclo.", e);
+                return false;
+            } catch (DataIntegrityViolationException e) {
+                // Não se resolve com nova tentativa.
+                log.error("Progresso de e-book descartado (usuário {}, e-book {}, página {}): {}",
+                        entry.getKey().userId(), entry.getKey().trainingId(), entry.getValue().lastPageRead(),
+                        e.getMostSpecificCause().getMessage());
+                forget(entry);
+            } catch (DataAccessException e) {
+                log.warn("Falha ao gravar o progresso de e-book (usuário {}, e-book {}).",
+                        entry.getKey().userId(), entry.getKey().trainingId(), e);
+                failed.add(entry);
+            }
+        }
+
+        for (Map.Entry<ProgressKey, PendingProgress> entry : failed) {
+            int attempts = failedAttempts.merge(entry.getKey(), 1, Integer::sum);
+            if (attempts >= maxAttempts) {
+                log.error("Progresso de e-book descartado após {} tentativas (usuário {}, e-book {}, página {}).",
+                        attempts, entry.getKey().userId(), entry.getKey().trainingId(), entry.getValue().lastPageRead());
+                forget(entry);
+            }
+        }
+        return true;
+    }
+
+    private void forget(Map.Entry<ProgressKey, PendingProgress> entry) {
+        // Só remove se não houve uma página mais nova enquanto o lote era gravado.
+        pending.remove(entry.getKey(), entry.getValue());
+        failedAttempts.remove(entry.getKey());
+    }
+
+    private void write(List<Map.Entry<ProgressKey, PendingProgress>> batch) {
+        List<Object[]> rows = batch.stream()
+                .map(entry -> new Object[]{
+                        UuidBinary.toBytes(UUID.randomUUID()),
+                        entry.getValue().lastPageRead(),
+                        Timestamp.from(entry.getValue().updatedAt().toInstant()),
+                        UuidBinary.toBytes(entry.getKey().userId()),
+                        UuidBinary.toBytes(entry.getKey().trainingId())
+                })
+                .toList();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    private record ProgressKey(UUID userId, UUID trainingId) {
+    }
+
+    /**
+     * @param lastPageRead última página lida.
+     * @param updatedAt    momento em que a página foi recebida.
+     */
+    public record PendingProgress(int lastPageRead, OffsetDateTime updatedAt) {
+    }
+}
@@ -1,34 +1,27 @@
 package com.example.prospera.courses.service;
 
 import com.example.prospera.auth.domain.AuthUser;
-import com.example.prospera.auth.repositories.AuthUserRepository;
-import com.example.prospera.certificate.domain.Certificate;
-import com.example.prospera.certificate.repositories.CertificateRepository;
+import com.example.prospera.common.events.EntitlementsChangedEvent;
 import com.example.prospera.common.service.AuthorizationService;
 import com.example.prospera.courses.domain.Enrollment;
 import com.example.prospera.courses.domain.Training;
-import com.example.prospera.courses.domain.TrainingRating;
 import com.example.prospera.courses.domain.enums.EnrollmentStatus;
-import com.example.prospera.courses.domain.enums.TrainingEntityType;
-import com.example.prospera.courses.dto.EbookProgressDTO;
 import com.example.prospera.courses.dto.EnrollmentResponseDTO;
+import com.example.prospera.courses.dto.EnrollmentSummaryRow;
 import com.example.prospera.courses.repositories.EnrollmentRepository;
-import com.example.prospera.courses.repositories.TrainingRatingRepository;
 import com.example.prospera.courses.repositories.TrainingRepository;
 import com.example.prospera.enterprise.domain.Membership;
-import com.example.prospera.enterprise.domain.Organization;
 import com.example.prospera.enterprise.dto.MemberResponseDTO;
 import com.example.prospera.subscription.enums.AccessType;
 import com.example.prospera.subscription.service.SubscriptionService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -38,12 +31,10 @@ public class EnrollmentService {
 
     private final EnrollmentRepository enrollmentRepository;
     private final TrainingRepository trainingRepository;
-    private final AuthUserRepository authUserRepository;
     private final ProgressService progressService;
     private final AuthorizationService authorizationService;
-    private final CertificateRepository certificateRepository;
-    private final TrainingRatingRepository trainingRatingRepository;
     private final SubscriptionService subscriptionService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public EnrollmentResponseDTO enrollUserInTraining(AuthUser user, UUID trainingId) {
@@ -71,6 +62,7 @@ public class EnrollmentService {
                 .status(EnrollmentStatus.ACTIVE)
                 .build();
         Enrollment savedEnrollment = enrollmentRepository.save(newEnrollment);
+        eventPublisher.publishEvent(EntitlementsChangedEvent.forUser(user.getId()));
 
         // 2. Crie e retorne o DTO diretamente do serviço.
         // O progresso de uma nova matrícula é sempre ZERO.
@@ -88,36 +80,6 @@ public class EnrollmentService {
         );
     }
 
-    @Transactional
-    public void enrollMembersInTraining(UUID trainingId, List<UUID> memberUserIds, Organization organization) {
-        Training training = trainingRepository.findById(trainingId)
-                .orElseThrow(() -> new EntityNotFoundException("Treinamento não encontrado."));
-
-        List<AuthUser> usersToEnroll = authUserRepository.findAllById(memberUserIds);
-
-        for (AuthUser user : usersToEnroll) {
-            authorizationService.checkIsMemberOfOrg(user, organization.getId());
-        }
-
-        Set<UUID> alreadyEnrolledUserIds = enrollmentRepository.findEnrolledUserIdsByTrainingAndUserIds(trainingId, memberUserIds);
-
-        List<Enrollment> newEnrollments = new ArrayList<>();
-        for (AuthUser user : usersToEnroll) {
-            if (!alreadyEnrolledUserIds.contains(user.getId())) {
-                newEnrollments.add(Enrollment.builder()
-                        .user(user)
-                        .training(training)
-                        .status(EnrollmentStatus.ACTIVE)
-                        .sponsoredBy(organization)
-                        .build());
-            }
-        }
-
-        if (!newEnrollments.isEmpty()) {
-            enrollmentRepository.saveAll(newEnrollments);
-        }
-    }
-
     @Transactional(readOnly = true)
     public List<MemberResponseDTO> getEnrolledMembers(UUID organizationId, UUID trainingId) {
         List<Membership> memberships = enrollmentRepository.findMembershipsByOrganizationAndTraining(organizationId, trainingId);
@@ -126,44 +88,26 @@ public class EnrollmentService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Painel "meus treinamentos": uma única consulta agregada traz matrícula, treinamento,
+     * progresso bruto, certificado e avaliação; o percentual é calculado em memória.
+     */
     @Transactional(readOnly = true)
     public List<EnrollmentResponseDTO> findEnrollmentsForUser(AuthUser user) {
-        List<Enrollment> enrollments = enrollmentRepository.findByUserWithTrainingDetails(user);
-
-        return enrollments.stream().map(enrollment -> {
-            BigDecimal realProgressPercentage = BigDecimal.ZERO;
-            Training training = enrollment.getTraining();
-
-            Integer myScore = trainingRatingRepository.findByEnrollmentId(enrollment.getId())
-                    .map(TrainingRating::getScore)
-                    .orElse(null);
-
-            if (training.getEntityType() == TrainingEntityType.EBOOK) {
-                EbookProgressDTO progress = progressService.getEbookProgress(user.getId(), training.getId());
-                realProgressPercentage = progress.progressPercentage();
-            } else if (training.getEntityType() == TrainingEntityType.RECORDED_COURSE) {
-                realProgressPercentage = progressService.calculateCourseProgress(enrollment);
-            }
-
-            // Verifica se já existe certificado emitido para esta matrícula
-            var certificateOpt = certificateRepository.findByEnrollmentId(enrollment.getId());
-
-            UUID certId = certificateOpt.map(Certificate::getId).orElse(null);
-            String valCode = certificateOpt.map(Certificate::getValidationCode).orElse(null);
-
-            return new EnrollmentResponseDTO(
-                    enrollment.getId(),
-                    training.getId(),
-                    training.getTitle(),
-                    enrollment.getStatus(),
-                    enrollment.getEnrolledAt(),
-                    training.getCoverImageUrl(),
-                    realProgressPercentage,
-                    certId,
-                    valCode,
-                    myScore
-            );
-        }).collect(Collectors.toList());
+        List<EnrollmentSummaryRow> rows = enrollmentRepository.findEnrollmentSummariesByUserId(user.getId());
+
+        return rows.stream().map(row -> new EnrollmentResponseDTO(
+                row.enrollmentId(),
+                row.trainingId(),
+                row.trainingTitle(),
+                row.status(),
+                row.enrolledAt(),
+                row.coverImageUrl(),
+                progressService.calculateProgress(row, user.getId()),
+                row.certificateId(),
+                row.validationCode(),
+                row.userRating()
+        )).collect(Collectors.toList());
     }
 
-}
\ No newline at end of file
+}
@@ -68,5 +68,17 @@ public class FileStorageService {
         }
     }
 
-
-}
\ No newline at end of file
+    /**
+     * Remove um arquivo do diretório de upload, se existir.
+     *
+     * @param filename Nome do arquivo a ser removido
+     * @throws RuntimeException se o arquivo existir e não puder ser removido
+     */
+    public void delete(String filename) {
+        try {
+            Files.deleteIfExists(rootLocation.resolve(filename));
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao remover o arquivo: " + filename, e);
+        }
+    }
+}
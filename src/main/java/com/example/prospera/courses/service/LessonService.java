@@ -3,19 +3,16 @@ package com.example.prospera.courses.service;
 import com.example.prospera.auth.domain.AuthUser;
 import com.example.prospera.common.enums.UserRole;
 import com.example.prospera.courses.domain.Lesson;
-import com.example.prospera.courses.domain.Module;
-import com.example.prospera.courses.repositories.EnrollmentRepository;
+import com.example.prospera.courses.dto.CourseStructure;
 import com.example.prospera.courses.repositories.LessonProgressRepository;
 import com.example.prospera.courses.repositories.LessonRepository;
-import com.example.prospera.courses.repositories.ModuleRepository;
 import com.example.prospera.exceptions.ResourceNotFoundException;
-import com.example.prospera.subscription.service.SubscriptionService;
+import com.example.prospera.subscription.service.EntitlementService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -24,10 +21,9 @@ import java.util.UUID;
 public class LessonService {
 
     private final LessonRepository lessonRepository;
-    private final ModuleRepository moduleRepository;
-    private final SubscriptionService subscriptionService;
-    private final EnrollmentRepository enrollmentRepository;
+    private final EntitlementService entitlementService;
     private final LessonProgressRepository lessonProgressRepository;
+    private final CourseStructureCache courseStructureCache;
 
     /**
      * Busca os detalhes da aula para consumo (assistir).
@@ -47,14 +43,9 @@ public class LessonService {
         // 3. Identifica o curso/treinamento pai
         UUID trainingId = lesson.getModule().getCourse().getId();
 
-        // 4. Verifica Matrícula (Enrollment)
-        boolean isEnrolled = enrollmentRepository.existsByUserIdAndTrainingId(user.getId(), trainingId);
-
-        // 5. Verifica Assinatura Ativa (Subscription)
-        boolean hasActiveSubscription = subscriptionService.hasActiveSubscriptionForTraining(user.getId(), trainingId);
-
-        // 6. Se não tiver acesso por nenhum meio, bloqueia (403 Forbidden)
-        if (!isEnrolled && !hasActiveSubscription) {
+        // 4. Verifica Matrícula ou Assinatura Ativa (índice de acesso em memória)
+        // 5. Se não tiver acesso por nenhum meio, bloqueia (403 Forbidden)
+        if (!entitlementService.canAccess(user.getId(), trainingId)) {
             throw new AccessDeniedException("Você não tem permissão para assistir a esta aula.");
         }
 
@@ -66,64 +57,28 @@ public class LessonService {
      */
     @Transactional(readOnly = true)
     public boolean isLessonCompleted(UUID lessonId, UUID userId) {
-        // Precisamos achar a matrícula primeiro para verificar o progresso
-        // Uma forma otimizada seria criar um metodo no Repository que faz o JOIN
-        // Mas usando o que você já tem:
-
-        var lesson = lessonRepository.findById(lessonId).orElseThrow();
-        var trainingId = lesson.getModule().getCourse().getId();
-
-        var enrollment = enrollmentRepository.findByUserIdAndTrainingId(userId, trainingId);
-
-        if (enrollment.isPresent()) {
-            return lessonProgressRepository.existsByEnrollmentAndLesson(enrollment.get(), lesson);
-        }
-        return false;
+        // Uma única consulta (JOIN com a matrícula) em vez de buscar aula, matrícula e progresso.
+        // Para marcar várias aulas de uma vez, use o ProgressSnapshotService.
+        return lessonProgressRepository.existsByUserIdAndLessonId(userId, lessonId);
     }
 
-    @Transactional(readOnly = true)
-    public Optional<Lesson> findNextLesson(UUID currentLessonId) {
-        Lesson currentLesson = lessonRepository.findById(currentLessonId)
-                .orElseThrow(() -> new ResourceNotFoundException("Aula com ID " + currentLessonId + " não encontrada."));
-
-        Module currentModule = currentLesson.getModule();
-
-        Optional<Lesson> nextLessonInModule = lessonRepository.findByModuleAndLessonOrder(currentModule, currentLesson.getLessonOrder() + 1);
-
-        if (nextLessonInModule.isPresent()) {
-            return nextLessonInModule;
-        }
-
-        Optional<Module> nextModule = moduleRepository.findByCourseAndModuleOrder(
-                currentModule.getCourse(),
-                currentModule.getModuleOrder() + 1
-        );
-
-        return nextModule.flatMap(module -> module.getLessons().stream().findFirst());
+    /**
+     * Próxima aula na sequência do curso, resolvida pela estrutura em cache
+     * (módulos vazios e lacunas na numeração são ignorados).
+     */
+    public Optional<CourseStructure.LessonNode> findNextLesson(UUID currentLessonId) {
+        return findCourseStructure(currentLessonId).next(currentLessonId);
     }
 
-    @Transactional(readOnly = true)
-    public Optional<Lesson> findPreviousLesson(UUID currentLessonId) {
-        Lesson currentLesson = lessonRepository.findById(currentLessonId)
-                .orElseThrow(() -> new ResourceNotFoundException("Aula com ID " + currentLessonId + " não encontrada."));
-
-        if (currentLesson.getLessonOrder() > 1) {
-            return lessonRepository.findByModuleAndLessonOrder(currentLesson.getModule(), currentLesson.getLessonOrder() - 1);
-        }
-
-        Module currentModule = currentLesson.getModule();
-        Optional<Module> previousModule = moduleRepository.findByCourseAndModuleOrder(
-                currentModule.getCourse(),
-                currentModule.getModuleOrder() - 1
-        );
+    /**
+     * Aula anterior na sequência do curso, resolvida pela estrutura em cache.
+     */
+    public Optional<CourseStructure.LessonNode> findPreviousLesson(UUID currentLessonId) {
+        return findCourseStructure(currentLessonId).previous(currentLessonId);
+    }
 
-        return previousModule.flatMap(module -> {
-            List<Lesson> lessons = module.getLessons();
-            if (lessons.isEmpty()) {
-                // Se o módulo não tiver aulas, não há aula anterior para retornar.
-                return Optional.empty();
-            }
-            return Optional.of(lessons.getLast());
-        });
+    private CourseStructure findCourseStructure(UUID lessonId) {
+        return courseStructureCache.findByLessonId(lessonId)
+                .orElseThrow(() -> new ResourceNotFoundException("Aula com ID " + lessonId + " não encontrada."));
     }
-}
\ No newline at end of file
+}
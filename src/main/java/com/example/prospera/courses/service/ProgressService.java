@@ -1,28 +1,35 @@
 package com.example.prospera.courses.service;
 
+import com.example.prospera.common.events.CatalogChangedEvent;
+import com.example.prospera.common.events.EnrollmentCompletedEvent;
+import com.example.prospera.common.jdbc.UuidBinary;
 import com.example.prospera.courses.domain.EbookProgress;
 import com.example.prospera.courses.domain.EbookTraining;
 import com.example.prospera.courses.domain.Enrollment;
-import com.example.prospera.courses.domain.Lesson;
-import com.example.prospera.courses.domain.LessonProgress;
 import com.example.prospera.courses.domain.Training;
-import com.example.prospera.courses.domain.enums.EnrollmentStatus;
 import com.example.prospera.courses.domain.enums.TrainingEntityType;
+import com.example.prospera.courses.dto.CourseStructure;
 import com.example.prospera.courses.dto.EbookProgressDTO;
+import com.example.prospera.courses.dto.EnrollmentSummaryRow;
 import com.example.prospera.courses.repositories.EbookProgressRepository;
 import com.example.prospera.courses.repositories.EnrollmentRepository;
-import com.example.prospera.courses.repositories.LessonProgressRepository;
-import com.example.prospera.courses.repositories.LessonRepository;
 import com.example.prospera.courses.repositories.TrainingRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.sql.Timestamp;
 import java.time.OffsetDateTime;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Serviço responsável por gerenciar o progresso dos usuários em diferentes tipos de treinamentos,
@@ -33,68 +40,69 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ProgressService {
 
+    // Sem IGNORE: só a chave única (matrícula, lição) é tratada como "já concluída"; uma matrícula
+    // ou lição inexistente continua falhando.
+    private static final String INSERT_LESSON_PROGRESS_SQL =
+            "INSERT INTO lesson_progress (id, completed_at, enrollment_id, lesson_id) VALUES (?, ?, ?, ?)";
+
     private final EnrollmentRepository enrollmentRepository;
-    private final LessonRepository lessonRepository;
-    private final LessonProgressRepository lessonProgressRepository;
     private final EbookProgressRepository ebookProgressRepository;
     private final TrainingRepository trainingRepository;
+    private final CourseStructureCache courseStructureCache;
+    private final EbookProgressBuffer ebookProgressBuffer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<UUID, Integer> ebookTotalPages = new ConcurrentHashMap<>();
 
     /**
      * Marca uma lição específica como concluída para um determinado usuário.
+     * <p>
+     * A lição e o total de aulas do curso vêm da estrutura em cache; o registro do progresso é
+     * idempotente e o contador da matrícula é atualizado atomicamente, de modo que a conclusão
+     * do curso é detectada sem contar as aulas no banco.
      *
      * @param userId   ID do usuário que completou a lição
      * @param lessonId ID da lição que foi completada
-     * @return O registro de progresso da lição criado
      * @throws EntityNotFoundException se a lição não for encontrada
      * @throws IllegalStateException   se o usuário não estiver matriculado ou a lição já estiver concluída
      */
     @Transactional
-    public LessonProgress markLessonAsCompleted(UUID userId, UUID lessonId) {
-        Lesson lesson = lessonRepository.findById(lessonId)
+    public void markLessonAsCompleted(UUID userId, UUID lessonId) {
+        CourseStructure structure = courseStructureCache.findByLessonId(lessonId)
                 .orElseThrow(() -> new EntityNotFoundException("Lição não encontrada com o ID: " + lessonId));
 
-        // CORREÇÃO 1: A entidade Module tem um campo 'course' (do tipo RecordedCourse)
-        Training training = lesson.getModule().getCourse();
-
-        // CORREÇÃO 2: O método no repositório foi renomeado para 'findByUserIdAndTrainingId'
-        Enrollment enrollment = enrollmentRepository.findByUserIdAndTrainingId(userId, training.getId())
+        UUID enrollmentId = enrollmentRepository.findIdByUserIdAndTrainingId(userId, structure.trainingId())
                 .orElseThrow(() -> new IllegalStateException("Usuário com ID " + userId + " não está matriculado no treinamento."));
 
-        if (lessonProgressRepository.existsByEnrollmentAndLesson(enrollment, lesson)) {
+        OffsetDateTime now = OffsetDateTime.now();
+        try {
+            jdbcTemplate.update(INSERT_LESSON_PROGRESS_SQL,
+                    UuidBinary.toBytes(UUID.randomUUID()),
+                    Timestamp.from(now.toInstant()),
+                    UuidBinary.toBytes(enrollmentId),
+                    UuidBinary.toBytes(lessonId));
+        } catch (DuplicateKeyException e) {
             throw new IllegalStateException("Esta lição já foi marcada como concluída.");
         }
 
-        LessonProgress progress = LessonProgress.builder()
-                .enrollment(enrollment)
-                .lesson(lesson)
-                .completedAt(OffsetDateTime.now())
-                .build();
-
-        LessonProgress savedProgress = lessonProgressRepository.save(progress);
-
-        checkCourseCompletion(enrollment);
-
-        return savedProgress;
+        enrollmentRepository.incrementCompletedLessons(enrollmentId);
+        checkCourseCompletion(enrollmentId, structure.lessonCount(), now);
     }
 
-    private void checkCourseCompletion(Enrollment enrollment) {
-        // CORREÇÃO 3: A entidade Enrollment tem um campo 'training'
-        Training training = enrollment.getTraining();
-
-        // Esta chamada para 'countByCourseId' pode ser renomeada para 'countByTrainingId' no futuro para maior clareza,
-        // mas se estiver funcionando com a @Query, não há problema.
-        long totalLessonsInCourse = lessonRepository.countByCourseId(training.getId());
-
-        long completedLessonsForEnrollment = lessonProgressRepository.countByEnrollment(enrollment);
-
-        if (totalLessonsInCourse > 0 && totalLessonsInCourse == completedLessonsForEnrollment) {
-            enrollment.setStatus(EnrollmentStatus.COMPLETED);
-            enrollmentRepository.save(enrollment);
+    private void checkCourseCompletion(UUID enrollmentId, int totalLessonsInCourse, OffsetDateTime now) {
+        if (totalLessonsInCourse > 0
+                && enrollmentRepository.completeIfAllLessonsDone(enrollmentId, totalLessonsInCourse, now) == 1) {
+            // O certificado é emitido em segundo plano, após o commit desta transação.
+            eventPublisher.publishEvent(new EnrollmentCompletedEvent(enrollmentId));
         }
     }
 
     /**
      * Atualiza o progresso de leitura de um e-book para um usuário específico.
+     * <p>
+     * A página é entregue ao {@link EbookProgressBuffer}, que agrupa as viradas de página
+     * e grava apenas a última em lote; o total de páginas de cada e-book fica em memória.
      *
      * @param userId       ID do usuário que está lendo o e-book
      * @param trainingId   ID do treinamento (e-book)
@@ -103,8 +111,25 @@ public class ProgressService {
      * @throws IllegalArgumentException se o treinamento não for um e-book ou a página for inválida
      * @throws IllegalStateException    se o total de páginas do e-book não estiver definido
      */
-    @Transactional
     public void updateEbookProgress(UUID userId, UUID trainingId, int lastPageRead) {
+        int totalPages = getEbookTotalPages(trainingId);
+
+        // Garante que a página enviada está dentro do intervalo válido (de 0 até o total de páginas)
+        if (lastPageRead < 0 || lastPageRead > totalPages) {
+            throw new IllegalArgumentException(
+                    String.format("Página inválida. O valor deve estar entre 0 e %d.", totalPages)
+            );
+        }
+
+        ebookProgressBuffer.record(userId, trainingId, lastPageRead);
+    }
+
+    private int getEbookTotalPages(UUID trainingId) {
+        Integer cached = ebookTotalPages.get(trainingId);
+        if (cached != null) {
+            return cached;
+        }
+
         // Valida se o treinamento existe e é um Ebook
         Training training = trainingRepository.findById(trainingId)
                 .orElseThrow(() -> new EntityNotFoundException("Treinamento não encontrado: " + trainingId));
@@ -118,18 +143,14 @@ public class ProgressService {
             throw new IllegalStateException("Não é possível salvar o progresso pois o total de páginas do e-book não foi definido.");
         }
 
-        // Garante que a página enviada está dentro do intervalo válido (de 0 até o total de páginas)
-        if (lastPageRead < 0 || lastPageRead > totalPages) {
-            throw new IllegalArgumentException(
-                    String.format("Página inválida. O valor deve estar entre 0 e %d.", totalPages)
-            );
-        }
-
-        EbookProgress progress = ebookProgressRepository.findByUserIdAndTrainingId(userId, trainingId)
-                .orElse(EbookProgress.builder().userId(userId).training(training).build());
+        ebookTotalPages.put(trainingId, totalPages);
+        return totalPages;
+    }
 
-        progress.setLastPageRead(lastPageRead);
-        ebookProgressRepository.save(progress);
+    // O total de páginas muda quando o admin envia um novo arquivo (CatalogChangedEvent).
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        ebookTotalPages.remove(event.trainingId());
     }
 
     /**
@@ -152,23 +173,79 @@ public class ProgressService {
         }
         Integer totalPages = ebook.getTotalPages();
 
-        // Busca o registro de progresso
-        EbookProgress progress = ebookProgressRepository.findByUserIdAndTrainingId(userId, trainingId).orElse(null);
+        // Busca o registro de progresso (o buffer tem a página mais recente ainda não gravada)
+        EbookProgressBuffer.PendingProgress pending = ebookProgressBuffer.find(userId, trainingId).orElse(null);
+        EbookProgress progress = pending != null
+                ? null
+                : ebookProgressRepository.findByUserIdAndTrainingId(userId, trainingId).orElse(null);
 
-        if (progress == null) {
+        if (pending == null && progress == null) {
             return new EbookProgressDTO(0, totalPages, BigDecimal.ZERO, null);
         } else {
+            int lastPageRead = pending != null ? pending.lastPageRead() : progress.getLastPageRead();
+            OffsetDateTime updatedAt = pending != null ? pending.updatedAt() : progress.getUpdatedAt();
+
             BigDecimal percentage = BigDecimal.ZERO;
             if (totalPages != null && totalPages > 0) {
-                percentage = BigDecimal.valueOf(progress.getLastPageRead())
+                percentage = BigDecimal.valueOf(lastPageRead)
                         .multiply(BigDecimal.valueOf(100))
                         .divide(BigDecimal.valueOf(totalPages), 2, RoundingMode.HALF_UP);
             }
-            return new EbookProgressDTO(progress.getLastPageRead(), totalPages, percentage, progress.getUpdatedAt());
+            return new EbookProgressDTO(lastPageRead, totalPages, percentage, updatedAt);
         }
     }
 
 
+    /**
+     * Calcula o percentual de progresso de uma linha do painel "meus treinamentos", sem consultas:
+     * o total de aulas vem da estrutura em cache e a página mais recente do e-book, do buffer.
+     *
+     * @param row Linha carregada por {@code EnrollmentRepository.findEnrollmentSummariesByUserId}
+     * @param userId ID do dono da matrícula
+     * @return O progresso em percentual (ex: 75.00)
+     */
+    public BigDecimal calculateProgress(EnrollmentSummaryRow row, UUID userId) {
+        long totalLessons = row.entityType() == TrainingEntityType.RECORDED_COURSE
+                ? courseStructureCache.get(row.trainingId()).lessonCount()
+                : 0;
+        return calculateProgress(row.entityType(), row.trainingId(), userId,
+                row.completedLessons(), totalLessons, row.lastPageRead(), row.totalPages());
+    }
+
+    /**
+     * Calcula o percentual de progresso a partir de valores já carregados (sem consultas),
+     * usando a página mais recente do buffer para e-books.
+     *
+     * @param completedLessons Aulas concluídas (contador da matrícula)
+     * @param totalLessons     Total de aulas do curso
+     * @param lastPageRead     Última página gravada, ou {@code null}
+     * @param totalPages       Total de páginas do e-book, ou {@code null}
+     * @return O progresso em percentual (ex: 75.00)
+     */
+    public BigDecimal calculateProgress(TrainingEntityType entityType, UUID trainingId, UUID userId,
+                                        int completedLessons, long totalLessons,
+                                        Integer lastPageRead, Integer totalPages) {
+        if (entityType == TrainingEntityType.EBOOK) {
+            int page = ebookProgressBuffer.find(userId, trainingId)
+                    .map(EbookProgressBuffer.PendingProgress::lastPageRead)
+                    .orElse(lastPageRead != null ? lastPageRead : 0);
+            return percentage(page, totalPages != null ? totalPages : 0);
+        }
+        if (entityType == TrainingEntityType.RECORDED_COURSE) {
+            return percentage(Math.min(completedLessons, totalLessons), totalLessons);
+        }
+        return BigDecimal.ZERO;
+    }
+
+    private static BigDecimal percentage(long done, long total) {
+        if (total <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(done)
+                .multiply(BigDecimal.valueOf(100))
+                .divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP);
+    }
+
     /**
      * Calcula o percentual de progresso para um curso gravado (RecordedCourse).
      * O cálculo é baseado no número de lições completadas em relação ao total de lições do curso.
@@ -185,16 +262,16 @@ public class ProgressService {
 
         UUID courseId = enrollment.getTraining().getId();
 
-        // 1. Pega o total de aulas do curso
-        long totalLessons = lessonRepository.countByCourseId(courseId);
+        // 1. Pega o total de aulas do curso (estrutura em cache)
+        long totalLessons = courseStructureCache.get(courseId).lessonCount();
 
         // Se o curso não tem aulas, o progresso é 0
         if (totalLessons == 0) {
             return BigDecimal.ZERO;
         }
 
-        // 2. Pega o total de aulas que o usuário completou para esta matrícula
-        long completedLessons = lessonProgressRepository.countByEnrollment(enrollment);
+        // 2. Pega o total de aulas que o usuário completou para esta matrícula (contador da matrícula)
+        long completedLessons = Math.min(enrollment.getCompletedLessons(), totalLessons);
 
         // 3. Calcula o percentual usando BigDecimal para precisão
         return BigDecimal.valueOf(completedLessons)
@@ -0,0 +1,42 @@
+package com.example.prospera.courses.service;
+
+import com.example.prospera.courses.dto.CourseStructure;
+import com.example.prospera.courses.dto.ProgressSnapshot;
+import com.example.prospera.courses.repositories.EnrollmentRepository;
+import com.example.prospera.courses.repositories.LessonProgressRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+/**
+ * Monta {@link ProgressSnapshot}s: o conjunto de aulas concluídas de uma matrícula,
+ * lido de uma só vez para ser reutilizado por quem precisa marcar várias aulas.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProgressSnapshotService {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final LessonProgressRepository lessonProgressRepository;
+    private final CourseStructureCache courseStructureCache;
+
+    /**
+     * Aulas concluídas de uma matrícula conhecida (1 consulta), indexadas pela estrutura do curso.
+     */
+    @Transactional(readOnly = true)
+    public ProgressSnapshot forEnrollment(UUID enrollmentId, CourseStructure structure) {
+        return ProgressSnapshot.of(enrollmentId, structure, lessonProgressRepository.findCompletedLessonIdsByEnrollmentId(enrollmentId));
+    }
+
+    /**
+     * Aulas concluídas pelo usuário no treinamento; vazio se não houver matrícula.
+     */
+    @Transactional(readOnly = true)
+    public ProgressSnapshot forUserAndTraining(UUID userId, UUID trainingId) {
+        return enrollmentRepository.findByUserIdAndTrainingId(userId, trainingId)
+                .map(enrollment -> forEnrollment(enrollment.getId(), courseStructureCache.get(trainingId)))
+                .orElse(ProgressSnapshot.empty());
+    }
+}
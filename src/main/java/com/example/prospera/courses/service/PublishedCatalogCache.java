@@ -0,0 +1,197 @@
+package com.example.prospera.courses.service;
+
+import com.example.prospera.common.events.CatalogChangedEvent;
+import com.example.prospera.courses.domain.Training;
+import com.example.prospera.courses.domain.TrainingSectorAssignment;
+import com.example.prospera.courses.domain.enums.PublicationStatus;
+import com.example.prospera.courses.dto.PublicTrainingDTO;
+import com.example.prospera.courses.dto.SimpleSectorDTO;
+import com.example.prospera.courses.repositories.TrainingRepository;
+import com.example.prospera.enterprise.dto.SectorDTO;
+import com.example.prospera.enterprise.service.SectorService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Fotografia compartilhada e imutável do catálogo publicado.
+ * <p>
+ * O catálogo é lido milhares de vezes para cada escrita do admin, então todos os usuários
+ * compartilham a mesma lista de DTOs já montada. Cada alteração publica um
+ * {@link CatalogChangedEvent}; após o commit a fotografia é descartada e a próxima leitura
+ * monta uma nova (copy-on-write: leitores nunca veem uma lista pela metade).
+ * <p>
+ * A fotografia também guarda as respostas públicas já serializadas em JSON e em gzip,
+ * com ETag forte, para que a vitrine pública não consulte nem serialize nada por requisição.
+ */
+@Component
+@RequiredArgsConstructor
+public class PublishedCatalogCache {
+
+    private final TrainingRepository trainingRepository;
+    private final SectorService sectorService;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    // Incrementado a cada alteração: impede que uma montagem iniciada antes dela seja publicada.
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile PublishedCatalog snapshot;
+
+    /**
+     * Retorna a fotografia atual, montando-a se necessário. Com a fotografia pronta não há
+     * transação nem conexão: só a montagem roda em uma transação somente leitura.
+     */
+    public PublishedCatalog get() {
+        PublishedCatalog current = snapshot;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = snapshot;
+            if (current != null) {
+                return current;
+            }
+
+            long startedAt = generation.get();
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            PublishedCatalog rebuilt = readOnly.execute(status -> build());
+            if (generation.get() == startedAt) {
+                snapshot = rebuilt;
+            }
+            return rebuilt;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private PublishedCatalog build() {
+        List<Training> trainings = trainingRepository.findByStatus(PublicationStatus.PUBLISHED);
+
+        Set<UUID> allSectorIds = trainings.stream()
+                .flatMap(training -> training.getSectorAssignments().stream())
+                .map(TrainingSectorAssignment::getSectorId)
+                .collect(Collectors.toSet());
+
+        Map<UUID, String> sectorNamesById = sectorService.findSectorsByIds(allSectorIds).stream()
+                .collect(Collectors.toMap(SectorDTO::id, SectorDTO::name));
+
+        List<PublicTrainingDTO> publicTrainings = trainings.stream()
+                .map(training -> toPublicDTO(training, sectorNamesById))
+                .toList();
+
+        Map<UUID, PublicTrainingDTO> byId = publicTrainings.stream()
+                .collect(Collectors.toMap(PublicTrainingDTO::id, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+
+        // Precisão de segundos, como no cabeçalho Last-Modified.
+        Instant builtAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+        Map<UUID, SerializedBody> detailBodies = publicTrainings.stream()
+                .collect(Collectors.toMap(PublicTrainingDTO::id, training -> serialize(training, builtAt), (a, b) -> a));
+
+        return new PublishedCatalog(
+                publicTrainings,
+                Map.copyOf(byId),
+                serialize(publicTrainings, builtAt),
+                Map.copyOf(detailBodies),
+                builtAt
+        );
+    }
+
+    private SerializedBody serialize(Object body, Instant lastModified) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                gzip.write(json);
+            }
+
+            // ETag forte derivado do conteúdo: muda sempre que o catálogo muda (status, dados ou setores)
+            // e é o mesmo em todas as instâncias da API.
+            String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json), 0, 16);
+            return new SerializedBody(json, buffer.toByteArray(), "\"" + hash + "\"", "\"" + hash + "-gzip\"", lastModified);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar o catálogo publicado.", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível na JVM.", e);
+        }
+    }
+
+    static PublicTrainingDTO toPublicDTO(Training training, Map<UUID, String> sectorNamesById) {
+        List<SimpleSectorDTO> sectorDTOs = training.getSectorAssignments().stream()
+                .map(assignment -> new SimpleSectorDTO(
+                        assignment.getSectorId(),
+                        sectorNamesById.getOrDefault(assignment.getSectorId(), "Nome não encontrado")
+                ))
+                .toList();
+        return new PublicTrainingDTO(
+                training.getId(),
+                training.getTitle(),
+                training.getAuthor(),
+                training.getDescription(),
+                training.getCoverImageUrl(),
+                training.getEntityType(),
+                sectorDTOs
+        );
+    }
+
+    /**
+     * @param trainings    lista imutável, na ordem do catálogo.
+     * @param byId         índice imutável por ID do treinamento.
+     * @param listBody     resposta de GET /public/catalog já serializada.
+     * @param detailBodies respostas de GET /public/catalog/{id} já serializadas.
+     * @param builtAt      momento em que a fotografia foi montada.
+     */
+    public record PublishedCatalog(
+            List<PublicTrainingDTO> trainings,
+            Map<UUID, PublicTrainingDTO> byId,
+            SerializedBody listBody,
+            Map<UUID, SerializedBody> detailBodies,
+            Instant builtAt
+    ) {
+    }
+
+    /**
+     * Corpo de resposta pronto para envio, em JSON puro e em gzip.
+     * Os arrays não devem ser alterados por quem os recebe.
+     */
+    public record SerializedBody(
+            byte[] json,
+            byte[] gzip,
+            String etag,
+            String gzipEtag,
+            Instant lastModified
+    ) {
+    }
+}
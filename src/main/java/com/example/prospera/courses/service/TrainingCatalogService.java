@@ -3,30 +3,30 @@ package com.example.prospera.courses.service;
 import com.example.prospera.auth.domain.AuthUser;
 import com.example.prospera.common.enums.UserRole;
 import com.example.prospera.courses.domain.Enrollment;
-import com.example.prospera.courses.domain.Lesson;
-import com.example.prospera.courses.domain.Module;
 import com.example.prospera.courses.domain.Training;
 import com.example.prospera.courses.domain.TrainingSectorAssignment;
 import com.example.prospera.courses.domain.enums.EnrollmentStatus;
 import com.example.prospera.courses.domain.enums.PublicationStatus;
 import com.example.prospera.courses.domain.enums.TrainingEntityType;
 import com.example.prospera.courses.domain.enums.TrainingType;
+import com.example.prospera.courses.dto.CourseStructure;
 import com.example.prospera.courses.dto.LessonDTO;
 import com.example.prospera.courses.dto.ModuleDTO;
+import com.example.prospera.courses.dto.ProgressSnapshot;
 import com.example.prospera.courses.dto.PublicTrainingDTO;
-import com.example.prospera.courses.dto.SimpleSectorDTO;
 import com.example.prospera.courses.dto.TrainingCatalogItemDTO;
+import com.example.prospera.courses.dto.TrainingEnrollmentStatusDTO;
 import com.example.prospera.courses.dto.TrainingSummaryDTO;
 import com.example.prospera.courses.repositories.EnrollmentRepository;
-import com.example.prospera.courses.repositories.ModuleRepository;
 import com.example.prospera.courses.repositories.TrainingRepository;
 import com.example.prospera.courses.repositories.TrainingSectorAssignmentRepository;
 import com.example.prospera.enterprise.domain.UserSector;
 import com.example.prospera.enterprise.dto.SectorDTO;
 import com.example.prospera.enterprise.repositories.SectorRepository;
 import com.example.prospera.enterprise.repositories.UserSectorRepository;
-import com.example.prospera.enterprise.service.SectorService;
 import com.example.prospera.subscription.enums.AccessType;
+import com.example.prospera.subscription.enums.TrainingAccessPath;
+import com.example.prospera.subscription.service.EntitlementService;
 import com.example.prospera.subscription.service.SubscriptionService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -34,7 +34,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -52,35 +51,41 @@ public class TrainingCatalogService {
     private final EnrollmentRepository enrollmentRepository;
     private final UserSectorRepository userSectorRepository;
     private final SectorRepository sectorRepository;
-    private final SectorService sectorService;
-    private final LessonService lessonService;
-    private final ModuleRepository moduleRepository;
+    private final ProgressSnapshotService progressSnapshotService;
+    private final CourseStructureCache courseStructureCache;
     private final SubscriptionService subscriptionService;
+    private final EntitlementService entitlementService;
+    private final PublishedCatalogCache publishedCatalogCache;
 
     @Transactional(readOnly = true)
     public List<TrainingCatalogItemDTO> getCatalogForUser(AuthUser user) {
-        // 1. Verifica qual o tipo de acesso do usuário
-        var accessStatus = subscriptionService.getAccessStatusForUser(user);
+        // 1. Verifica qual o tipo de acesso do usuário (índice de acesso em memória)
+        var accessType = entitlementService.getEntitlements(user.getId()).accessType();
 
         // LÓGICA B2C: ASSINATURA PESSOAL (Ver o catálogo público inteiro)
-        if (accessStatus.accessType() == AccessType.PERSONAL_SUBSCRIPTION) {
-            // Busca todos os treinamentos publicados no sistema
-            List<Training> allPublishedTrainings = trainingRepository.findByStatus(PublicationStatus.PUBLISHED);
+        if (accessType == AccessType.PERSONAL_SUBSCRIPTION) {
+            // Catálogo publicado compartilhado entre todos os usuários (sem consulta por requisição)
+            List<PublicTrainingDTO> allPublishedTrainings = publishedCatalogCache.get().trainings();
 
-            // Busca as matrículas desse usuário para saber se ele já começou algum
-            Map<UUID, Enrollment> enrollmentsByTrainingId = enrollmentRepository
-                    .findByUserWithTrainingDetails(user).stream()
-                    .collect(Collectors.toMap(e -> e.getTraining().getId(), Function.identity()));
+            // Mescla apenas o status das matrículas desse usuário, em uma consulta enxuta
+            Map<UUID, EnrollmentStatus> statusByTrainingId = enrollmentRepository
+                    .findEnrollmentStatusesByUserId(user.getId()).stream()
+                    .collect(Collectors.toMap(TrainingEnrollmentStatusDTO::trainingId, TrainingEnrollmentStatusDTO::status));
 
             return allPublishedTrainings.stream().map(training -> {
-                Enrollment enrollment = enrollmentsByTrainingId.get(training.getId());
-                EnrollmentStatus status = (enrollment != null) ? enrollment.getStatus() : EnrollmentStatus.NOT_ENROLLED;
+                EnrollmentStatus status = statusByTrainingId.getOrDefault(training.id(), EnrollmentStatus.NOT_ENROLLED);
+
+                // Com assinatura pessoal o catálogo inteiro está liberado
+                TrainingAccessPath accessPath = statusByTrainingId.containsKey(training.id())
+                        ? TrainingAccessPath.ENROLLMENT
+                        : TrainingAccessPath.PERSONAL_SUBSCRIPTION;
 
                 // Cursos para B2C são sempre eletivos (opcionais), o usuário faz se quiser
                 return new TrainingCatalogItemDTO(
-                        training.getId(), training.getTitle(), training.getDescription(),
-                        training.getAuthor(), training.getEntityType().name(),
-                        TrainingType.ELECTIVE, status, training.getCoverImageUrl()
+                        training.id(), training.title(), training.description(),
+                        training.author(), training.entityType().name(),
+                        TrainingType.ELECTIVE, status, training.coverImageUrl(),
+                        accessPath
                 );
             }).collect(Collectors.toList());
         }
@@ -98,6 +103,7 @@ public class TrainingCatalogService {
 
         Map<UUID, Training> trainingsById = trainingRepository.findAllById(relevantTrainingIds).stream().collect(Collectors.toMap(Training::getId, Function.identity()));
         Map<UUID, Enrollment> enrollmentsByTrainingId = enrollmentRepository.findByUserIdAndTrainingIdIn(user.getId(), relevantTrainingIds).stream().collect(Collectors.toMap(enrollment -> enrollment.getTraining().getId(), Function.identity()));
+        Map<UUID, TrainingAccessPath> accessByTrainingId = subscriptionService.findAccessibleTrainings(user.getId(), relevantTrainingIds);
 
         return relevantTrainingIds.stream().map(trainingsById::get).filter(Objects::nonNull).map(training -> {
             List<TrainingSectorAssignment> trainingAssignments = assignmentsByTrainingId.get(training.getId());
@@ -111,7 +117,8 @@ public class TrainingCatalogService {
                     training.getAuthor(),
                     training.getEntityType().name(),
                     consolidatedType, enrollmentStatus,
-                    training.getCoverImageUrl());
+                    training.getCoverImageUrl(),
+                    accessByTrainingId.get(training.getId()));
         }).collect(Collectors.toList());
     }
 
@@ -124,39 +131,34 @@ public class TrainingCatalogService {
         return trainings.stream().map(TrainingSummaryDTO::fromEntity).collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
     public List<PublicTrainingDTO> findAllPublishedForPublic() {
-        List<Training> trainings = trainingRepository.findByStatus(PublicationStatus.PUBLISHED);
-        if (trainings.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        Set<UUID> allSectorIds = trainings.stream()
-                .flatMap(training -> training.getSectorAssignments().stream())
-                .map(TrainingSectorAssignment::getSectorId)
-                .collect(Collectors.toSet());
-
-        Map<UUID, String> sectorNamesById = sectorService.findSectorsByIds(allSectorIds).stream()
-                .collect(Collectors.toMap(SectorDTO::id, SectorDTO::name));
-
-        return trainings.stream()
-                .map(training -> buildPublicTrainingDTO(training, sectorNamesById))
-                .collect(Collectors.toList());
+        return publishedCatalogCache.get().trainings();
     }
 
-    @Transactional(readOnly = true)
     public PublicTrainingDTO findPublishedByIdForPublic(UUID trainingId) {
-        Training training = trainingRepository.findByIdAndStatus(trainingId, PublicationStatus.PUBLISHED)
-                .orElseThrow(() -> new EntityNotFoundException("Treinamento não encontrado ou não está publicado."));
-
-        Set<UUID> sectorIds = training.getSectorAssignments().stream()
-                .map(TrainingSectorAssignment::getSectorId)
-                .collect(Collectors.toSet());
+        PublicTrainingDTO training = publishedCatalogCache.get().byId().get(trainingId);
+        if (training == null) {
+            throw new EntityNotFoundException("Treinamento não encontrado ou não está publicado.");
+        }
+        return training;
+    }
 
-        Map<UUID, String> sectorNamesById = sectorService.findSectorsByIds(sectorIds).stream()
-                .collect(Collectors.toMap(SectorDTO::id, SectorDTO::name));
+    /**
+     * Resposta de {@link #findAllPublishedForPublic()} já serializada (JSON e gzip), com ETag.
+     */
+    public PublishedCatalogCache.SerializedBody getPublishedCatalogBody() {
+        return publishedCatalogCache.get().listBody();
+    }
 
-        return buildPublicTrainingDTO(training, sectorNamesById);
+    /**
+     * Resposta de {@link #findPublishedByIdForPublic(UUID)} já serializada (JSON e gzip), com ETag.
+     */
+    public PublishedCatalogCache.SerializedBody getPublishedTrainingBody(UUID trainingId) {
+        PublishedCatalogCache.SerializedBody body = publishedCatalogCache.get().detailBodies().get(trainingId);
+        if (body == null) {
+            throw new EntityNotFoundException("Treinamento não encontrado ou não está publicado.");
+        }
+        return body;
     }
 
     @Transactional(readOnly = true)
@@ -172,44 +174,32 @@ public class TrainingCatalogService {
     public List<ModuleDTO> findModulesForStudent(AuthUser user, UUID trainingId) {
 
         // 1. Verificação de Segurança (Com Bypass para Admin)
+        // Para simplificar: Admin sempre vê como "não concluído", pois ele está apenas auditando.
+        Enrollment enrollment = null;
         if (user.getRole() != UserRole.SYSTEM_ADMIN) {
-            boolean isEnrolled = enrollmentRepository.existsByUserIdAndTrainingId(user.getId(), trainingId);
-
-            if (!isEnrolled) {
-                // Se não é admin e não está matriculado, bloqueia.
-                throw new org.springframework.security.access.AccessDeniedException("Você não está matriculado neste treinamento.");
-            }
+            enrollment = enrollmentRepository.findByUserIdAndTrainingId(user.getId(), trainingId)
+                    // Se não é admin e não está matriculado, bloqueia.
+                    .orElseThrow(() -> new org.springframework.security.access.AccessDeniedException("Você não está matriculado neste treinamento."));
         }
 
-        // 2. Buscar os módulos do treinamento
-        List<Module> modules = moduleRepository.findAllByCourse_IdOrderByModuleOrder(trainingId);
+        // 2. Estrutura de módulos e aulas do treinamento (em cache, já ordenada)
+        CourseStructure structure = courseStructureCache.get(trainingId);
+
+        // LÓGICA DE PROGRESSO: aulas concluídas carregadas uma única vez para o curso inteiro
+        ProgressSnapshot progress = enrollment == null
+                ? ProgressSnapshot.empty()
+                : progressSnapshotService.forEnrollment(enrollment.getId(), structure);
 
         // 3. Converter para DTOs
-        return modules.stream()
-                .map(module -> {
-                    List<LessonDTO> lessonDTOs = module.getLessons().stream()
-                            .sorted(Comparator.comparingInt(Lesson::getLessonOrder))
-                            .map(lesson -> {
-                                boolean isCompleted = false;
-
-                                // LÓGICA DE PROGRESSO:
-                                // Só verificamos o progresso se NÃO for Admin (ou se o Admin tiver matrícula opcionalmente).
-                                // Para simplificar: Admin sempre vê como "não concluído" (ou false), pois ele está apenas auditando.
-                                if (user.getRole() != UserRole.SYSTEM_ADMIN) {
-                                    isCompleted = lessonService.isLessonCompleted(lesson.getId(), user.getId());
-                                }
-
-                                return LessonDTO.fromEntity(lesson, isCompleted);
-                            })
-                            .toList();
-
-                    return new ModuleDTO(
-                            module.getId(),
-                            module.getTitle(),
-                            module.getModuleOrder(),
-                            lessonDTOs
-                    );
-                })
+        return structure.modules().stream()
+                .map(module -> new ModuleDTO(
+                        module.id(),
+                        module.title(),
+                        module.order(),
+                        module.lessons().stream()
+                                .map(lesson -> LessonDTO.fromNode(lesson, progress.isCompleted(lesson.id())))
+                                .toList()
+                ))
                 .toList();
     }
 
@@ -224,8 +214,7 @@ public class TrainingCatalogService {
 
         } else if (training.getEntityType() == TrainingEntityType.RECORDED_COURSE) {
             // Regra: Vídeo soma a duração das aulas
-            // (Supondo que você buscou os módulos e aulas do banco)
-            totalMinutes = moduleRepository.calculateTotalDurationByTrainingId(training.getId());
+            totalMinutes = courseStructureCache.get(training.getId()).totalMinutes();
         }
 
         // --- LÓGICA DE APRESENTAÇÃO ---
@@ -248,22 +237,4 @@ public class TrainingCatalogService {
     */
     }
 
-    private PublicTrainingDTO buildPublicTrainingDTO(Training training, Map<UUID, String> sectorNamesById) {
-        List<SimpleSectorDTO> sectorDTOs = training.getSectorAssignments().stream()
-                .map(assignment -> new SimpleSectorDTO(
-                        assignment.getSectorId(),
-                        sectorNamesById.getOrDefault(assignment.getSectorId(), "Nome não encontrado")
-                ))
-                .toList();
-        return new PublicTrainingDTO(
-                training.getId(),
-                training.getTitle(),
-                training.getAuthor(),
-                training.getDescription(),
-                training.getCoverImageUrl(),
-                training.getEntityType(),
-                sectorDTOs
-        );
-    }
-
-}
\ No newline at end of file
+}
@@ -1,19 +1,26 @@
 package com.example.prospera.enterprise.controllers;
 
 import com.example.prospera.auth.domain.AuthUser;
+import com.example.prospera.courses.domain.enums.BulkJobStatus;
+import com.example.prospera.courses.domain.enums.TrainingType;
+import com.example.prospera.courses.dto.BulkEnrollmentJobDTO;
 import com.example.prospera.courses.dto.TrainingSummaryDTO;
 import com.example.prospera.courses.service.AdminTrainingService;
+import com.example.prospera.courses.service.BulkEnrollmentService;
 import com.example.prospera.courses.service.EnrollmentService;
-import com.example.prospera.enterprise.domain.Organization;
 import com.example.prospera.enterprise.dto.MassEnrollmentRequest;
+import com.example.prospera.enterprise.dto.MemberTrainingProgressDTO;
 import com.example.prospera.enterprise.dto.MemberResponseDTO;
 import com.example.prospera.enterprise.dto.SectorDTO;
 import com.example.prospera.enterprise.dto.SectorIdRequest;
-import com.example.prospera.enterprise.repositories.OrganizationRepository;
+import com.example.prospera.enterprise.service.OrganizationReportService;
+import com.example.prospera.exceptions.ResourceNotFoundException;
 import com.example.prospera.enterprise.service.SectorAssignmentService;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -25,8 +32,13 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
 
@@ -37,6 +49,7 @@ import java.util.UUID;
  * - Gerenciar setores da organização
  * - Consultar treinamentos disponíveis
  * - Visualizar membros matriculados
+ * - Consultar e exportar o relatório de progresso dos membros
  */
 @RestController
 @RequestMapping("/organizations/{orgId}")
@@ -46,21 +59,23 @@ public class OrganizationAdminController {
 
     private final EnrollmentService enrollmentService;
     private final SectorAssignmentService sectorAssignmentService;
-    private final OrganizationRepository organizationRepository;
+    private final BulkEnrollmentService bulkEnrollmentService;
     private final AdminTrainingService adminTrainingService;
+    private final OrganizationReportService organizationReportService;
 
     /**
      * Realiza a matrícula em massa de vários membros da organização em um treinamento específico.
+     * Lotes grandes são processados em segundo plano.
      *
      * @param orgAdmin Administrador realizando a operação
      * @param orgId    ID da organização
      * @param dto      Dados contendo o ID do treinamento e lista de IDs dos usuários
-     * @return 201 Created em caso de sucesso
-     * @throws AccessDeniedException   se o admin não pertencer à organização
-     * @throws EntityNotFoundException se a organização não for encontrada
+     * @return 201 Created com as contagens de criadas/ignoradas, ou 202 Accepted com o lote a acompanhar
+     * @throws AccessDeniedException   se o admin não pertencer à organização ou algum usuário não for membro
+     * @throws EntityNotFoundException se o treinamento não for encontrado
      */
     @PostMapping("/enrollments")
-    public ResponseEntity<Void> enrollMembers(
+    public ResponseEntity<BulkEnrollmentJobDTO> enrollMembers(
             @AuthenticationPrincipal AuthUser orgAdmin,
             @PathVariable UUID orgId,
             @RequestBody @Valid MassEnrollmentRequest dto) {
@@ -69,11 +84,38 @@ public class OrganizationAdminController {
         // FIX: Validação de segurança corrigida para usar a lógica de 'memberships'
         checkAdminPermissionForOrganization(orgAdmin, orgId);
 
-        Organization organization = organizationRepository.findById(orgId)
-                .orElseThrow(() -> new EntityNotFoundException("Organização não encontrada."));
+        BulkEnrollmentJobDTO result = bulkEnrollmentService.enroll(orgId, dto.trainingId(), dto.userIds());
+        if (result.status() == BulkJobStatus.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        }
 
-        enrollmentService.enrollMembersInTraining(dto.trainingId(), dto.userIds(), organization);
-        return ResponseEntity.status(HttpStatus.CREATED).build();
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/jobs/{jobId}")
+                .buildAndExpand(result.jobId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(result);
+    }
+
+    /**
+     * Acompanha uma matrícula em lote processada em segundo plano.
+     *
+     * @param orgAdmin Administrador realizando a consulta
+     * @param orgId    ID da organização
+     * @param jobId    ID retornado pelo POST /enrollments
+     * @return Situação e contagens do lote
+     * @throws ResourceNotFoundException se o lote não existir (ou já tiver expirado)
+     */
+    @GetMapping("/enrollments/jobs/{jobId}")
+    public ResponseEntity<BulkEnrollmentJobDTO> getEnrollmentJob(
+            @AuthenticationPrincipal AuthUser orgAdmin,
+            @PathVariable UUID orgId,
+            @PathVariable UUID jobId) {
+
+        checkAdminPermissionForOrganization(orgAdmin, orgId);
+
+        return bulkEnrollmentService.findJob(orgId, jobId)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResourceNotFoundException("Matrícula em lote não encontrada: " + jobId));
     }
 
     /**
@@ -172,6 +214,55 @@ public class OrganizationAdminController {
         return ResponseEntity.ok(enrolledMembers);
     }
 
+    /**
+     * Relatório de progresso da organização: uma linha por membro e treinamento matriculado.
+     *
+     * @param orgAdmin     Administrador realizando a consulta
+     * @param orgId        ID da organização
+     * @param sectorId     Filtra os membros de um setor (opcional)
+     * @param trainingType Filtra treinamentos obrigatórios ou eletivos nos setores do membro (opcional)
+     * @return Lista com o progresso de cada membro em cada treinamento
+     * @throws AccessDeniedException se o admin não pertencer à organização
+     */
+    @GetMapping("/reports/progress")
+    public ResponseEntity<List<MemberTrainingProgressDTO>> getProgressReport(
+            @AuthenticationPrincipal AuthUser orgAdmin,
+            @PathVariable UUID orgId,
+            @RequestParam(required = false) UUID sectorId,
+            @RequestParam(required = false) TrainingType trainingType) {
+
+        checkAdminPermissionForOrganization(orgAdmin, orgId);
+
+        return ResponseEntity.ok(organizationReportService.getProgressReport(orgId, sectorId, trainingType));
+    }
+
+    /**
+     * Exporta o relatório de progresso em CSV. As linhas são escritas na resposta à medida
+     * que são lidas do banco, o que permite exportar organizações com milhares de membros.
+     *
+     * @param orgAdmin     Administrador realizando a exportação
+     * @param orgId        ID da organização
+     * @param sectorId     Filtra os membros de um setor (opcional)
+     * @param trainingType Filtra treinamentos obrigatórios ou eletivos (opcional)
+     * @throws AccessDeniedException se o admin não pertencer à organização
+     */
+    @GetMapping("/reports/progress/export")
+    public void exportProgressReport(
+            @AuthenticationPrincipal AuthUser orgAdmin,
+            @PathVariable UUID orgId,
+            @RequestParam(required = false) UUID sectorId,
+            @RequestParam(required = false) TrainingType trainingType,
+            HttpServletResponse response) throws IOException {
+
+        checkAdminPermissionForOrganization(orgAdmin, orgId);
+
+        response.setContentType("text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"progresso-" + orgId + ".csv\"");
+
+        organizationReportService.exportProgressReportCsv(orgId, sectorId, trainingType, response.getWriter());
+    }
+
     /**
      * Remove um setor específico da organização, deixando de "adotá-lo".
      *
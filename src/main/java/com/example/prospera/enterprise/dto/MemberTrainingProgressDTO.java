@@ -0,0 +1,25 @@
+package com.example.prospera.enterprise.dto;
+
+import com.example.prospera.courses.domain.enums.EnrollmentStatus;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Célula do relatório de progresso da organização: o progresso de um membro em um treinamento.
+ */
+public record MemberTrainingProgressDTO(
+        UUID membershipId,
+        UUID userId,
+        String userEmail,
+        String fullName, // Nome do perfil, ou o e-mail se não houver perfil
+        UUID trainingId,
+        String trainingTitle,
+        EnrollmentStatus status,
+        OffsetDateTime enrolledAt,
+        OffsetDateTime completedAt,
+        BigDecimal progressPercentage,
+        String certificateValidationCode // null se não houver certificado
+) {
+}
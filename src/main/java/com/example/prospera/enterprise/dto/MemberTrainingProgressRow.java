@@ -0,0 +1,29 @@
+package com.example.prospera.enterprise.dto;
+
+import com.example.prospera.courses.domain.enums.EnrollmentStatus;
+import com.example.prospera.courses.domain.enums.TrainingEntityType;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Linha bruta do relatório de progresso da organização (membro × treinamento),
+ * carregada por {@code MembershipRepository.PROGRESS_REPORT_QUERY}.
+ */
+public record MemberTrainingProgressRow(
+        UUID membershipId,
+        UUID userId,
+        String userEmail,
+        String fullName,
+        UUID trainingId,
+        String trainingTitle,
+        TrainingEntityType entityType,
+        EnrollmentStatus status,
+        OffsetDateTime enrolledAt,
+        OffsetDateTime completedAt,
+        int completedLessons,
+        Integer lastPageRead,
+        Integer totalPages,
+        String certificateValidationCode
+) {
+}
@@ -2,20 +2,84 @@ package com.example.prospera.enterprise.repositories;
 
 import com.example.prospera.auth.domain.AuthUser;
 import com.example.prospera.common.enums.OrganizationRole;
+import com.example.prospera.courses.domain.enums.TrainingEntityType;
+import com.example.prospera.courses.domain.enums.TrainingType;
 import com.example.prospera.enterprise.domain.Membership;
 import com.example.prospera.enterprise.domain.Organization;
+import com.example.prospera.enterprise.dto.MemberTrainingProgressRow;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface MembershipRepository extends JpaRepository<Membership, UUID> {
 
+    /**
+     * Relatório de progresso da organização: uma linha por (membro, treinamento matriculado).
+     * Filtros opcionais: setor do membro e tipo do treinamento (obrigatório/eletivo) nos setores do membro.
+     * Ordenado por membro (nome, ou e-mail sem perfil pessoal) e título do treinamento.
+     */
+    String PROGRESS_REPORT_QUERY = """
+               SELECT new com.example.prospera.enterprise.dto.MemberTrainingProgressRow(
+                   m.id, u.id, u.email, p.fullName,
+                   t.id, t.title, t.entityType, e.status, e.enrolledAt, e.completedAt,
+                   e.completedLessons, ep.lastPageRead,
+                   (SELECT eb.totalPages FROM EbookTraining eb WHERE eb.id = t.id),
+                   c.validationCode)
+               FROM Membership m
+               JOIN m.user u
+               LEFT JOIN u.personalProfile p
+               JOIN Enrollment e ON e.user.id = u.id
+               JOIN e.training t
+               LEFT JOIN EbookProgress ep ON ep.training.id = t.id AND ep.userId = u.id
+               LEFT JOIN Certificate c ON c.enrollment.id = e.id
+                   AND c.status = com.example.prospera.certificate.domain.enums.CertificateStatus.READY
+               WHERE m.organization.id = :organizationId
+               AND (:sectorId IS NULL OR EXISTS (
+                   SELECT 1 FROM UserSector us
+                   WHERE us.userId = u.id AND us.sectorId = :sectorId))
+               AND (:trainingType IS NULL OR EXISTS (
+                   SELECT 1 FROM TrainingSectorAssignment tsa, UserSector ts
+                   WHERE tsa.trainingId = t.id AND tsa.trainingType = :trainingType
+                   AND ts.userId = u.id AND ts.sectorId = tsa.sectorId
+                   AND (:sectorId IS NULL OR tsa.sectorId = :sectorId)))
+               ORDER BY COALESCE(p.fullName, u.email), u.email, t.title
+            """;
+
+    @Query(PROGRESS_REPORT_QUERY)
+    List<MemberTrainingProgressRow> findProgressReport(@Param("organizationId") UUID organizationId,
+                                                       @Param("sectorId") UUID sectorId,
+                                                       @Param("trainingType") TrainingType trainingType);
+
+    /**
+     * Mesmo relatório, lido por cursor (somente avanço) para exportação: com fetch size
+     * {@code Integer.MIN_VALUE} o driver do MySQL entrega as linhas uma a uma, sem carregar tudo na memória.
+     * Deve ser consumido dentro de uma transação e fechado ao final.
+     */
+    @Query(PROGRESS_REPORT_QUERY)
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    Stream<MemberTrainingProgressRow> streamProgressReport(@Param("organizationId") UUID organizationId,
+                                                           @Param("sectorId") UUID sectorId,
+                                                           @Param("trainingType") TrainingType trainingType);
+
+    // Treinamentos do tipo informado em que algum membro da organização está matriculado
+    @Query("SELECT DISTINCT e.training.id FROM Membership m JOIN Enrollment e ON e.user.id = m.user.id " +
+            "WHERE m.organization.id = :organizationId AND e.training.entityType = :entityType")
+    List<UUID> findEnrolledTrainingIdsByOrganizationId(@Param("organizationId") UUID organizationId,
+                                                       @Param("entityType") TrainingEntityType entityType);
+
     // O método findByOrganization foi substituído pelo método otimizado abaixo
 
     /**
@@ -39,6 +103,10 @@ public interface MembershipRepository extends JpaRepository<Membership, UUID> {
 
     Optional<Membership> findByUserId(UUID userId);
 
+    // Quais dos usuários informados são membros da organização (uma consulta para o lote inteiro)
+    @Query("SELECT m.user.id FROM Membership m WHERE m.organization.id = :organizationId AND m.user.id IN :userIds")
+    Set<UUID> findMemberUserIds(@Param("organizationId") UUID organizationId, @Param("userIds") List<UUID> userIds);
+
     /**
      * Busca uma afiliação pelo ID e já carrega (JOIN FETCH) os dados do usuário,
      * o perfil pessoal do usuário e o admin que o adicionou, tudo em uma única consulta.
@@ -2,7 +2,9 @@ package com.example.prospera.enterprise.service;
 
 import com.example.prospera.auth.domain.AuthUser;
 import com.example.prospera.auth.repositories.AuthUserRepository;
+import com.example.prospera.auth.services.UserSecurityVersionService;
 import com.example.prospera.common.enums.OrganizationRole;
+import com.example.prospera.common.events.EntitlementsChangedEvent;
 import com.example.prospera.common.service.AuthorizationService;
 import com.example.prospera.courses.dto.EnrollmentResponseDTO;
 import com.example.prospera.courses.service.EnrollmentService;
@@ -18,6 +20,7 @@ import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -35,6 +38,8 @@ public class MembershipService {
     private final UserSectorRepository userSectorRepository;
     private final AuthorizationService authorizationService;
     private final EnrollmentService enrollmentService;
+    private final UserSecurityVersionService securityVersionService;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     private static final Logger log = LoggerFactory.getLogger(MembershipService.class);
@@ -61,6 +66,11 @@ public class MembershipService {
                 .role(dto.role())
                 .addedBy(adminUser) // O adminUser do controllers já é a entidade correta
                 .build();
+
+        // As afiliações fazem parte do token: os tokens antigos do usuário deixam de valer.
+        userToAdd.bumpSecurityVersion();
+        securityVersionService.invalidate(userToAdd.getId());
+        eventPublisher.publishEvent(EntitlementsChangedEvent.forUser(userToAdd.getId()));
         return membershipRepository.save(newMembership);
     }
 
@@ -91,6 +101,9 @@ public class MembershipService {
         }
 
         log.info("Validações passaram. Deletando afiliação {}", membershipToRemove.getId());
+        membershipToRemove.getUser().bumpSecurityVersion();
+        securityVersionService.invalidate(membershipToRemove.getUser().getId());
+        eventPublisher.publishEvent(EntitlementsChangedEvent.forUser(membershipToRemove.getUser().getId()));
         membershipRepository.delete(membershipToRemove);
         log.info("Afiliação {} removida com sucesso.", membershipToRemove.getId());
     }
@@ -106,6 +119,11 @@ public class MembershipService {
             throw new IllegalStateException("Você не pode remover seu próprio acesso de administrador pois é o último da organização.");
         }
 
+        if (membershipToUpdate.getRole() != newRole) {
+            membershipToUpdate.getUser().bumpSecurityVersion();
+            securityVersionService.invalidate(membershipToUpdate.getUser().getId());
+        }
+
         membershipToUpdate.setRole(newRole);
         return membershipRepository.save(membershipToUpdate);
     }
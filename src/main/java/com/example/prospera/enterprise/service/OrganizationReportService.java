@@ -0,0 +1,108 @@
+package com.example.prospera.enterprise.service;
+
+import com.example.prospera.common.csv.CsvWriter;
+import com.example.prospera.courses.domain.enums.TrainingEntityType;
+import com.example.prospera.courses.domain.enums.TrainingType;
+import com.example.prospera.courses.service.CourseStructureCache;
+import com.example.prospera.courses.service.ProgressService;
+import com.example.prospera.enterprise.dto.MemberTrainingProgressDTO;
+import com.example.prospera.enterprise.dto.MemberTrainingProgressRow;
+import com.example.prospera.enterprise.repositories.MembershipRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Relatórios da organização para o ORG_ADMIN.
+ * <p>
+ * O relatório de progresso (membros × treinamentos) é montado com uma única consulta agregada;
+ * a exportação em CSV percorre o resultado por cursor e escreve linha a linha na resposta,
+ * sem carregar o relatório inteiro na memória.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrganizationReportService {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private final MembershipRepository membershipRepository;
+    private final ProgressService progressService;
+    private final CourseStructureCache courseStructureCache;
+
+    @Transactional(readOnly = true)
+    public List<MemberTrainingProgressDTO> getProgressReport(UUID organizationId, UUID sectorId, TrainingType trainingType) {
+        Map<UUID, Integer> lessonTotals = loadLessonTotals(organizationId);
+        return membershipRepository.findProgressReport(organizationId, sectorId, trainingType).stream()
+                .map(row -> toDTO(row, lessonTotals))
+                .toList();
+    }
+
+    /**
+     * Escreve o relatório de progresso em CSV no {@code writer}, linha a linha.
+     */
+    @Transactional(readOnly = true)
+    public void exportProgressReportCsv(UUID organizationId, UUID sectorId, TrainingType trainingType, Writer writer) throws IOException {
+        // Os totais de aulas são resolvidos antes de abrir o cursor: com o resultado em streaming,
+        // a conexão não pode executar outras consultas até o fim da leitura.
+        Map<UUID, Integer> lessonTotals = loadLessonTotals(organizationId);
+
+        CsvWriter csv = new CsvWriter(writer);
+        csv.writeRow("Membro", "E-mail", "Treinamento", "Status", "Progresso (%)",
+                "Matriculado em", "Concluído em", "Código do certificado");
+
+        try (Stream<MemberTrainingProgressRow> rows = membershipRepository.streamProgressReport(organizationId, sectorId, trainingType)) {
+            Iterator<MemberTrainingProgressRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                MemberTrainingProgressDTO dto = toDTO(iterator.next(), lessonTotals);
+                csv.writeRow(
+                        dto.fullName(),
+                        dto.userEmail(),
+                        dto.trainingTitle(),
+                        dto.status() != null ? dto.status().name() : "",
+                        dto.progressPercentage().toPlainString(),
+                        dto.enrolledAt() != null ? DATE_FORMAT.format(dto.enrolledAt()) : "",
+                        dto.completedAt() != null ? DATE_FORMAT.format(dto.completedAt()) : "",
+                        dto.certificateValidationCode());
+            }
+        }
+        csv.flush();
+    }
+
+    // Só cursos gravados têm aulas; e-books e treinamentos ao vivo não passam pelo cache de estrutura.
+    private Map<UUID, Integer> loadLessonTotals(UUID organizationId) {
+        return membershipRepository.findEnrolledTrainingIdsByOrganizationId(organizationId, TrainingEntityType.RECORDED_COURSE).stream()
+                .collect(Collectors.toMap(Function.identity(), trainingId -> courseStructureCache.get(trainingId).lessonCount()));
+    }
+
+    private MemberTrainingProgressDTO toDTO(MemberTrainingProgressRow row, Map<UUID, Integer> lessonTotals) {
+        long totalLessons = row.entityType() == TrainingEntityType.RECORDED_COURSE
+                ? lessonTotals.getOrDefault(row.trainingId(), 0)
+                : 0;
+
+        return new MemberTrainingProgressDTO(
+                row.membershipId(),
+                row.userId(),
+                row.userEmail(),
+                row.fullName() != null ? row.fullName() : row.userEmail(),
+                row.trainingId(),
+                row.trainingTitle(),
+                row.status(),
+                row.enrolledAt(),
+                row.completedAt(),
+                progressService.calculateProgress(row.entityType(), row.trainingId(), row.userId(),
+                        row.completedLessons(), totalLessons, row.lastPageRead(), row.totalPages()),
+                row.certificateValidationCode()
+        );
+    }
+}
@@ -2,6 +2,7 @@ package com.example.prospera.enterprise.service;
 
 import com.example.prospera.auth.domain.AuthUser;
 import com.example.prospera.auth.repositories.AuthUserRepository;
+import com.example.prospera.auth.services.UserSecurityVersionService;
 import com.example.prospera.common.enums.OrganizationRole;
 import com.example.prospera.common.service.AuthorizationService;
 import com.example.prospera.common.validation.CnpjValidationService;
@@ -35,6 +36,7 @@ public class OrganizationService {
     private final SubscriptionRepository subscriptionRepository;
     private final AccountRepository accountRepository;
     private final AuthorizationService authorizationService;
+    private final UserSecurityVersionService securityVersionService;
 
     @Transactional
     public Organization createOrganization(AuthUser adminUser, CreateOrganizationRequest dto) {
@@ -94,6 +96,10 @@ public class OrganizationService {
                 .build();
         membershipRepository.save(membership);
 
+        // As afiliações fazem parte do token: os tokens antigos do usuário deixam de valer.
+        managedUser.bumpSecurityVersion();
+        securityVersionService.invalidate(managedUser.getId());
+
         return savedOrg;
     }
 
@@ -2,6 +2,7 @@ package com.example.prospera.enterprise.service;
 
 import com.example.prospera.auth.domain.AuthUser;
 import com.example.prospera.common.enums.OrganizationRole;
+import com.example.prospera.common.events.CompulsoryTrainingsChangedEvent;
 import com.example.prospera.enterprise.domain.Membership;
 import com.example.prospera.enterprise.domain.Organization;
 import com.example.prospera.enterprise.domain.OrganizationSector;
@@ -15,6 +16,7 @@ import com.example.prospera.enterprise.repositories.SectorRepository;
 import com.example.prospera.enterprise.repositories.UserSectorRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,6 +35,7 @@ public class SectorAssignmentService {
     private final OrganizationSectorRepository organizationSectorRepository;
     private final UserSectorRepository userSectorRepository;
     private final MembershipRepository membershipRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Adiciona um setor do catálogo global a uma organização.
@@ -108,6 +111,9 @@ public class SectorAssignmentService {
         // Se todas as validações passaram, cria a associação
         UserSector userSector = new UserSector(memberUserId, sectorId, organizationId);
         userSectorRepository.save(userSector);
+
+        // Os treinamentos obrigatórios do setor são matriculados após o commit.
+        eventPublisher.publishEvent(CompulsoryTrainingsChangedEvent.forMemberSector(sectorId, memberUserId));
     }
 
     /**
@@ -0,0 +1,13 @@
+package com.example.prospera.subscription.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Treinamento liberado por uma assinatura ativa, com a data em que o acesso termina.
+ */
+public record SubscribedTrainingDTO(
+        UUID trainingId,
+        OffsetDateTime endDate
+) {
+}
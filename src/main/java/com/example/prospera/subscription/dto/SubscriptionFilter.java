@@ -0,0 +1,24 @@
+package com.example.prospera.subscription.dto;
+
+import com.example.prospera.subscription.enums.SubscriptionOrigin;
+import com.example.prospera.subscription.enums.SubscriptionStatus;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Filtros da listagem administrativa de assinaturas. Campos nulos não restringem a busca.
+ *
+ * @param startFrom início do período (inclusive) pela data de início da assinatura.
+ * @param startTo   fim do período (inclusive) pela data de início da assinatura.
+ * @param owner     trecho do nome da conta ou do e-mail do dono da conta pessoal.
+ */
+public record SubscriptionFilter(
+        SubscriptionStatus status,
+        SubscriptionOrigin origin,
+        UUID planId,
+        LocalDate startFrom,
+        LocalDate startTo,
+        String owner
+) {
+}
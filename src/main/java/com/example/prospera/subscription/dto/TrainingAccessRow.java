@@ -0,0 +1,37 @@
+package com.example.prospera.subscription.dto;
+
+import com.example.prospera.subscription.enums.TrainingAccessPath;
+
+import java.util.UUID;
+
+/**
+ * Linha da consulta em lote de acesso: os fatos de acesso de um usuário para um treinamento.
+ */
+public record TrainingAccessRow(
+        UUID trainingId,
+        boolean enrolled,
+        boolean inOrganizationPlan,
+        boolean inPersonalPlan,
+        boolean hasOrganizationSubscription,
+        boolean hasPersonalSubscription
+) {
+
+    /**
+     * Resolve o caminho de acesso com as mesmas regras de {@code hasActiveSubscriptionForTraining}:
+     * a assinatura pessoal só libera o catálogo inteiro quando não há assinatura organizacional.
+     *
+     * @return o caminho de acesso, ou {@code null} se o treinamento estiver bloqueado.
+     */
+    public TrainingAccessPath resolvePath() {
+        if (enrolled) {
+            return TrainingAccessPath.ENROLLMENT;
+        }
+        if (inOrganizationPlan) {
+            return TrainingAccessPath.ORGANIZATIONAL_SUBSCRIPTION;
+        }
+        if (inPersonalPlan || (hasPersonalSubscription && !hasOrganizationSubscription)) {
+            return TrainingAccessPath.PERSONAL_SUBSCRIPTION;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.prospera.subscription.dto;
+
+import com.example.prospera.subscription.enums.AccessType;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Fotografia imutável do que um usuário pode acessar.
+ *
+ * @param enrolledTrainingIds   treinamentos em que o usuário está matriculado (acesso sem prazo).
+ * @param accessType            tipo de acesso via assinatura, com a mesma precedência de
+ *                              {@code SubscriptionService.getAccessStatusForUser}.
+ * @param subscribedTrainingIds treinamentos liberados pelos planos das assinaturas ativas.
+ * @param validUntil            instante em que a fotografia deixa de valer (fim da assinatura mais próxima).
+ */
+public record UserEntitlements(
+        Set<UUID> enrolledTrainingIds,
+        AccessType accessType,
+        Set<UUID> subscribedTrainingIds,
+        Instant validUntil
+) {
+
+    public UserEntitlements {
+        enrolledTrainingIds = Set.copyOf(enrolledTrainingIds);
+        subscribedTrainingIds = Set.copyOf(subscribedTrainingIds);
+    }
+
+    public boolean canAccess(UUID trainingId) {
+        // REGRA B2C: assinatura pessoal dá acesso global.
+        return enrolledTrainingIds.contains(trainingId)
+                || accessType == AccessType.PERSONAL_SUBSCRIPTION
+                || subscribedTrainingIds.contains(trainingId);
+    }
+}
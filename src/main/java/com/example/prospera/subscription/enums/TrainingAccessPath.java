@@ -0,0 +1,11 @@
+package com.example.prospera.subscription.enums;
+
+/**
+ * Por qual caminho um usuário tem acesso a um treinamento específico.
+ */
+public enum TrainingAccessPath {
+
+    ENROLLMENT, //Acesso pela matrícula no treinamento
+    PERSONAL_SUBSCRIPTION, //Acesso via assinatura pessoal
+    ORGANIZATIONAL_SUBSCRIPTION //Acesso via assinatura de uma organização
+}
@@ -1,6 +1,8 @@
 package com.example.prospera.subscription.repositories;
 
 import com.example.prospera.enterprise.domain.Account;
+import com.example.prospera.subscription.dto.SubscribedTrainingDTO;
+import com.example.prospera.subscription.dto.TrainingAccessRow;
 import com.example.prospera.subscription.entities.Subscription;
 import com.example.prospera.subscription.enums.SubscriptionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,8 +10,10 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public interface SubscriptionRepository extends JpaRepository<Subscription, UUID> {
@@ -49,17 +53,89 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, UUID
             @Param("now") OffsetDateTime now
     );
 
-    /**
-     * Busca todas as assinaturas que possuem um status específico (ex: ACTIVE)
-     * MAS cuja data de término (endDate) é anterior à data informada (ex: agora).
-     * Usado para a rotina de expiração automática.
-     */
-    List<Subscription> findAllByStatusAndEndDateBefore(SubscriptionStatus status, OffsetDateTime date);
-
     /**
      * Busca assinatura ativa validando também se a data ainda é válida.
      * Isso previne retornar "sujeira" do banco caso o Job de limpeza falhe.
      */
     Optional<Subscription> findByAccountAndStatusAndEndDateAfter(Account account, SubscriptionStatus status, OffsetDateTime now);
 
-}
\ No newline at end of file
+    // --- ÍNDICE DE ACESSO (EntitlementService) ---
+
+    /**
+     * Datas de término das assinaturas ativas das contas das organizações do usuário.
+     */
+    @Query("SELECT s.endDate FROM Subscription s " +
+            "WHERE s.status = :status AND s.endDate > :now " +
+            "AND s.account.id IN (SELECT m.organization.account.id FROM Membership m WHERE m.user.id = :userId)")
+    List<OffsetDateTime> findActiveOrganizationSubscriptionEndDates(
+            @Param("userId") UUID userId,
+            @Param("status") SubscriptionStatus status,
+            @Param("now") OffsetDateTime now
+    );
+
+    /**
+     * Datas de término das assinaturas ativas da conta pessoal do usuário.
+     */
+    @Query("SELECT s.endDate FROM Subscription s " +
+            "WHERE s.status = :status AND s.endDate > :now " +
+            "AND s.account.id = (SELECT u.personalAccount.id FROM AuthUser u WHERE u.id = :userId)")
+    List<OffsetDateTime> findActivePersonalSubscriptionEndDates(
+            @Param("userId") UUID userId,
+            @Param("status") SubscriptionStatus status,
+            @Param("now") OffsetDateTime now
+    );
+
+    /**
+     * Mesmo critério de {@link #doesUserHaveActiveSubscriptionForTraining}, mas devolvendo de uma vez
+     * todos os treinamentos liberados para o usuário.
+     */
+    @Query("SELECT new com.example.prospera.subscription.dto.SubscribedTrainingDTO(t.id, s.endDate) FROM Subscription s " +
+            "JOIN s.plan p " +
+            "JOIN p.trainings t " +
+            "WHERE s.status = :status " +
+            "AND :now BETWEEN s.startDate AND s.endDate " +
+            "AND ( " +
+            "  s.account.id = (SELECT u.personalAccount.id FROM AuthUser u WHERE u.id = :userId) OR " +
+            "  s.account.id IN (SELECT m.organization.account.id FROM Membership m WHERE m.user.id = :userId) " +
+            ")")
+    List<SubscribedTrainingDTO> findActiveSubscribedTrainings(
+            @Param("userId") UUID userId,
+            @Param("status") SubscriptionStatus status,
+            @Param("now") OffsetDateTime now
+    );
+
+    /**
+     * Consulta em lote do paywall: para cada treinamento da lista, devolve em uma única ida ao banco
+     * se o usuário está matriculado, se algum plano ativo (da organização ou pessoal) o inclui e
+     * se o usuário tem alguma assinatura ativa organizacional/pessoal.
+     */
+    @Query("SELECT new com.example.prospera.subscription.dto.TrainingAccessRow(t.id, " +
+            "CASE WHEN EXISTS (SELECT e.id FROM Enrollment e WHERE e.training.id = t.id AND e.user.id = :userId) THEN true ELSE false END, " +
+            "CASE WHEN EXISTS (SELECT s1.id FROM Subscription s1 JOIN s1.plan p1 JOIN p1.trainings t1 " +
+            "   WHERE t1.id = t.id AND s1.status = :status AND :now BETWEEN s1.startDate AND s1.endDate " +
+            "   AND s1.account.id IN (SELECT m1.organization.account.id FROM Membership m1 WHERE m1.user.id = :userId)) THEN true ELSE false END, " +
+            "CASE WHEN EXISTS (SELECT s2.id FROM Subscription s2 JOIN s2.plan p2 JOIN p2.trainings t2 " +
+            "   WHERE t2.id = t.id AND s2.status = :status AND :now BETWEEN s2.startDate AND s2.endDate " +
+            "   AND s2.account.id = (SELECT u2.personalAccount.id FROM AuthUser u2 WHERE u2.id = :userId)) THEN true ELSE false END, " +
+            "CASE WHEN EXISTS (SELECT s3.id FROM Subscription s3 WHERE s3.status = :status AND s3.endDate > :now " +
+            "   AND s3.account.id IN (SELECT m3.organization.account.id FROM Membership m3 WHERE m3.user.id = :userId)) THEN true ELSE false END, " +
+            "CASE WHEN EXISTS (SELECT s4.id FROM Subscription s4 WHERE s4.status = :status AND s4.endDate > :now " +
+            "   AND s4.account.id = (SELECT u4.personalAccount.id FROM AuthUser u4 WHERE u4.id = :userId)) THEN true ELSE false END) " +
+            "FROM Training t WHERE t.id IN :trainingIds")
+    List<TrainingAccessRow> findTrainingAccessRows(
+            @Param("userId") UUID userId,
+            @Param("trainingIds") Collection<UUID> trainingIds,
+            @Param("status") SubscriptionStatus status,
+            @Param("now") OffsetDateTime now
+    );
+
+    /**
+     * Usuários com acesso pelas contas informadas: donos das contas pessoais e membros das
+     * organizações dessas contas.
+     */
+    @Query("SELECT u.id FROM AuthUser u WHERE u.personalAccount.id IN :accountIds")
+    Set<UUID> findUserIdsByPersonalAccountIds(@Param("accountIds") Collection<UUID> accountIds);
+
+    @Query("SELECT m.user.id FROM Membership m WHERE m.organization.account.id IN :accountIds")
+    Set<UUID> findMemberUserIdsByOrganizationAccountIds(@Param("accountIds") Collection<UUID> accountIds);
+}
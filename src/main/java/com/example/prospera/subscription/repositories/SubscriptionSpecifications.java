@@ -0,0 +1,99 @@
+package com.example.prospera.subscription.repositories;
+
+import com.example.prospera.auth.domain.AuthUser;
+import com.example.prospera.subscription.dto.SubscriptionFilter;
+import com.example.prospera.subscription.entities.Subscription;
+import com.example.prospera.subscription.enums.SubscriptionOrigin;
+import com.example.prospera.subscription.enums.SubscriptionStatus;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Filtros de {@link Subscription} aplicados no banco, combináveis entre si.
+ * Cada método devolve {@code null} quando o valor é nulo, o que não restringe a busca.
+ */
+public final class SubscriptionSpecifications {
+
+    private SubscriptionSpecifications() {
+    }
+
+    public static Specification<Subscription> matching(SubscriptionFilter filter) {
+        return Specification.where(hasStatus(filter.status()))
+                .and(hasOrigin(filter.origin()))
+                .and(hasPlan(filter.planId()))
+                .and(startsFrom(filter))
+                .and(startsUntil(filter))
+                .and(ownerContains(filter.owner()));
+    }
+
+    /**
+     * Posição da paginação keyset na ordem (startDate desc, id desc): apenas as assinaturas
+     * depois da última linha da página anterior.
+     */
+    public static Specification<Subscription> after(OffsetDateTime startDate, UUID id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.<OffsetDateTime>get("startDate"), startDate),
+                cb.and(cb.equal(root.get("startDate"), startDate), cb.lessThan(root.<UUID>get("id"), id))
+        );
+    }
+
+    private static Specification<Subscription> hasStatus(SubscriptionStatus status) {
+        return status == null ? null
+                : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    private static Specification<Subscription> hasOrigin(SubscriptionOrigin origin) {
+        return origin == null ? null
+                : (root, query, cb) -> cb.equal(root.get("origin"), origin);
+    }
+
+    private static Specification<Subscription> hasPlan(UUID planId) {
+        return planId == null ? null
+                : (root, query, cb) -> cb.equal(root.get("plan").get("id"), planId);
+    }
+
+    private static Specification<Subscription> startsFrom(SubscriptionFilter filter) {
+        if (filter.startFrom() == null) {
+            return null;
+        }
+        OffsetDateTime from = filter.startFrom().atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.<OffsetDateTime>get("startDate"), from);
+    }
+
+    private static Specification<Subscription> startsUntil(SubscriptionFilter filter) {
+        if (filter.startTo() == null) {
+            return null;
+        }
+        OffsetDateTime until = filter.startTo().plusDays(1).atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+        return (root, query, cb) -> cb.lessThan(root.<OffsetDateTime>get("startDate"), until);
+    }
+
+    /**
+     * Nome da conta ou e-mail do dono da conta pessoal. O e-mail é buscado por subconsulta,
+     * para não interferir nos joins de quem monta a consulta.
+     */
+    private static Specification<Subscription> ownerContains(String owner) {
+        if (owner == null || owner.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + owner.trim().toLowerCase(Locale.ROOT) + "%";
+        return (root, query, cb) -> {
+            Subquery<UUID> personalOwner = query.subquery(UUID.class);
+            Root<AuthUser> user = personalOwner.from(AuthUser.class);
+            personalOwner.select(user.<UUID>get("id"))
+                    .where(cb.equal(user.get("personalAccount"), root.get("account")),
+                            cb.like(cb.lower(user.<String>get("email")), pattern));
+
+            return cb.or(
+                    cb.like(cb.lower(root.get("account").<String>get("name")), pattern),
+                    cb.exists(personalOwner)
+            );
+        };
+    }
+}
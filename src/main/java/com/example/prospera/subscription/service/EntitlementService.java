@@ -0,0 +1,177 @@
+package com.example.prospera.subscription.service;
+
+import com.example.prospera.common.events.EntitlementsChangedEvent;
+import com.example.prospera.common.events.SubscriptionsExpiredEvent;
+import com.example.prospera.courses.repositories.EnrollmentRepository;
+import com.example.prospera.subscription.dto.SubscribedTrainingDTO;
+import com.example.prospera.subscription.dto.UserEntitlements;
+import com.example.prospera.subscription.enums.AccessType;
+import com.example.prospera.subscription.enums.SubscriptionStatus;
+import com.example.prospera.subscription.repositories.SubscriptionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Índice em memória do que cada usuário pode acessar (paywall).
+ * <p>
+ * A fotografia de cada usuário é montada sob demanda, na primeira verificação, e vale até o
+ * fim da assinatura ativa mais próxima (limitada por um TTL máximo). Mudanças de matrícula,
+ * afiliação, assinatura ou plano publicam um {@link EntitlementsChangedEvent}, que descarta
+ * as fotografias afetadas após o commit; assinaturas vencidas pelo job de expiração
+ * ({@link SubscriptionsExpiredEvent}) descartam as fotografias dos usuários das contas afetadas.
+ * <p>
+ * Uma consulta com a fotografia em cache não abre transação nem usa conexão; só a montagem roda
+ * em uma transação somente leitura.
+ */
+@Service
+@RequiredArgsConstructor
+public class EntitlementService {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final SubscriptionRepository subscriptionRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.entitlements.max-ttl-seconds:600}")
+    private long maxTtlSeconds;
+
+    // Incrementado a cada alteração: impede que uma montagem iniciada antes dela seja guardada.
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Map<UUID, UserEntitlements> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Verifica se o usuário pode acessar o treinamento, seja por matrícula ou por assinatura.
+     */
+    public boolean canAccess(UUID userId, UUID trainingId) {
+        return getEntitlements(userId).canAccess(trainingId);
+    }
+
+    /**
+     * Retorna a fotografia de acesso do usuário, montando-a se não houver uma válida em cache.
+     */
+    public UserEntitlements getEntitlements(UUID userId) {
+        Instant now = Instant.now();
+        UserEntitlements cached = cache.get(userId);
+        if (cached != null && cached.validUntil().isAfter(now)) {
+            return cached;
+        }
+
+        long startedAt = generation.get();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        UserEntitlements entitlements = readOnly.execute(status -> load(userId, now));
+
+        synchronized (this) {
+            if (generation.get() == startedAt) {
+                if (cache.size() >= MAX_ENTRIES) {
+                    cache.values().removeIf(entry -> !entry.validUntil().isAfter(now));
+                }
+                if (cache.size() < MAX_ENTRIES) {
+                    cache.put(userId, entitlements);
+                }
+            }
+        }
+        return entitlements;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEntitlementsChanged(EntitlementsChangedEvent event) {
+        generation.incrementAndGet();
+        if (event.userId() == null) {
+            cache.clear();
+        } else {
+            cache.remove(event.userId());
+        }
+    }
+
+    /**
+     * Complementa o vencimento da própria fotografia (fim da assinatura mais próxima): depois que
+     * o job confirma a expiração, nenhuma fotografia dos usuários dessas contas continua em uso,
+     * mesmo com o relógio desta instância atrás do banco.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubscriptionsExpired(SubscriptionsExpiredEvent event) {
+        if (event.accountIds().isEmpty()) {
+            return;
+        }
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Set<UUID> userIds = readOnly.execute(status -> {
+            Set<UUID> affected = new HashSet<>(subscriptionRepository.findUserIdsByPersonalAccountIds(event.accountIds()));
+            affected.addAll(subscriptionRepository.findMemberUserIdsByOrganizationAccountIds(event.accountIds()));
+            return affected;
+        });
+
+        synchronized (this) {
+            generation.incrementAndGet();
+            userIds.forEach(cache::remove);
+        }
+    }
+
+    private UserEntitlements load(UUID userId, Instant now) {
+        OffsetDateTime nowDate = OffsetDateTime.now();
+        Instant validUntil = now.plusSeconds(maxTtlSeconds);
+
+        Set<UUID> enrolledTrainingIds = enrollmentRepository.findTrainingIdsByUserId(userId);
+
+        // Mesma precedência de SubscriptionService.getAccessStatusForUser: organização antes da conta pessoal.
+        List<OffsetDateTime> organizationEndDates = subscriptionRepository
+                .findActiveOrganizationSubscriptionEndDates(userId, SubscriptionStatus.ACTIVE, nowDate);
+        List<OffsetDateTime> personalEndDates = organizationEndDates.isEmpty()
+                ? subscriptionRepository.findActivePersonalSubscriptionEndDates(userId, SubscriptionStatus.ACTIVE, nowDate)
+                : List.of();
+
+        AccessType accessType;
+        if (!organizationEndDates.isEmpty()) {
+            accessType = AccessType.ORGANIZATIONAL_SUBSCRIPTION;
+        } else if (!personalEndDates.isEmpty()) {
+            accessType = AccessType.PERSONAL_SUBSCRIPTION;
+        } else {
+            accessType = AccessType.NONE;
+        }
+
+        // Com acesso pessoal o acesso é global: não é preciso listar os treinamentos do plano.
+        List<SubscribedTrainingDTO> subscribedTrainings = accessType == AccessType.PERSONAL_SUBSCRIPTION
+                ? List.of()
+                : subscriptionRepository.findActiveSubscribedTrainings(userId, SubscriptionStatus.ACTIVE, nowDate);
+
+        // A fotografia expira junto com a primeira assinatura que vencer.
+        for (OffsetDateTime endDate : organizationEndDates) {
+            validUntil = earliest(validUntil, endDate.toInstant());
+        }
+        for (OffsetDateTime endDate : personalEndDates) {
+            validUntil = earliest(validUntil, endDate.toInstant());
+        }
+        for (SubscribedTrainingDTO subscribed : subscribedTrainings) {
+            validUntil = earliest(validUntil, subscribed.endDate().toInstant());
+        }
+
+        Set<UUID> subscribedTrainingIds = subscribedTrainings.stream()
+                .map(SubscribedTrainingDTO::trainingId)
+                .collect(Collectors.toSet());
+
+        return new UserEntitlements(enrolledTrainingIds, accessType, subscribedTrainingIds, validUntil);
+    }
+
+    private static Instant earliest(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
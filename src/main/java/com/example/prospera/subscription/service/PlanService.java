@@ -2,12 +2,14 @@ package com.example.prospera.subscription.service;
 
 import com.example.prospera.admin.dto.PlanCreateRequest;
 import com.example.prospera.admin.dto.PlanUpdateRequest;
+import com.example.prospera.common.events.EntitlementsChangedEvent;
 import com.example.prospera.exceptions.BusinessRuleException;
 import com.example.prospera.exceptions.ResourceNotFoundException;
 import com.example.prospera.subscription.entities.Plan;
 import com.example.prospera.subscription.enums.PlanType;
 import com.example.prospera.subscription.repositories.PlanRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -36,6 +38,7 @@ import java.util.UUID;
 public class PlanService {
 
     private final PlanRepository planRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Cria um novo plano de assinatura.
@@ -78,7 +81,10 @@ public class PlanService {
         // Mapeamento centralizado
         mapDtoToEntity(existingPlan, dto.name(), dto.description(), dto.originalPrice(), dto.currentPrice(), dto.durationInDays(), dto.isActive(), null); // Type não é atualizável
 
-        return planRepository.save(existingPlan);
+        Plan savedPlan = planRepository.save(existingPlan);
+        // Os treinamentos liberados pelo plano podem ter mudado para todos os assinantes.
+        eventPublisher.publishEvent(EntitlementsChangedEvent.forAllUsers());
+        return savedPlan;
     }
 
     /**
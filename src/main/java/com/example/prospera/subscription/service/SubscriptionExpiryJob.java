@@ -0,0 +1,152 @@
+package com.example.prospera.subscription.service;
+
+import com.example.prospera.common.events.SubscriptionsExpiredEvent;
+import com.example.prospera.common.jdbc.UuidBinary;
+import com.example.prospera.common.scheduling.JobLockService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Rotina periódica que expira as assinaturas ACTIVE cuja data de término já passou.
+ * Com o {@link SubscriptionExpiryScheduler} expirando cada assinatura no término, esta varredura
+ * é apenas a rede de segurança para o que a fila em memória não alcançou.
+ * <p>
+ * As assinaturas vencidas são percorridas em lotes por paginação keyset sobre
+ * ({@code end_date}, {@code id}) e cada lote é expirado com um {@code UPDATE} em massa em
+ * sua própria transação curta, para que um acúmulo grande (após uma parada longa ou uma
+ * migração) não segure os locks da tabela numa transação única.
+ * <p>
+ * Cada lote confirmado publica um {@link SubscriptionsExpiredEvent} com as contas afetadas.
+ * As fotografias do {@link EntitlementService} já vencem na data de término da assinatura,
+ * então não é preciso descartá-las aqui.
+ */
+@Service
+@RequiredArgsConstructor
+public class SubscriptionExpiryJob {
+
+    private static final Logger log = LoggerFactory.getLogger(SubscriptionExpiryJob.class);
+
+    private static final String SELECT_CHUNK_SQL =
+            "SELECT id, account_id, end_date FROM subscriptions " +
+                    "WHERE status = 'ACTIVE' AND end_date < :now " +
+                    "  AND (:lastEndDate IS NULL OR end_date > :lastEndDate OR (end_date = :lastEndDate AND id > :lastId)) " +
+                    "ORDER BY end_date, id " +
+                    "LIMIT :chunkSize";
+
+    // A condição de status é repetida: uma assinatura cancelada entre a leitura e a escrita não é sobrescrita.
+    private static final String EXPIRE_CHUNK_SQL =
+            "UPDATE subscriptions SET status = 'EXPIRED' " +
+                    "WHERE id IN (:ids) AND status = 'ACTIVE' AND end_date < :now";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JobLockService jobLockService;
+
+    @Value("${app.subscriptions.expiry.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Executa a cada hora cheia por padrão ({@code app.subscriptions.expiry.cron}).
+     */
+    @Scheduled(cron = "${app.subscriptions.expiry.cron:0 0 * * * *}")
+    public void expireOverdueSubscriptions() {
+        jobLockService.runExclusively("subscription-expiry", Duration.ofMinutes(5), () -> expireOverdue(Instant.now()));
+    }
+
+    /**
+     * Expira todas as assinaturas ACTIVE com término anterior a {@code now}.
+     *
+     * @return métricas da execução (assinaturas expiradas, lotes e duração)
+     */
+    public ExpiryRun expireOverdue(Instant now) {
+        long startedAt = System.nanoTime();
+        Timestamp nowParam = Timestamp.from(now);
+
+        int expired = 0;
+        int chunks = 0;
+        Cursor cursor = null;
+        while (true) {
+            Cursor from = cursor;
+            Chunk chunk = transactionTemplate.execute(status -> expireChunk(nowParam, from));
+            if (chunk == null || chunk.rows().isEmpty()) {
+                break;
+            }
+            chunks++;
+            expired += chunk.expired();
+            cursor = chunk.last();
+            if (chunk.rows().size() < chunkSize) {
+                break;
+            }
+        }
+
+        ExpiryRun run = new ExpiryRun(expired, chunks, Duration.ofNanos(System.nanoTime() - startedAt));
+        if (run.expired() > 0) {
+            log.info("Expiração de assinaturas: {} expiradas em {} lotes ({} ms).",
+                    run.expired(), run.chunks(), run.duration().toMillis());
+        } else {
+            log.debug("Expiração de assinaturas: nenhuma assinatura vencida ({} ms).", run.duration().toMillis());
+        }
+        return run;
+    }
+
+    private Chunk expireChunk(Timestamp now, Cursor from) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("now", now)
+                .addValue("lastEndDate", from == null ? null : from.endDate())
+                .addValue("lastId", from == null ? null : from.id())
+                .addValue("chunkSize", chunkSize);
+
+        List<Row> rows = jdbcTemplate.query(SELECT_CHUNK_SQL, params, (rs, rowNum) -> new Row(
+                rs.getBytes("id"),
+                UuidBinary.fromBytes(rs.getBytes("account_id")),
+                rs.getTimestamp("end_date")
+        ));
+        if (rows.isEmpty()) {
+            return new Chunk(rows, 0, from);
+        }
+
+        int expired = jdbcTemplate.update(EXPIRE_CHUNK_SQL, new MapSqlParameterSource()
+                .addValue("ids", rows.stream().map(Row::id).toList())
+                .addValue("now", now));
+
+        Set<UUID> accountIds = new LinkedHashSet<>();
+        rows.forEach(row -> accountIds.add(row.accountId()));
+        // Entregue aos ouvintes somente após o commit deste lote.
+        eventPublisher.publishEvent(new SubscriptionsExpiredEvent(Set.copyOf(accountIds)));
+
+        Row last = rows.get(rows.size() - 1);
+        return new Chunk(rows, expired, new Cursor(last.endDate(), last.id()));
+    }
+
+    /**
+     * Métricas de uma execução da rotina.
+     */
+    public record ExpiryRun(int expired, int chunks, Duration duration) {
+    }
+
+    private record Row(byte[] id, UUID accountId, Timestamp endDate) {
+    }
+
+    private record Cursor(Timestamp endDate, byte[] id) {
+    }
+
+    private record Chunk(List<Row> rows, int expired, Cursor last) {
+    }
+}
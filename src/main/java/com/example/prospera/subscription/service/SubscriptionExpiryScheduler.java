@@ -0,0 +1,189 @@
+package com.example.prospera.subscription.service;
+
+import com.example.prospera.common.events.SubscriptionsExpiredEvent;
+import com.example.prospera.common.jdbc.UuidBinary;
+import com.example.prospera.common.scheduling.JobLockService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Expira as assinaturas no momento do término, e não na próxima hora cheia.
+ * <p>
+ * As expirações da próxima janela ({@code app.subscriptions.expiry.window-minutes}) ficam numa
+ * fila de prioridade ordenada pela data de término, recarregada periodicamente com uma consulta
+ * de intervalo sobre o índice (status, end_date). Um tique curto retira da fila o que já venceu e
+ * expira tudo num único {@code UPDATE}. A consulta não tem limite inferior, então assinaturas
+ * que venceram com a aplicação fora do ar entram na primeira recarga.
+ * <p>
+ * Entradas desatualizadas (assinatura cancelada ou prorrogada depois da recarga) são inofensivas:
+ * o {@code UPDATE} confere status e data novamente. O {@link SubscriptionExpiryJob} continua
+ * agendado como rede de segurança.
+ * <p>
+ * Com várias réplicas, apenas o nó que detém o lease {@value #JOB_NAME} mantém a fila e expira.
+ * O tique depende de o agendador ter mais de uma thread ({@code spring.task.scheduling.pool.size}),
+ * senão espera o fim de qualquer outra rotina agendada.
+ */
+@Service
+@RequiredArgsConstructor
+public class SubscriptionExpiryScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(SubscriptionExpiryScheduler.class);
+
+    private static final int EXPIRE_CHUNK_SIZE = 500;
+    private static final String JOB_NAME = "subscription-expiry-scheduler";
+    private static final Duration LEASE = Duration.ofSeconds(30);
+
+    private static final String UPCOMING_SQL =
+            "SELECT id, account_id, end_date FROM subscriptions " +
+                    "WHERE status = 'ACTIVE' AND end_date < :until " +
+                    "ORDER BY end_date " +
+                    "LIMIT :maxEntries";
+
+    private static final String EXPIRE_SQL =
+            "UPDATE subscriptions SET status = 'EXPIRED' " +
+                    "WHERE id IN (:ids) AND status = 'ACTIVE' AND end_date <= :now";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JobLockService jobLockService;
+
+    @Value("${app.subscriptions.expiry.window-minutes:10}")
+    private long windowMinutes;
+
+    @Value("${app.subscriptions.expiry.max-entries:50000}")
+    private int maxEntries;
+
+    private final PriorityQueue<Pending> queue = new PriorityQueue<>(Comparator.comparing(Pending::endDate));
+    private final Set<UUID> queuedIds = new HashSet<>();
+
+    // Só o nó que detém o lease mantém a fila; ao assumi-lo, recarrega antes do primeiro tique.
+    private volatile boolean leading;
+
+    /**
+     * Recarrega a fila com as assinaturas que vencem até o fim da próxima janela.
+     * O intervalo deve ser menor que a janela, para que as recargas se sobreponham.
+     */
+    @Scheduled(fixedDelayString = "${app.subscriptions.expiry.refill-interval-ms:300000}")
+    public void refill() {
+        if (!isLeader()) {
+            return;
+        }
+        load();
+    }
+
+    private void load() {
+        Instant until = Instant.now().plus(Duration.ofMinutes(windowMinutes));
+        List<Pending> upcoming = jdbcTemplate.query(UPCOMING_SQL, new MapSqlParameterSource()
+                        .addValue("until", Timestamp.from(until))
+                        .addValue("maxEntries", maxEntries),
+                (rs, rowNum) -> new Pending(
+                        UuidBinary.fromBytes(rs.getBytes("id")),
+                        UuidBinary.fromBytes(rs.getBytes("account_id")),
+                        rs.getTimestamp("end_date").toInstant()
+                ));
+
+        int added = 0;
+        synchronized (this) {
+            for (Pending pending : upcoming) {
+                if (queuedIds.add(pending.id())) {
+                    queue.add(pending);
+                    added++;
+                }
+            }
+        }
+        if (upcoming.size() == maxEntries) {
+            log.warn("Fila de expiração cheia ({} assinaturas); as demais entram nas próximas recargas.", maxEntries);
+        }
+        log.debug("Fila de expiração recarregada: {} novas assinaturas até {}.", added, until);
+    }
+
+    /**
+     * Expira as assinaturas cuja data de término já chegou.
+     */
+    @Scheduled(fixedDelayString = "${app.subscriptions.expiry.tick-ms:1000}")
+    public void tick() {
+        if (!isLeader()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<Pending> due = new ArrayList<>();
+        synchronized (this) {
+            while (!queue.isEmpty() && !queue.peek().endDate().isAfter(now)) {
+                Pending pending = queue.poll();
+                queuedIds.remove(pending.id());
+                due.add(pending);
+            }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        // Após uma parada longa a primeira leva pode ser grande: expira em lotes curtos.
+        int expired = 0;
+        for (int from = 0; from < due.size(); from += EXPIRE_CHUNK_SIZE) {
+            List<Pending> chunk = due.subList(from, Math.min(from + EXPIRE_CHUNK_SIZE, due.size()));
+            Integer count = transactionTemplate.execute(status -> expire(chunk, now));
+            expired += count == null ? 0 : count;
+        }
+        if (expired > 0) {
+            log.info("{} assinaturas expiradas no término.", expired);
+        }
+    }
+
+    private boolean isLeader() {
+        boolean acquired = jobLockService.tryAcquire(JOB_NAME, LEASE);
+        if (!acquired) {
+            if (leading) {
+                // Outro nó assumiu: a fila deste fica parada até um novo lease.
+                synchronized (this) {
+                    queue.clear();
+                    queuedIds.clear();
+                }
+            }
+            leading = false;
+            return false;
+        }
+        if (!leading) {
+            leading = true;
+            load();
+        }
+        return true;
+    }
+
+    private int expire(List<Pending> due, Instant now) {
+        int expired = jdbcTemplate.update(EXPIRE_SQL, new MapSqlParameterSource()
+                .addValue("ids", due.stream().map(pending -> UuidBinary.toBytes(pending.id())).toList())
+                .addValue("now", Timestamp.from(now)));
+
+        if (expired > 0) {
+            Set<UUID> accountIds = new LinkedHashSet<>();
+            due.forEach(pending -> accountIds.add(pending.accountId()));
+            eventPublisher.publishEvent(new SubscriptionsExpiredEvent(Set.copyOf(accountIds)));
+        }
+        return expired;
+    }
+
+    private record Pending(UUID id, UUID accountId, Instant endDate) {
+    }
+}
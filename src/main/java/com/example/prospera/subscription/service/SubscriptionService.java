@@ -3,6 +3,7 @@ package com.example.prospera.subscription.service;
 import com.example.prospera.auth.domain.AuthUser;
 import com.example.prospera.auth.repositories.AuthUserRepository;
 import com.example.prospera.common.enums.OrganizationRole;
+import com.example.prospera.common.events.EntitlementsChangedEvent;
 import com.example.prospera.enterprise.domain.Account;
 import com.example.prospera.enterprise.domain.Organization;
 import com.example.prospera.enterprise.domain.enums.OrganizationStatus;
@@ -11,26 +12,31 @@ import com.example.prospera.enterprise.service.AccountService;
 import com.example.prospera.exceptions.BusinessRuleException;
 import com.example.prospera.exceptions.ResourceNotFoundException;
 import com.example.prospera.subscription.dto.AccessStatusDTO;
+import com.example.prospera.subscription.dto.TrainingAccessRow;
 import com.example.prospera.subscription.entities.Plan;
 import com.example.prospera.subscription.entities.Subscription;
 import com.example.prospera.subscription.enums.AccessType;
 import com.example.prospera.subscription.enums.PlanType;
 import com.example.prospera.subscription.enums.SubscriptionOrigin;
 import com.example.prospera.subscription.enums.SubscriptionStatus;
+import com.example.prospera.subscription.enums.TrainingAccessPath;
 import com.example.prospera.subscription.repositories.PlanRepository;
 import com.example.prospera.subscription.repositories.SubscriptionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Serviço responsável pelo gerenciamento de assinaturas no sistema.
@@ -59,6 +65,7 @@ public class SubscriptionService {
     private final AuthUserRepository authUserRepository;
     private final OrganizationRepository organizationRepository;
     private final AccountService accountService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Cria uma assinatura pessoal para um usuário específico.
@@ -90,7 +97,9 @@ public class SubscriptionService {
             throw new BusinessRuleException("Este usuário já possui uma assinatura individual ativa.");
         }
 
-        return createSubscriptionForAccount(personalAccount, plan);
+        Subscription subscription = createSubscriptionForAccount(personalAccount, plan);
+        eventPublisher.publishEvent(EntitlementsChangedEvent.forUser(userId));
+        return subscription;
     }
 
     /**
@@ -116,7 +125,10 @@ public class SubscriptionService {
         if (subscriptionRepository.existsByAccountAndStatus(account, SubscriptionStatus.ACTIVE)) {
             throw new BusinessRuleException("Esta conta (e suas organizações) já possui uma assinatura ativa.");
         }
-        return createSubscriptionForAccount(account, plan);
+        Subscription subscription = createSubscriptionForAccount(account, plan);
+        // Afeta todos os membros das organizações da conta.
+        eventPublisher.publishEvent(EntitlementsChangedEvent.forAllUsers());
+        return subscription;
     }
 
     /**
@@ -197,6 +209,32 @@ public class SubscriptionService {
                 userId, trainingId, SubscriptionStatus.ACTIVE, OffsetDateTime.now());
     }
 
+    /**
+     * Versão em lote de {@link #hasActiveSubscriptionForTraining}, incluindo a matrícula:
+     * responde, em uma única consulta, quais dos treinamentos informados o usuário pode acessar
+     * e por qual caminho.
+     *
+     * @param userId      ID do usuário
+     * @param trainingIds IDs dos treinamentos a verificar (ex.: uma página do catálogo)
+     * @return Mapa apenas com os treinamentos liberados, indicando o caminho de acesso
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, TrainingAccessPath> findAccessibleTrainings(UUID userId, Collection<UUID> trainingIds) {
+        if (trainingIds == null || trainingIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<UUID, TrainingAccessPath> accessible = new HashMap<>();
+        for (TrainingAccessRow row : subscriptionRepository.findTrainingAccessRows(
+                userId, trainingIds, SubscriptionStatus.ACTIVE, OffsetDateTime.now())) {
+            TrainingAccessPath path = row.resolvePath();
+            if (path != null) {
+                accessible.put(row.trainingId(), path);
+            }
+        }
+        return accessible;
+    }
+
     @Transactional
     public void cancelSubscription(UUID subscriptionId) {
         Subscription subscription = subscriptionRepository.findById(subscriptionId).orElseThrow(() -> new ResourceNotFoundException("Assinatura não encontrada."));
@@ -206,48 +244,7 @@ public class SubscriptionService {
         subscription.setStatus(SubscriptionStatus.CANCELED);
         subscription.setEndDate(OffsetDateTime.now());
         subscriptionRepository.save(subscription);
-    }
-
-    @Transactional(readOnly = true)
-    public List<Subscription> findAllSubscriptions(SubscriptionStatus status, SubscriptionOrigin origin) {
-        List<Subscription> allSubscriptions = subscriptionRepository.findAll();
-        if (status != null) {
-            allSubscriptions = allSubscriptions.stream().filter(s -> s.getStatus() == status).collect(Collectors.toList());
-        }
-        if (origin != null) {
-            allSubscriptions = allSubscriptions.stream().filter(s -> s.getOrigin() == origin).collect(Collectors.toList());
-        }
-        return allSubscriptions;
-    }
-
-
-    /**
-     * Rotina executada periodicamente para verificar e expirar assinaturas vencidas.
-     * Requer @EnableScheduling na classe Application principal.
-     */
-    // Executa a cada hora (ajuste a cron expression conforme necessário)
-    // Exemplo: "0 0 * * * *" = toda hora cheia
-    // Exemplo para teste (a cada minuto): "0 * * * * *"
-    @org.springframework.scheduling.annotation.Scheduled(cron = "0 0 * * * *")
-    @Transactional
-    public void expireOverdueSubscriptions() {
-        OffsetDateTime now = OffsetDateTime.now();
-
-        // Busca assinaturas que estão marcadas como ACTIVE mas já passaram da data
-        List<Subscription> overdueSubscriptions = subscriptionRepository
-                .findAllByStatusAndEndDateBefore(SubscriptionStatus.ACTIVE, now);
-
-        if (!overdueSubscriptions.isEmpty()) {
-            System.out.println("Encontradas " + overdueSubscriptions.size() + " assinaturas vencidas. Processando...");
-
-            overdueSubscriptions.forEach(sub -> {
-                // Certifique-se de ter o status EXPIRED no seu enum, ou use INACTIVE/CANCELED
-                sub.setStatus(SubscriptionStatus.EXPIRED);
-            });
-
-            subscriptionRepository.saveAll(overdueSubscriptions);
-            System.out.println("Assinaturas atualizadas com sucesso.");
-        }
+        eventPublisher.publishEvent(EntitlementsChangedEvent.forAllUsers());
     }
 
     private Subscription createSubscriptionForAccount(Account account, Plan plan) {
@@ -0,0 +1,5 @@
+-- Miniatura do certificado gerada uma única vez, na emissão, e servida com ETag do conteúdo.
+-- Os certificados existentes ficam sem miniatura e a geram no primeiro acesso.
+ALTER TABLE `certificates`
+    ADD COLUMN `thumbnail_path` varchar(255) DEFAULT NULL,
+    ADD COLUMN `thumbnail_etag` varchar(64) DEFAULT NULL;
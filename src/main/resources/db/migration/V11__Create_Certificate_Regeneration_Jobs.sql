@@ -0,0 +1,20 @@
+-- Regeneração em lote dos PDFs de certificados (mudança de template, dados da empresa ou carga horária).
+-- O checkpoint (issued_at, id) do último certificado processado permite retomar o job de onde parou.
+CREATE TABLE `certificate_regeneration_jobs`
+(
+    `id`                        binary(16)  NOT NULL,
+    `training_id`               binary(16)           DEFAULT NULL,
+    `issued_from`               datetime(6)          DEFAULT NULL,
+    `issued_to`                 datetime(6)          DEFAULT NULL,
+    `refresh_workload`          bit(1)      NOT NULL,
+    `status`                    enum('RUNNING','PAUSED','COMPLETED','CANCELLED') NOT NULL,
+    `total`                     bigint      NOT NULL,
+    `processed`                 bigint      NOT NULL DEFAULT 0,
+    `failed`                    bigint      NOT NULL DEFAULT 0,
+    `checkpoint_issued_at`      datetime(6)          DEFAULT NULL,
+    `checkpoint_certificate_id` binary(16)           DEFAULT NULL,
+    `created_at`                datetime(6) NOT NULL,
+    `finished_at`               datetime(6)          DEFAULT NULL,
+    PRIMARY KEY (`id`),
+    KEY `IX_certificate_regeneration_jobs_status` (`status`, `created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
@@ -0,0 +1,16 @@
+-- Matrículas em lote em segundo plano: a situação fica no banco para ser consultada em qualquer instância.
+CREATE TABLE `bulk_enrollment_jobs`
+(
+    `id`              binary(16)   NOT NULL,
+    `organization_id` binary(16)   NOT NULL,
+    `training_id`     binary(16)   NOT NULL,
+    `status`          enum('QUEUED','RUNNING','COMPLETED','FAILED') NOT NULL,
+    `requested`       int          NOT NULL,
+    `processed`       int          NOT NULL DEFAULT 0,
+    `created`         int          NOT NULL DEFAULT 0,
+    `error`           varchar(255)          DEFAULT NULL,
+    `created_at`      datetime(6)  NOT NULL,
+    `finished_at`     datetime(6)           DEFAULT NULL,
+    PRIMARY KEY (`id`),
+    KEY `IX_bulk_enrollment_jobs_organization` (`organization_id`, `created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
@@ -0,0 +1,4 @@
+-- Versão de segurança por usuário: incrementada sempre que o acesso do usuário muda
+-- (desativação, troca de papel, afiliações), invalidando tokens emitidos antes da mudança.
+ALTER TABLE `auth_users`
+    ADD COLUMN `security_version` int NOT NULL DEFAULT 0;
@@ -0,0 +1,19 @@
+-- Conclusão de curso por contador: cada matrícula guarda quantas aulas já concluiu,
+-- e o progresso de uma aula só pode ser registrado uma vez por matrícula.
+
+-- Remove progressos duplicados gerados por cliques concorrentes antes da restrição de unicidade.
+DELETE lp1
+FROM `lesson_progress` lp1
+         JOIN `lesson_progress` lp2
+              ON lp1.`enrollment_id` = lp2.`enrollment_id`
+                  AND lp1.`lesson_id` = lp2.`lesson_id`
+                  AND lp1.`id` > lp2.`id`;
+
+ALTER TABLE `lesson_progress`
+    ADD UNIQUE KEY `UK_lesson_progress_enrollment_lesson` (`enrollment_id`, `lesson_id`);
+
+ALTER TABLE `course_enrollments`
+    ADD COLUMN `completed_lessons` int NOT NULL DEFAULT 0;
+
+UPDATE `course_enrollments` e
+SET e.`completed_lessons` = (SELECT COUNT(*) FROM `lesson_progress` lp WHERE lp.`enrollment_id` = e.`id`);
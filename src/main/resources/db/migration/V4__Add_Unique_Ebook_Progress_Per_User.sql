@@ -0,0 +1,13 @@
+-- Um único registro de progresso por (usuário, e-book), permitindo gravar o progresso com upsert.
+
+-- Mantém apenas o registro mais recente de cada par.
+DELETE ep1
+FROM `ebook_progress` ep1
+         JOIN `ebook_progress` ep2
+              ON ep1.`user_id` = ep2.`user_id`
+                  AND ep1.`training_id` = ep2.`training_id`
+                  AND (ep1.`updated_at` < ep2.`updated_at`
+                      OR (ep1.`updated_at` = ep2.`updated_at` AND ep1.`id` < ep2.`id`));
+
+ALTER TABLE `ebook_progress`
+    ADD UNIQUE KEY `UK_ebook_progress_user_training` (`user_id`, `training_id`);
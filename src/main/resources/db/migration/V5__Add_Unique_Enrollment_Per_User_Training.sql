@@ -0,0 +1,99 @@
+-- Uma única matrícula por (usuário, treinamento), permitindo matrículas em lote com INSERT IGNORE.
+
+-- Antes da restrição, cada grupo de matrículas duplicadas é reduzido a uma só: fica a que tem
+-- certificado; se nenhuma tiver, a mais antiga entre as que têm dados (progresso de aulas ou
+-- avaliação) ou, se nenhuma tiver, a mais antiga do grupo. O progresso e a avaliação das demais
+-- passam para a que fica; quando as duas têm o mesmo registro (a mesma aula ou uma avaliação),
+-- vale o da matrícula que fica. Certificados nunca são apagados nem movidos.
+
+-- Um grupo com mais de uma matrícula certificada não tem como ser reduzido sem perder um
+-- certificado: a migração para aqui, antes de alterar qualquer dado, e esses casos precisam ser
+-- resolvidos manualmente. Com algum conflito, o INSERT abaixo viola a CHECK e falha.
+CREATE TEMPORARY TABLE `tmp_certified_duplicate_guard`
+(
+    `conflicting_groups` int NOT NULL,
+    CONSTRAINT `CHK_no_duplicate_certified_enrollments` CHECK (`conflicting_groups` = 0)
+) ENGINE=InnoDB;
+
+INSERT INTO `tmp_certified_duplicate_guard` (`conflicting_groups`)
+SELECT COUNT(*)
+FROM (SELECT e.`auth_user_id`, e.`training_id`
+      FROM `course_enrollments` e
+               JOIN `certificates` c ON c.`enrollment_id` = e.`id`
+      WHERE e.`auth_user_id` IS NOT NULL
+        AND e.`training_id` IS NOT NULL
+      GROUP BY e.`auth_user_id`, e.`training_id`
+      HAVING COUNT(DISTINCT e.`id`) > 1) conflicts;
+
+DROP TEMPORARY TABLE `tmp_certified_duplicate_guard`;
+
+CREATE TABLE `tmp_duplicate_enrollments`
+(
+    `id`          binary(16) NOT NULL,
+    `survivor_id` binary(16) NOT NULL,
+    PRIMARY KEY (`id`)
+) ENGINE=InnoDB;
+
+INSERT INTO `tmp_duplicate_enrollments` (`id`, `survivor_id`)
+SELECT ranked.`id`, ranked.`survivor_id`
+FROM (SELECT flagged.`id`,
+             FIRST_VALUE(flagged.`id`) OVER (
+                 PARTITION BY flagged.`auth_user_id`, flagged.`training_id`
+                 ORDER BY flagged.`has_certificate` DESC, flagged.`has_data` DESC,
+                     flagged.`enrolled_at`, flagged.`id`) AS `survivor_id`
+      FROM (SELECT e.`id`,
+                   e.`auth_user_id`,
+                   e.`training_id`,
+                   e.`enrolled_at`,
+                   EXISTS (SELECT 1 FROM `certificates` c WHERE c.`enrollment_id` = e.`id`) AS `has_certificate`,
+                   (EXISTS (SELECT 1 FROM `lesson_progress` lp WHERE lp.`enrollment_id` = e.`id`)
+                       OR EXISTS (SELECT 1 FROM `training_ratings` r WHERE r.`enrollment_id` = e.`id`)) AS `has_data`
+            FROM `course_enrollments` e
+            WHERE e.`auth_user_id` IS NOT NULL
+              AND e.`training_id` IS NOT NULL) flagged) ranked
+WHERE ranked.`id` <> ranked.`survivor_id`;
+
+-- Com a verificação acima, só a matrícula que fica pode ter certificado; se ainda assim uma
+-- duplicada tiver, a chave estrangeira do certificado impede que ela seja apagada no fim.
+-- UPDATE IGNORE deixa no lugar as linhas que violariam uma chave única (registro que a matrícula
+-- que fica já tem); elas são apagadas junto com a duplicada.
+UPDATE IGNORE `lesson_progress` lp
+    JOIN `tmp_duplicate_enrollments` d ON lp.`enrollment_id` = d.`id`
+SET lp.`enrollment_id` = d.`survivor_id`;
+
+UPDATE IGNORE `training_ratings` r
+    JOIN `tmp_duplicate_enrollments` d ON r.`enrollment_id` = d.`id`
+SET r.`enrollment_id` = d.`survivor_id`;
+
+-- Uma conclusão em qualquer cópia vale para a matrícula que fica, com a data da primeira.
+UPDATE `course_enrollments` e
+    JOIN (SELECT d.`survivor_id`, MIN(x.`completed_at`) AS `completed_at`
+          FROM `tmp_duplicate_enrollments` d
+                   JOIN `course_enrollments` x ON x.`id` = d.`id`
+          WHERE x.`status` = 'COMPLETED'
+          GROUP BY d.`survivor_id`) done ON e.`id` = done.`survivor_id`
+SET e.`status`       = 'COMPLETED',
+    e.`completed_at` = COALESCE(e.`completed_at`, done.`completed_at`)
+WHERE e.`status` <> 'COMPLETED';
+
+-- O contador de aulas (V3) passa a refletir o progresso somado.
+UPDATE `course_enrollments` e
+    JOIN (SELECT DISTINCT `survivor_id` FROM `tmp_duplicate_enrollments`) s ON e.`id` = s.`survivor_id`
+SET e.`completed_lessons` = (SELECT COUNT(*) FROM `lesson_progress` lp WHERE lp.`enrollment_id` = e.`id`);
+
+DELETE lp
+FROM `lesson_progress` lp
+         JOIN `tmp_duplicate_enrollments` d ON lp.`enrollment_id` = d.`id`;
+
+DELETE r
+FROM `training_ratings` r
+         JOIN `tmp_duplicate_enrollments` d ON r.`enrollment_id` = d.`id`;
+
+DELETE e
+FROM `course_enrollments` e
+         JOIN `tmp_duplicate_enrollments` d ON e.`id` = d.`id`;
+
+DROP TABLE `tmp_duplicate_enrollments`;
+
+ALTER TABLE `course_enrollments`
+    ADD UNIQUE KEY `UK_enrollments_user_training` (`auth_user_id`, `training_id`);
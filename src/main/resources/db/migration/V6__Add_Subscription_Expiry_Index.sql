@@ -0,0 +1,4 @@
+-- Índice para a expiração em lotes: busca as assinaturas ACTIVE vencidas na ordem (end_date, id)
+-- sem varrer a tabela inteira.
+ALTER TABLE `subscriptions`
+    ADD KEY `IX_subscriptions_status_end_date` (`status`, `end_date`, `id`);
@@ -0,0 +1,10 @@
+-- Lease das rotinas agendadas: com mais de uma réplica da API, apenas o nó que detém o lease
+-- de uma rotina a executa. O lease vence em locked_until e é renovado enquanto a rotina roda.
+CREATE TABLE `scheduled_job_locks`
+(
+    `name`         varchar(100) NOT NULL,
+    `locked_by`    varchar(255) NOT NULL,
+    `locked_at`    datetime(6)  NOT NULL,
+    `locked_until` datetime(6)  NOT NULL,
+    PRIMARY KEY (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
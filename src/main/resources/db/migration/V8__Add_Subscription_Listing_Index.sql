@@ -0,0 +1,3 @@
+-- Índice da listagem administrativa de assinaturas, ordenada por (start_date, id) com paginação keyset.
+ALTER TABLE `subscriptions`
+    ADD KEY `IX_subscriptions_start_date` (`start_date`, `id`);
@@ -0,0 +1,9 @@
+-- Emissão assíncrona: o certificado é reservado como PENDING (sem arquivo) e marcado como READY
+-- quando o PDF é gerado em segundo plano. Os certificados existentes já têm arquivo.
+ALTER TABLE `certificates`
+    ADD COLUMN `status` enum('PENDING','READY','FAILED') NOT NULL DEFAULT 'READY',
+    MODIFY COLUMN `file_path` varchar(255) DEFAULT NULL;
+
+-- Varredura de certificados pendentes há muito tempo (fila perdida ou nó reiniciado).
+ALTER TABLE `certificates`
+    ADD KEY `IX_certificates_status_issued_at` (`status`, `issued_at`);
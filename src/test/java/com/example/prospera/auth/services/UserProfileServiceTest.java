@@ -0,0 +1,85 @@
+package com.example.prospera.auth.services;
+
+import com.example.prospera.auth.domain.AuthUser;
+import com.example.prospera.auth.repositories.AuthUserRepository;
+import com.example.prospera.common.enums.OrganizationRole;
+import com.example.prospera.enterprise.domain.Membership;
+import com.example.prospera.enterprise.domain.Organization;
+import com.example.prospera.enterprise.repositories.MembershipRepository;
+import com.example.prospera.enterprise.repositories.OrganizationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mudanças que afetam o conteúdo do token precisam invalidar os tokens já emitidos:
+ * a versão de segurança sobe e o estado em cache é descartado.
+ */
+@ExtendWith(MockitoExtension.class)
+class UserProfileServiceTest {
+
+    @Mock
+    private AuthUserRepository authUserRepository;
+    @Mock
+    private PasswordEncoder passwordEncoder;
+    @Mock
+    private OrganizationRepository organizationRepository;
+    @Mock
+    private MembershipRepository membershipRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private UserSecurityVersionService securityVersionService;
+
+    @InjectMocks
+    private UserProfileService userProfileService;
+
+    @Test
+    void anonymizingTheAccountRevokesExistingTokens() {
+        AuthUser user = newUser();
+        when(authUserRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        userProfileService.anonymizeAndDeactivateAccount(user);
+
+        assertThat(user.isEnabled()).isFalse();
+        assertThat(user.getSecurityVersion()).isEqualTo(1);
+        verify(securityVersionService).invalidate(user.getId());
+    }
+
+    @Test
+    void leavingAnOrganizationRevokesExistingTokens() {
+        AuthUser user = newUser();
+        Organization organization = Organization.builder().id(UUID.randomUUID()).build();
+        Membership membership = Membership.builder()
+                .user(user)
+                .organization(organization)
+                .role(OrganizationRole.ORG_MEMBER)
+                .build();
+        when(organizationRepository.findById(organization.getId())).thenReturn(Optional.of(organization));
+        when(membershipRepository.findByOrganizationAndUser_Id(organization, user.getId())).thenReturn(Optional.of(membership));
+
+        userProfileService.leaveOrganization(user, organization.getId());
+
+        verify(membershipRepository).delete(membership);
+        assertThat(user.getSecurityVersion()).isEqualTo(1);
+        verify(securityVersionService).invalidate(user.getId());
+    }
+
+    private static AuthUser newUser() {
+        AuthUser user = new AuthUser();
+        user.setId(UUID.randomUUID());
+        user.setEnabled(true);
+        return user;
+    }
+}
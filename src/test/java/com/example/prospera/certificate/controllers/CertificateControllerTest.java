@@ -0,0 +1,66 @@
+package com.example.prospera.certificate.controllers;
+
+import com.example.prospera.auth.domain.AuthUser;
+import com.example.prospera.certificate.service.CertificateService;
+import com.example.prospera.common.enums.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CertificateControllerTest {
+
+    private static final String ETAG = "\"abc123\"";
+
+    private final CertificateService certificateService = mock(CertificateService.class);
+    private final CertificateController controller = new CertificateController(certificateService);
+    private final AuthUser user = new AuthUser("aluno@example.com", "x", UserRole.USER);
+    private final UUID certificateId = UUID.randomUUID();
+
+    @Test
+    void thumbnailIsImmutableOnlyWhenTheUrlCarriesTheCurrentEtag() {
+        when(certificateService.getThumbnail(certificateId, user))
+                .thenReturn(new CertificateService.ThumbnailFile(new ByteArrayResource(new byte[]{1}), ETAG));
+
+        ResponseEntity<Resource> versioned = get("abc123", null);
+        assertThat(versioned.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(versioned.getHeaders().getCacheControl()).contains("immutable", "private");
+
+        ResponseEntity<Resource> stale = get("old", null);
+        assertThat(stale.getHeaders().getCacheControl()).contains("no-cache").doesNotContain("immutable");
+
+        ResponseEntity<Resource> unversioned = get(null, null);
+        assertThat(unversioned.getHeaders().getCacheControl()).contains("no-cache").doesNotContain("immutable");
+    }
+
+    @Test
+    void thumbnailRevalidationReturnsNotModifiedWhileTheEtagMatches() {
+        when(certificateService.getThumbnail(certificateId, user))
+                .thenReturn(new CertificateService.ThumbnailFile(new ByteArrayResource(new byte[]{1}), ETAG));
+
+        ResponseEntity<Resource> response = get(null, ETAG);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getCacheControl()).contains("no-cache");
+    }
+
+    private ResponseEntity<Resource> get(String version, String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/certificates/" + certificateId + "/thumbnail");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        ServletWebRequest webRequest = new ServletWebRequest(request, new MockHttpServletResponse());
+        return controller.getCertificateThumbnail(user, certificateId, version, webRequest);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.prospera.certificate.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Microbenchmark da emissão: PDFs/s com um renderer (uma thread) e com o pool padrão de um
+ * renderer por núcleo.
+ * <p>
+ * Fora da suíte normal; para rodar: {@code mvn test -Dbenchmarks=true -Dtest=CertificateRendererBenchmarkTest}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class CertificateRendererBenchmarkTest {
+
+    private static final int WARMUP_RENDERS = 50;
+    private static final long MEASURE_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    @Test
+    void pdfsPerSecond() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        double single = pdfsPerSecond(CertificateRendererTest.newRenderer(1), 1);
+        double pooled = pdfsPerSecond(CertificateRendererTest.newRenderer(cores), cores);
+
+        System.out.printf("Certificados: %.1f PDFs/s com 1 renderer, %.1f PDFs/s com %d (%.1f por núcleo)%n",
+                single, pooled, cores, pooled / cores);
+        assertThat(single).isPositive();
+        assertThat(pooled).isPositive();
+    }
+
+    private static double pdfsPerSecond(CertificateRenderer renderer, int threads) throws Exception {
+        for (int i = 0; i < WARMUP_RENDERS; i++) {
+            renderer.render(CertificateRendererTest.DATA);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long deadline = System.nanoTime() + MEASURE_NANOS;
+            long startedAt = System.nanoTime();
+            List<Future<Integer>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    int rendered = 0;
+                    while (System.nanoTime() < deadline) {
+                        renderer.render(CertificateRendererTest.DATA);
+                        rendered++;
+                    }
+                    return rendered;
+                }));
+            }
+            long total = 0;
+            for (Future<Integer> worker : workers) {
+                total += worker.get();
+            }
+            return total / ((System.nanoTime() - startedAt) / 1e9);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
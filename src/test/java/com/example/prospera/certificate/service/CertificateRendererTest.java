@@ -0,0 +1,78 @@
+package com.example.prospera.certificate.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CertificateRendererTest {
+
+    static final CertificateRenderer.CertificateData DATA = new CertificateRenderer.CertificateData(
+            "Mariana Souza", "NR-35 Trabalho em Altura", "8 horas", "TESTE123", "15/03/2026",
+            "Go Tree Consultoria LTDA", "47.885.556/0001-76");
+
+    @Test
+    void rendersAOnePagePdfWithTheCertificateData() throws IOException {
+        CertificateRenderer renderer = newRenderer(1);
+
+        byte[] pdf = renderer.render(DATA);
+
+        assertThat(new String(pdf, 0, 5, StandardCharsets.US_ASCII)).isEqualTo("%PDF-");
+        try (PDDocument document = PDDocument.load(pdf)) {
+            assertThat(document.getNumberOfPages()).isEqualTo(1);
+            String text = new PDFTextStripper().getText(document);
+            assertThat(text).contains("Mariana", "TESTE123", "15/03/2026");
+        }
+        assertThat(renderer.stats().rendered()).isEqualTo(1);
+        assertThat(renderer.stats().availableRenderers()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentRendersShareThePoolAndReturnEveryRenderer() throws Exception {
+        CertificateRenderer renderer = newRenderer(2);
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(threads.submit(() -> renderer.render(DATA)));
+            }
+            for (Future<byte[]> result : results) {
+                assertThat(result.get()).isNotEmpty();
+            }
+        } finally {
+            threads.shutdown();
+        }
+
+        assertThat(renderer.stats().rendered()).isEqualTo(8);
+        assertThat(renderer.stats().availableRenderers()).isEqualTo(2);
+    }
+
+    /**
+     * Renderer com o template e os recursos reais, já aquecido, sem subir o contexto do Spring.
+     */
+    static CertificateRenderer newRenderer(int poolSize) throws IOException {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        CertificateRenderer renderer = new CertificateRenderer(templateEngine, poolSize, 30);
+        renderer.warmUp();
+        return renderer;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.prospera.certificate.service;
+
+import com.example.prospera.auth.domain.AuthUser;
+import com.example.prospera.certificate.domain.Certificate;
+import com.example.prospera.certificate.domain.enums.CertificateStatus;
+import com.example.prospera.certificate.repositories.CertificateRepository;
+import com.example.prospera.common.enums.UserRole;
+import com.example.prospera.common.scheduling.JobLockService;
+import com.example.prospera.courses.repositories.EnrollmentRepository;
+import com.example.prospera.courses.repositories.ModuleRepository;
+import com.example.prospera.courses.service.FileStorageService;
+import com.example.prospera.email.service.EmailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CertificateServiceTest {
+
+    private final CertificateRepository certificateRepository = mock(CertificateRepository.class);
+    private final FileStorageService fileStorageService = mock(FileStorageService.class);
+    private final CertificateService service = new CertificateService(
+            certificateRepository,
+            mock(EnrollmentRepository.class),
+            fileStorageService,
+            mock(CertificateRenderer.class),
+            mock(CertificateThumbnailRenderer.class),
+            mock(ModuleRepository.class),
+            mock(EmailService.class),
+            new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            mock(JobLockService.class),
+            Runnable::run);
+
+    private final UUID certificateId = UUID.randomUUID();
+    private final UUID ownerId = UUID.randomUUID();
+    private final Resource jpeg = new ByteArrayResource(new byte[]{1});
+
+    @BeforeEach
+    void readyCertificateWithThumbnail() {
+        Certificate certificate = Certificate.builder()
+                .id(certificateId)
+                .status(CertificateStatus.READY)
+                .thumbnailPath("certificate_thumbnail.jpg")
+                .thumbnailEtag("\"abc123\"")
+                .build();
+        when(certificateRepository.findById(certificateId)).thenReturn(Optional.of(certificate));
+        when(certificateRepository.findOwnerIdById(certificateId)).thenReturn(Optional.of(ownerId));
+        when(fileStorageService.loadAsResource("certificate_thumbnail.jpg")).thenReturn(jpeg);
+    }
+
+    @Test
+    void thumbnailIsServedToTheOwner() {
+        CertificateService.ThumbnailFile thumbnail = service.getThumbnail(certificateId, user(ownerId, UserRole.USER));
+
+        assertThat(thumbnail.resource()).isSameAs(jpeg);
+        assertThat(thumbnail.etag()).isEqualTo("\"abc123\"");
+    }
+
+    @Test
+    void thumbnailIsServedToAnAdmin() {
+        CertificateService.ThumbnailFile thumbnail = service.getThumbnail(certificateId, user(UUID.randomUUID(), UserRole.SYSTEM_ADMIN));
+
+        assertThat(thumbnail.resource()).isSameAs(jpeg);
+    }
+
+    @Test
+    void thumbnailIsDeniedToOtherUsers() {
+        assertThatThrownBy(() -> service.getThumbnail(certificateId, user(UUID.randomUUID(), UserRole.USER)))
+                .isInstanceOf(AccessDeniedException.class);
+
+        verify(fileStorageService, never()).loadAsResource("certificate_thumbnail.jpg");
+    }
+
+    private static AuthUser user(UUID id, UserRole role) {
+        AuthUser user = new AuthUser("aluno@example.com", "x", role);
+        user.setId(id);
+        return user;
+    }
+}
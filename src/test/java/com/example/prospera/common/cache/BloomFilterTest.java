@@ -0,0 +1,88 @@
+package com.example.prospera.common.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BloomFilterTest {
+
+    @Test
+    void neverReturnsFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(code(i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain(code(i))).as(code(i)).isTrue();
+        }
+    }
+
+    @Test
+    void keepsFalsePositiveRateNearTargetWithinCapacity() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(code(i));
+        }
+
+        assertThat(falsePositiveRate(filter, 10_000)).isLessThan(0.02);
+    }
+
+    @Test
+    void putReportsOnlyNewValues() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+
+        assertThat(filter.put("0000ABCD")).isTrue();
+        assertThat(filter.put("0000ABCD")).isFalse();
+        assertThat(filter.insertions()).isEqualTo(1);
+        assertThat(filter.expectedInsertions()).isEqualTo(1_000);
+    }
+
+    @Test
+    void overflowIsDetectableAndRebuildRestoresRate() {
+        BloomFilter small = new BloomFilter(1_000, 0.01);
+        for (int i = 0; i < 20_000; i++) {
+            small.put(code(i));
+        }
+
+        // Acima da capacidade o filtro continua sem falsos negativos, mas a taxa de falsos positivos
+        // dispara: é o sinal usado pela verificação de certificados para reconstruí-lo maior.
+        assertThat(small.insertions()).isGreaterThan(small.expectedInsertions());
+        for (int i = 0; i < 20_000; i++) {
+            assertThat(small.mightContain(code(i))).isTrue();
+        }
+        assertThat(falsePositiveRate(small, 10_000)).isGreaterThan(0.5);
+
+        // Mesmo critério da reconstrução na verificação: o dobro dos valores existentes.
+        BloomFilter rebuilt = new BloomFilter(20_000 * 2, 0.01);
+        for (int i = 0; i < 20_000; i++) {
+            rebuilt.put(code(i));
+        }
+        assertThat(rebuilt.insertions()).isLessThanOrEqualTo(rebuilt.expectedInsertions());
+        assertThat(falsePositiveRate(rebuilt, 10_000)).isLessThan(0.02);
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThatThrownBy(() -> new BloomFilter(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(100, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(100, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Mesmo formato dos códigos de validação: 8 caracteres hexadecimais em maiúsculas.
+    private static String code(int i) {
+        return String.format("%08X", i);
+    }
+
+    // Valores da faixa alta, nunca adicionados pelos testes.
+    private static double falsePositiveRate(BloomFilter filter, int samples) {
+        int positives = 0;
+        for (int i = 0; i < samples; i++) {
+            if (filter.mightContain(code(0x10000000 + i))) {
+                positives++;
+            }
+        }
+        return positives / (double) samples;
+    }
+}
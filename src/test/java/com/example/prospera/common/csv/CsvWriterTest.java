@@ -0,0 +1,63 @@
+package com.example.prospera.common.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvWriterTest {
+
+    @Test
+    void plainValuesAreWrittenAsIs() {
+        assertThat(CsvWriter.escape("Maria Silva")).isEqualTo("Maria Silva");
+        assertThat(CsvWriter.escape("75.00")).isEqualTo("75.00");
+    }
+
+    @Test
+    void nullAndEmptyBecomeEmptyFields() {
+        assertThat(CsvWriter.escape(null)).isEmpty();
+        assertThat(CsvWriter.escape("")).isEmpty();
+    }
+
+    @Test
+    void separatorAndQuotesAreQuoted() {
+        assertThat(CsvWriter.escape("NR-10; Segurança")).isEqualTo("\"NR-10; Segurança\"");
+        assertThat(CsvWriter.escape("Curso \"avançado\"")).isEqualTo("\"Curso \"\"avançado\"\"\"");
+    }
+
+    @Test
+    void lineBreaksAreQuoted() {
+        assertThat(CsvWriter.escape("linha 1\nlinha 2")).isEqualTo("\"linha 1\nlinha 2\"");
+        assertThat(CsvWriter.escape("linha 1\r\nlinha 2")).isEqualTo("\"linha 1\r\nlinha 2\"");
+    }
+
+    @Test
+    void formulaPrefixesAreNeutralized() {
+        assertThat(CsvWriter.escape("=HYPERLINK(\"http://x\")")).isEqualTo("\"'=HYPERLINK(\"\"http://x\"\")\"");
+        assertThat(CsvWriter.escape("+5511999999999")).isEqualTo("'+5511999999999");
+        assertThat(CsvWriter.escape("-2+3")).isEqualTo("'-2+3");
+        assertThat(CsvWriter.escape("@SUM(A1:A2)")).isEqualTo("'@SUM(A1:A2)");
+        assertThat(CsvWriter.escape("\t=1")).isEqualTo("'\t=1");
+        assertThat(CsvWriter.escape("\r=1")).isEqualTo("\"'\r=1\"");
+    }
+
+    @Test
+    void formulaCharactersInsideTheValueAreKept() {
+        assertThat(CsvWriter.escape("a=b")).isEqualTo("a=b");
+        assertThat(CsvWriter.escape("joao@empresa.com")).isEqualTo("joao@empresa.com");
+    }
+
+    @Test
+    void writesBomSeparatorAndCrlf() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+
+        csv.writeRow("Membro", "Progresso (%)");
+        csv.writeRow("Ana; Souza", null);
+        csv.flush();
+
+        assertThat(out.toString()).isEqualTo("\uFEFFMembro;Progresso (%)\r\n\"Ana; Souza\";\r\n");
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.prospera.common.scheduling;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lease das rotinas contra um H2 em modo MySQL, com a mesma tabela da migração V7.
+ * Cada instância do serviço se comporta como uma réplica diferente da API.
+ */
+class JobLockServiceTest {
+
+    private static final String JOB = "test-job";
+
+    private JdbcTemplate jdbcTemplate;
+    private final List<JobLockService> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:job-locks-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE scheduled_job_locks
+                (
+                    name         varchar(100) NOT NULL,
+                    locked_by    varchar(255) NOT NULL,
+                    locked_at    datetime(6)  NOT NULL,
+                    locked_until datetime(6)  NOT NULL,
+                    PRIMARY KEY (name)
+                )
+                """);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(JobLockService::shutdown);
+    }
+
+    @Test
+    void firstNodeAcquiresAndRunsTheTask() {
+        JobLockService node = newNode();
+        AtomicBoolean ran = new AtomicBoolean();
+
+        assertThat(node.runExclusively(JOB, Duration.ofSeconds(30), () -> ran.set(true))).isTrue();
+
+        assertThat(ran).isTrue();
+        assertThat(count(JOB)).isEqualTo(1);
+    }
+
+    @Test
+    void otherNodeSkipsWhileTheLeaseIsValid() {
+        JobLockService first = newNode();
+        JobLockService second = newNode();
+        AtomicBoolean ran = new AtomicBoolean();
+
+        assertThat(first.runExclusively(JOB, Duration.ofSeconds(30), () -> { })).isTrue();
+        String holder = lockedBy(JOB);
+
+        // O UPDATE não vence e o INSERT esbarra na chave primária (DuplicateKeyException)
+        assertThat(second.runExclusively(JOB, Duration.ofSeconds(30), () -> ran.set(true))).isFalse();
+        assertThat(ran).isFalse();
+        assertThat(lockedBy(JOB)).isEqualTo(holder);
+
+        // O próprio dono pode executar de novo dentro do prazo
+        assertThat(first.runExclusively(JOB, Duration.ofSeconds(30), () -> { })).isTrue();
+    }
+
+    @Test
+    void heartbeatRenewsTheLeaseWhileTheTaskRuns() {
+        JobLockService node = newNode();
+        List<Timestamp> seen = new ArrayList<>();
+
+        // Lease de 3 s: renovação a cada segundo
+        node.runExclusively(JOB, Duration.ofSeconds(3), () -> {
+            seen.add(lockedUntil(JOB));
+            sleep(1_500);
+            seen.add(lockedUntil(JOB));
+        });
+
+        assertThat(seen.get(1)).isAfter(seen.get(0));
+    }
+
+    @Test
+    void otherNodeTakesOverAfterTheLeaseExpires() {
+        JobLockService first = newNode();
+        JobLockService second = newNode();
+
+        assertThat(first.runExclusively(JOB, Duration.ofSeconds(1), () -> { })).isTrue();
+        String firstHolder = lockedBy(JOB);
+        assertThat(second.runExclusively(JOB, Duration.ofSeconds(1), () -> { })).isFalse();
+
+        sleep(1_200);
+
+        assertThat(second.runExclusively(JOB, Duration.ofSeconds(1), () -> { })).isTrue();
+        assertThat(lockedBy(JOB)).isNotEqualTo(firstHolder);
+        assertThat(count(JOB)).isEqualTo(1);
+    }
+
+    @Test
+    void releaseLetsAnotherNodeAcquireImmediately() {
+        JobLockService first = newNode();
+        JobLockService second = newNode();
+
+        assertThat(first.tryAcquire(JOB, Duration.ofSeconds(30))).isTrue();
+        assertThat(second.tryAcquire(JOB, Duration.ofSeconds(30))).isFalse();
+
+        first.release(JOB);
+
+        assertThat(second.tryAcquire(JOB, Duration.ofSeconds(30))).isTrue();
+    }
+
+    @Test
+    void onlyOneNodeWinsTheInsertRace() throws Exception {
+        int nodeCount = 8;
+        List<JobLockService> racers = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            racers.add(newNode());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(nodeCount);
+        try {
+            // Várias rodadas, cada uma com um nome ainda sem registro na tabela
+            for (int round = 0; round < 20; round++) {
+                String jobName = JOB + "-" + round;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (JobLockService racer : racers) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return racer.tryAcquire(jobName, Duration.ofSeconds(30));
+                    }));
+                }
+                start.countDown();
+
+                int winners = 0;
+                for (Future<Boolean> result : results) {
+                    if (result.get()) {
+                        winners++;
+                    }
+                }
+                assertThat(winners).as(jobName).isEqualTo(1);
+                assertThat(count(jobName)).isEqualTo(1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private JobLockService newNode() {
+        JobLockService node = new JobLockService(jdbcTemplate);
+        nodes.add(node);
+        return node;
+    }
+
+    private int count(String jobName) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM scheduled_job_locks WHERE name = ?", Integer.class, jobName);
+    }
+
+    private String lockedBy(String jobName) {
+        return jdbcTemplate.queryForObject("SELECT locked_by FROM scheduled_job_locks WHERE name = ?", String.class, jobName);
+    }
+
+    private Timestamp lockedUntil(String jobName) {
+        return jdbcTemplate.queryForObject("SELECT locked_until FROM scheduled_job_locks WHERE name = ?", Timestamp.class, jobName);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
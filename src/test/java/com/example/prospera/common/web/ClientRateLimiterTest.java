@@ -0,0 +1,62 @@
+package com.example.prospera.common.web;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientRateLimiterTest {
+
+    @Test
+    void allowsUpToCapacityThenDenies() {
+        ClientRateLimiter limiter = new ClientRateLimiter(3, 1, 100);
+
+        assertThat(limiter.tryAcquire("10.0.0.1")).isTrue();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isTrue();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isTrue();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isFalse();
+
+        // Outro cliente tem o próprio balde
+        assertThat(limiter.tryAcquire("10.0.0.2")).isTrue();
+    }
+
+    @Test
+    void refillsOverTime() throws InterruptedException {
+        // 60.000 por minuto: uma ficha por milissegundo
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 60_000, 100);
+
+        assertThat(limiter.tryAcquire("10.0.0.1")).isTrue();
+        Thread.sleep(20);
+        assertThat(limiter.tryAcquire("10.0.0.1")).isTrue();
+    }
+
+    @Test
+    void deniesNewClientsWhenFullAndNoBucketCanBeEvicted() {
+        ClientRateLimiter limiter = new ClientRateLimiter(2, 1, 2);
+
+        assertThat(limiter.tryAcquire("10.0.0.1")).isTrue();
+        assertThat(limiter.tryAcquire("10.0.0.2")).isTrue();
+
+        // Os dois baldes ainda estão parcialmente consumidos: nenhum pode ser descartado
+        assertThat(limiter.tryAcquire("10.0.0.3")).isFalse();
+        // Clientes já conhecidos continuam sendo atendidos
+        assertThat(limiter.tryAcquire("10.0.0.1")).isTrue();
+    }
+
+    @Test
+    void evictsFullBucketsToMakeRoomForNewClients() throws InterruptedException {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 60_000, 1);
+
+        assertThat(limiter.tryAcquire("10.0.0.1")).isTrue();
+        Thread.sleep(20); // O balde do primeiro cliente volta a ficar cheio
+
+        assertThat(limiter.tryAcquire("10.0.0.2")).isTrue();
+        // O primeiro cliente foi descartado e, com o mapa cheio, volta a disputar espaço
+        assertThat(limiter.tryAcquire("10.0.0.1")).isFalse();
+    }
+
+    @Test
+    void retryAfterReflectsRefillRate() {
+        assertThat(new ClientRateLimiter(20, 60, 100).retryAfterSeconds()).isEqualTo(1);
+        assertThat(new ClientRateLimiter(20, 1, 100).retryAfterSeconds()).isEqualTo(60);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.prospera.config.jwt;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    private static final UserDetails USER = User.withUsername("aluno@empresa.com").password("x").roles("USER").build();
+
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newService(randomSecret(), 60_000);
+    }
+
+    @Test
+    void verifyReturnsAllClaimsFromASingleParse() {
+        UUID userId = UUID.randomUUID();
+        UUID orgId = UUID.randomUUID();
+        String token = jwtService.generateToken(Map.of(
+                "userId", userId,
+                "roles", List.of("ROLE_USER"),
+                "memberOfOrgs", List.of(orgId),
+                "sv", 3), USER);
+
+        VerifiedToken verified = jwtService.verify(token);
+
+        assertThat(verified.subject()).isEqualTo("aluno@empresa.com");
+        assertThat(verified.userId()).isEqualTo(userId);
+        assertThat(verified.roles()).containsExactly("ROLE_USER");
+        assertThat(verified.memberOfOrgs()).containsExactly(orgId);
+        assertThat(verified.securityVersion()).isEqualTo(3);
+        assertThat(verified.expiresAt()).isAfter(Instant.now());
+        assertThat(jwtService.isTokenValid(verified, USER)).isTrue();
+    }
+
+    @Test
+    void tokensWithoutOptionalClaimsStillVerify() {
+        VerifiedToken verified = jwtService.verify(jwtService.generateToken(Map.of(), USER));
+
+        assertThat(verified.userId()).isNull();
+        assertThat(verified.securityVersion()).isNull();
+        assertThat(verified.roles()).isEmpty();
+        assertThat(verified.memberOfOrgs()).isEmpty();
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherKey() {
+        String foreign = newService(randomSecret(), 60_000).generateToken(Map.of(), USER);
+
+        assertThatThrownBy(() -> jwtService.verify(foreign)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void rejectsTokenWithTamperedPayload() {
+        String[] parts = jwtService.generateToken(Map.of("roles", List.of("ROLE_USER")), USER).split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "{\"sub\":\"aluno@empresa.com\",\"roles\":[\"ROLE_SYSTEM_ADMIN\"],\"exp\":4102444800}"
+                        .getBytes(StandardCharsets.UTF_8));
+        String forged = parts[0] + "." + forgedPayload + "." + parts[2];
+
+        assertThatThrownBy(() -> jwtService.verify(forged)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        JwtService expiring = newService(randomSecret(), -1_000);
+        String token = expiring.generateToken(Map.of(), USER);
+
+        assertThatThrownBy(() -> expiring.verify(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void tokenIsNotValidForAnotherUser() {
+        VerifiedToken verified = jwtService.verify(jwtService.generateToken(Map.of(), USER));
+        UserDetails other = User.withUsername("outro@empresa.com").password("x").roles("USER").build();
+
+        assertThat(jwtService.isTokenValid(verified, other)).isFalse();
+    }
+
+    static JwtService newService(String secret, long expirationMillis) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", secret);
+        ReflectionTestUtils.setField(service, "jwtExpiration", expirationMillis);
+        service.init();
+        return service;
+    }
+
+    static String randomSecret() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+}
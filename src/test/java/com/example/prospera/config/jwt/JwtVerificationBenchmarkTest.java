@@ -0,0 +1,74 @@
+package com.example.prospera.config.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Microbenchmark da verificação de tokens: tokens/s do pipeline antigo (chave e parser criados a
+ * cada chamada e o token lido duas vezes pelo filtro) contra {@link JwtService#verify}.
+ * <p>
+ * Fora da suíte normal; para rodar: {@code mvn test -Dbenchmarks=true -Dtest=JwtVerificationBenchmarkTest}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class JwtVerificationBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final long MEASURE_NANOS = TimeUnit.SECONDS.toNanos(3);
+
+    @Test
+    void verifyIsFasterThanThePreviousPipeline() {
+        String secret = JwtServiceTest.randomSecret();
+        JwtService jwtService = JwtServiceTest.newService(secret, 60_000);
+        String token = jwtService.generateToken(Map.of(
+                "userId", UUID.randomUUID(),
+                "roles", List.of("ROLE_USER"),
+                "memberOfOrgs", List.of(UUID.randomUUID()),
+                "sv", 0), User.withUsername("aluno@empresa.com").password("x").roles("USER").build());
+
+        double before = tokensPerSecond(token, t -> {
+            // Como era: extractUsername e, em isTokenValid, extractUsername + extractExpiration,
+            // cada um com chave e parser novos.
+            for (int i = 0; i < 3; i++) {
+                Claims claims = Jwts.parser()
+                        .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                        .build()
+                        .parseSignedClaims(t)
+                        .getPayload();
+                claims.getSubject();
+            }
+        });
+        double after = tokensPerSecond(token, jwtService::verify);
+
+        System.out.printf("Verificação de JWT: antes %.0f tokens/s, depois %.0f tokens/s (%.1fx)%n",
+                before, after, after / before);
+        assertThat(after).isGreaterThan(before);
+    }
+
+    private static double tokensPerSecond(String token, Consumer<String> verification) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            verification.accept(token);
+        }
+        long count = 0;
+        long startedAt = System.nanoTime();
+        long elapsed;
+        do {
+            verification.accept(token);
+            count++;
+            elapsed = System.nanoTime() - startedAt;
+        } while (elapsed < MEASURE_NANOS);
+        return count * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+}
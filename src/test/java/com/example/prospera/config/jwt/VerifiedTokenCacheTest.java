@@ -0,0 +1,118 @@
+package com.example.prospera.config.jwt;
+
+import io.jsonwebtoken.MalformedJwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VerifiedTokenCacheTest {
+
+    private static final String TOKEN = "header.payload.signature";
+
+    private JwtService jwtService;
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = mock(JwtService.class);
+        cache = new VerifiedTokenCache(jwtService);
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+    }
+
+    @Test
+    void repeatedRequestsWithTheSameTokenAreVerifiedOnce() {
+        VerifiedToken verified = token(UUID.randomUUID(), Instant.now().plusSeconds(600));
+        when(jwtService.verify(TOKEN)).thenReturn(verified);
+
+        assertThat(cache.verify(TOKEN)).isSameAs(verified);
+        assertThat(cache.verify(TOKEN)).isSameAs(verified);
+
+        verify(jwtService, times(1)).verify(TOKEN);
+    }
+
+    @Test
+    void concurrentMissesShareASingleVerification() throws Exception {
+        VerifiedToken verified = token(UUID.randomUUID(), Instant.now().plusSeconds(600));
+        CountDownLatch verifying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jwtService.verify(TOKEN)).thenAnswer(invocation -> {
+            verifying.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return verified;
+        });
+
+        int requests = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<VerifiedToken>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.verify(TOKEN)));
+            assertThat(verifying.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 1; i < requests; i++) {
+                results.add(executor.submit(() -> cache.verify(TOKEN)));
+            }
+            Thread.sleep(100); // As demais requisições chegam enquanto a primeira verifica
+            release.countDown();
+
+            for (Future<VerifiedToken> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(verified);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(jwtService, times(1)).verify(TOKEN);
+    }
+
+    @Test
+    void invalidTokensAreNotCached() {
+        when(jwtService.verify(TOKEN)).thenThrow(new MalformedJwtException("inválido"));
+
+        assertThatThrownBy(() -> cache.verify(TOKEN)).isInstanceOf(MalformedJwtException.class);
+        assertThatThrownBy(() -> cache.verify(TOKEN)).isInstanceOf(MalformedJwtException.class);
+
+        verify(jwtService, times(2)).verify(TOKEN);
+    }
+
+    @Test
+    void entriesDoNotOutliveTheTokenExpiry() {
+        when(jwtService.verify(TOKEN)).thenReturn(token(UUID.randomUUID(), Instant.now().minusSeconds(1)));
+
+        cache.verify(TOKEN);
+        cache.verify(TOKEN);
+
+        verify(jwtService, times(2)).verify(TOKEN);
+    }
+
+    @Test
+    void invalidateUserForcesANewVerification() {
+        UUID userId = UUID.randomUUID();
+        when(jwtService.verify(TOKEN)).thenReturn(token(userId, Instant.now().plusSeconds(600)));
+
+        cache.verify(TOKEN);
+        cache.invalidateUser(userId);
+        cache.verify(TOKEN);
+
+        verify(jwtService, times(2)).verify(TOKEN);
+    }
+
+    private static VerifiedToken token(UUID userId, Instant expiresAt) {
+        return new VerifiedToken("aluno@empresa.com", userId, List.of("ROLE_USER"), List.of(), 0, Instant.now(), expiresAt);
+    }
+}
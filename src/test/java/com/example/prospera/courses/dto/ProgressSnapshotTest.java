@@ -0,0 +1,64 @@
+package com.example.prospera.courses.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProgressSnapshotTest {
+
+    @Test
+    void marksCompletedLessonsByPosition() {
+        CourseStructure structure = structure(5);
+        List<CourseStructure.LessonNode> lessons = structure.lessons();
+
+        ProgressSnapshot snapshot = ProgressSnapshot.of(UUID.randomUUID(), structure,
+                Set.of(lessons.get(0).id(), lessons.get(3).id()));
+
+        assertThat(snapshot.isCompleted(lessons.get(0).id())).isTrue();
+        assertThat(snapshot.isCompleted(lessons.get(1).id())).isFalse();
+        assertThat(snapshot.isCompletedAt(3)).isTrue();
+        assertThat(snapshot.isCompletedAt(4)).isFalse();
+        assertThat(snapshot.completedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void ignoresLessonsThatAreNoLongerInTheCourse() {
+        CourseStructure structure = structure(2);
+
+        ProgressSnapshot snapshot = ProgressSnapshot.of(UUID.randomUUID(), structure,
+                Set.of(structure.lessons().get(1).id(), UUID.randomUUID()));
+
+        assertThat(snapshot.completedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void emptySnapshotHasNothingCompleted() {
+        ProgressSnapshot empty = ProgressSnapshot.empty();
+
+        assertThat(empty.enrollmentId()).isNull();
+        assertThat(empty.isCompleted(UUID.randomUUID())).isFalse();
+        assertThat(empty.completedCount()).isZero();
+    }
+
+    private static CourseStructure structure(int lessonCount) {
+        UUID moduleId = UUID.randomUUID();
+        List<CourseStructure.LessonNode> lessons = new ArrayList<>();
+        Map<UUID, Integer> positions = new HashMap<>();
+        for (int i = 0; i < lessonCount; i++) {
+            CourseStructure.LessonNode lesson = new CourseStructure.LessonNode(
+                    UUID.randomUUID(), moduleId, "Aula " + (i + 1), null, i + 1, null, 10);
+            positions.put(lesson.id(), i);
+            lessons.add(lesson);
+        }
+        return new CourseStructure(UUID.randomUUID(),
+                List.of(new CourseStructure.ModuleNode(moduleId, "Módulo 1", 1, lessons)),
+                lessons, positions, lessonCount * 10);
+    }
+}
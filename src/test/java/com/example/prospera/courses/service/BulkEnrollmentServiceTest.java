@@ -0,0 +1,228 @@
+package com.example.prospera.courses.service;
+
+import com.example.prospera.common.events.EntitlementsChangedEvent;
+import com.example.prospera.courses.domain.BulkEnrollmentJob;
+import com.example.prospera.courses.domain.enums.BulkJobStatus;
+import com.example.prospera.courses.dto.BulkEnrollmentJobDTO;
+import com.example.prospera.courses.repositories.BulkEnrollmentJobRepository;
+import com.example.prospera.courses.repositories.TrainingRepository;
+import com.example.prospera.enterprise.repositories.MembershipRepository;
+import com.example.prospera.exceptions.BusinessRuleException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkEnrollmentServiceTest {
+
+    private final UUID organizationId = UUID.randomUUID();
+    private final UUID trainingId = UUID.randomUUID();
+    private final UUID jobId = UUID.randomUUID();
+
+    private TrainingRepository trainingRepository;
+    private MembershipRepository membershipRepository;
+    private BulkEnrollmentJobRepository jobRepository;
+    private JdbcTemplate jdbcTemplate;
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        trainingRepository = mock(TrainingRepository.class);
+        membershipRepository = mock(MembershipRepository.class);
+        jobRepository = mock(BulkEnrollmentJobRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+
+        when(trainingRepository.existsById(trainingId)).thenReturn(true);
+        when(membershipRepository.findMemberUserIds(eq(organizationId), anyList()))
+                .thenAnswer(invocation -> {
+                    List<UUID> userIds = invocation.getArgument(1);
+                    return new HashSet<>(userIds);
+                });
+        when(jobRepository.save(any(BulkEnrollmentJob.class))).thenAnswer(invocation -> {
+            BulkEnrollmentJob job = invocation.getArgument(0);
+            job.setId(jobId);
+            return job;
+        });
+    }
+
+    @Test
+    void duplicatedUsersInTheRequestAreEnrolledOnce() {
+        UUID ana = UUID.randomUUID();
+        UUID bruno = UUID.randomUUID();
+        List<List<Object[]>> batches = everyInsertSucceeds();
+
+        BulkEnrollmentJobDTO result = service(Runnable::run).enroll(organizationId, trainingId, List.of(ana, bruno, ana));
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).hasSize(2);
+        assertThat(result.jobId()).isNull();
+        assertThat(result.status()).isEqualTo(BulkJobStatus.COMPLETED);
+        assertThat(result.requested()).isEqualTo(2);
+        assertThat(result.created()).isEqualTo(2);
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    void alreadyEnrolledUsersAreCountedAsSkipped() {
+        UUID ana = UUID.randomUUID();
+        UUID bruno = UUID.randomUUID();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 0});
+
+        BulkEnrollmentJobDTO result = service(Runnable::run).enroll(organizationId, trainingId, List.of(ana, bruno));
+
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.skipped()).isEqualTo(1);
+        verify(eventPublisher).publishEvent(EntitlementsChangedEvent.forUser(ana));
+        verify(eventPublisher, never()).publishEvent(EntitlementsChangedEvent.forUser(bruno));
+    }
+
+    @Test
+    void nonMemberRejectsTheWholeBatch() {
+        UUID member = UUID.randomUUID();
+        UUID outsider = UUID.randomUUID();
+        when(membershipRepository.findMemberUserIds(eq(organizationId), anyList())).thenReturn(Set.of(member));
+
+        assertThatThrownBy(() -> service(Runnable::run).enroll(organizationId, trainingId, List.of(member, outsider)))
+                .isInstanceOf(AccessDeniedException.class);
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void largeBatchRunsInBackgroundAndRecordsProgressPerChunk() {
+        everyInsertSucceeds();
+
+        BulkEnrollmentJobDTO result = asyncService(Runnable::run).enroll(organizationId, trainingId, users(1_500));
+
+        assertThat(result.jobId()).isEqualTo(jobId);
+        assertThat(result.status()).isEqualTo(BulkJobStatus.QUEUED);
+        verify(jobRepository).addProgress(jobId, 1_000, 1_000);
+        verify(jobRepository).addProgress(jobId, 500, 500);
+        verify(jobRepository).updateStatus(eq(jobId), eq(BulkJobStatus.RUNNING), isNull(), isNull());
+        verify(jobRepository).updateStatus(eq(jobId), eq(BulkJobStatus.COMPLETED), isNull(), notNull());
+    }
+
+    @Test
+    void failureKeepsEarlierChunksAndMarksTheJobFailed() {
+        AtomicInteger calls = new AtomicInteger();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 2) {
+                throw new DataAccessResourceFailureException("Communications link failure");
+            }
+            List<Object[]> rows = invocation.getArgument(1);
+            return ones(rows.size());
+        });
+
+        asyncService(Runnable::run).enroll(organizationId, trainingId, users(2_500));
+
+        verify(jobRepository, times(1)).addProgress(eq(jobId), anyInt(), anyInt());
+        verify(jobRepository).addProgress(jobId, 1_000, 1_000);
+        verify(jobRepository).updateStatus(eq(jobId), eq(BulkJobStatus.FAILED), notNull(), notNull());
+        verify(jobRepository, never()).updateStatus(eq(jobId), eq(BulkJobStatus.COMPLETED), any(), any());
+    }
+
+    @Test
+    void rejectedBatchIsNotLeftQueued() {
+        Executor saturated = task -> {
+            throw new RejectedExecutionException("fila cheia");
+        };
+
+        assertThatThrownBy(() -> asyncService(saturated).enroll(organizationId, trainingId, users(10)))
+                .isInstanceOf(BusinessRuleException.class);
+
+        verify(jobRepository).deleteById(jobId);
+    }
+
+    @Test
+    void jobStatusIsReadFromTheDatabase() {
+        BulkEnrollmentJob job = BulkEnrollmentJob.builder()
+                .id(jobId)
+                .organizationId(organizationId)
+                .trainingId(trainingId)
+                .status(BulkJobStatus.RUNNING)
+                .requested(2_000)
+                .processed(1_000)
+                .created(900)
+                .build();
+        when(jobRepository.findByIdAndOrganizationId(jobId, organizationId)).thenReturn(Optional.of(job));
+
+        Optional<BulkEnrollmentJobDTO> found = service(Runnable::run).findJob(organizationId, jobId);
+
+        assertThat(found).hasValueSatisfying(dto -> {
+            assertThat(dto.status()).isEqualTo(BulkJobStatus.RUNNING);
+            assertThat(dto.processed()).isEqualTo(1_000);
+            assertThat(dto.skipped()).isEqualTo(100);
+        });
+        assertThat(service(Runnable::run).findJob(UUID.randomUUID(), jobId)).isEmpty();
+    }
+
+    private BulkEnrollmentService service(Executor executor) {
+        BulkEnrollmentService service = new BulkEnrollmentService(trainingRepository, membershipRepository, jobRepository,
+                jdbcTemplate, new TransactionTemplate(mock(PlatformTransactionManager.class)), eventPublisher, executor);
+        ReflectionTestUtils.setField(service, "asyncThreshold", 500);
+        return service;
+    }
+
+    private BulkEnrollmentService asyncService(Executor executor) {
+        BulkEnrollmentService service = service(executor);
+        ReflectionTestUtils.setField(service, "asyncThreshold", 1);
+        return service;
+    }
+
+    private List<List<Object[]>> everyInsertSucceeds() {
+        List<List<Object[]>> batches = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            batches.add(rows);
+            return ones(rows.size());
+        });
+        return batches;
+    }
+
+    private static int[] ones(int size) {
+        int[] counts = new int[size];
+        Arrays.fill(counts, 1);
+        return counts;
+    }
+
+    private static List<UUID> users(int count) {
+        List<UUID> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(UUID.randomUUID());
+        }
+        return users;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.prospera.courses.service;
+
+import com.example.prospera.common.events.EntitlementsChangedEvent;
+import com.example.prospera.common.jdbc.UuidBinary;
+import com.example.prospera.common.scheduling.JobLockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Reconciliação contra um H2 em modo MySQL, com as colunas das tabelas envolvidas na V1.
+ */
+class CompulsoryEnrollmentReconcilerTest {
+
+    private final UUID organizationId = UUID.randomUUID();
+    private final UUID sectorId = UUID.randomUUID();
+    private final UUID trainingId = UUID.randomUUID();
+
+    private JdbcTemplate jdbc;
+    private ApplicationEventPublisher eventPublisher;
+    private CompulsoryEnrollmentReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:compulsory-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("""
+                CREATE TABLE memberships
+                (
+                    id              binary(16) NOT NULL PRIMARY KEY,
+                    organization_id binary(16) NOT NULL,
+                    auth_user_id    binary(16) NOT NULL
+                )
+                """);
+        jdbc.execute("""
+                CREATE TABLE user_sectors
+                (
+                    id              binary(16) NOT NULL PRIMARY KEY,
+                    organization_id binary(16),
+                    sector_id       binary(16) NOT NULL,
+                    user_id         binary(16) NOT NULL,
+                    UNIQUE (user_id, sector_id)
+                )
+                """);
+        jdbc.execute("""
+                CREATE TABLE training_sector_assignments
+                (
+                    id            binary(16)  NOT NULL PRIMARY KEY,
+                    sector_id     binary(16)  NOT NULL,
+                    training_id   binary(16)  NOT NULL,
+                    training_type varchar(20) NOT NULL
+                )
+                """);
+        jdbc.execute("""
+                CREATE TABLE trainings
+                (
+                    id              binary(16)  NOT NULL PRIMARY KEY,
+                    organization_id binary(16),
+                    status          varchar(20)
+                )
+                """);
+        jdbc.execute("""
+                CREATE TABLE course_enrollments
+                (
+                    id                binary(16)  NOT NULL PRIMARY KEY,
+                    auth_user_id      binary(16)  NOT NULL,
+                    training_id       binary(16)  NOT NULL,
+                    organization_id   binary(16),
+                    status            varchar(20) NOT NULL,
+                    enrolled_at       datetime(6) NOT NULL,
+                    completed_lessons int         NOT NULL,
+                    UNIQUE (auth_user_id, training_id)
+                )
+                """);
+
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        reconciler = new CompulsoryEnrollmentReconciler(new NamedParameterJdbcTemplate(dataSource),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), eventPublisher, mock(JobLockService.class));
+        ReflectionTestUtils.setField(reconciler, "batchSize", 1000);
+
+        training(trainingId, "PUBLISHED");
+        assign(sectorId, trainingId, "COMPULSORY");
+    }
+
+    @Test
+    void memberOfTheSectorIsEnrolled() {
+        UUID userId = member();
+
+        assertThat(reconciler.reconcile(null, null, null)).isEqualTo(1);
+
+        assertThat(enrolledUsers()).containsExactly(userId);
+        verify(eventPublisher).publishEvent(EntitlementsChangedEvent.forAllUsers());
+    }
+
+    @Test
+    void removedMemberIsNotEnrolled() {
+        UUID stays = member();
+        UUID removed = member();
+        jdbc.update("DELETE FROM memberships WHERE auth_user_id = ?", (Object) bytes(removed));
+
+        reconciler.reconcile(null, null, null);
+
+        // A linha em user_sectors continua lá, mas sem vínculo com a organização não há matrícula.
+        assertThat(enrolledUsers()).containsExactly(stays);
+    }
+
+    @Test
+    void electiveAndUnpublishedTrainingsAreIgnored() {
+        UUID elective = UUID.randomUUID();
+        training(elective, "PUBLISHED");
+        assign(sectorId, elective, "ELECTIVE");
+        UUID draft = UUID.randomUUID();
+        training(draft, "DRAFT");
+        assign(sectorId, draft, "COMPULSORY");
+        member();
+
+        assertThat(reconciler.reconcile(null, null, null)).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM course_enrollments WHERE training_id = ?", Integer.class,
+                (Object) bytes(trainingId))).isEqualTo(1);
+    }
+
+    @Test
+    void pagesThroughMoreMissingEnrollmentsThanTheBatchSize() {
+        ReflectionTestUtils.setField(reconciler, "batchSize", 2);
+        List<UUID> members = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            members.add(member());
+        }
+        // Já matriculado: não conta e não interrompe a paginação.
+        enroll(members.get(0), trainingId);
+
+        assertThat(reconciler.reconcile(null, null, null)).isEqualTo(4);
+        assertThat(enrolledUsers()).containsExactlyInAnyOrderElementsOf(members);
+    }
+
+    @Test
+    void sameTrainingInTwoSectorsCreatesOneEnrollment() {
+        UUID otherSector = UUID.randomUUID();
+        assign(otherSector, trainingId, "COMPULSORY");
+        UUID userId = member();
+        jdbc.update("INSERT INTO user_sectors (id, organization_id, sector_id, user_id) VALUES (?, ?, ?, ?)",
+                bytes(UUID.randomUUID()), bytes(organizationId), bytes(otherSector), bytes(userId));
+
+        assertThat(reconciler.reconcile(null, null, null)).isEqualTo(1);
+    }
+
+    @Test
+    void userFilterOnlyTouchesThatUser() {
+        UUID target = member();
+        member();
+
+        assertThat(reconciler.reconcile(null, null, target)).isEqualTo(1);
+
+        assertThat(enrolledUsers()).containsExactly(target);
+        verify(eventPublisher).publishEvent(EntitlementsChangedEvent.forUser(target));
+    }
+
+    @Test
+    void nothingMissingPublishesNothing() {
+        UUID userId = member();
+        enroll(userId, trainingId);
+
+        assertThat(reconciler.reconcile(null, null, null)).isZero();
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private UUID member() {
+        UUID userId = UUID.randomUUID();
+        jdbc.update("INSERT INTO memberships (id, organization_id, auth_user_id) VALUES (?, ?, ?)",
+                bytes(UUID.randomUUID()), bytes(organizationId), bytes(userId));
+        jdbc.update("INSERT INTO user_sectors (id, organization_id, sector_id, user_id) VALUES (?, ?, ?, ?)",
+                bytes(UUID.randomUUID()), bytes(organizationId), bytes(sectorId), bytes(userId));
+        return userId;
+    }
+
+    private void training(UUID id, String status) {
+        jdbc.update("INSERT INTO trainings (id, organization_id, status) VALUES (?, NULL, ?)", bytes(id), status);
+    }
+
+    private void assign(UUID sector, UUID training, String type) {
+        jdbc.update("INSERT INTO training_sector_assignments (id, sector_id, training_id, training_type) VALUES (?, ?, ?, ?)",
+                bytes(UUID.randomUUID()), bytes(sector), bytes(training), type);
+    }
+
+    private void enroll(UUID userId, UUID training) {
+        jdbc.update("INSERT INTO course_enrollments (id, auth_user_id, training_id, organization_id, status, enrolled_at, completed_lessons) " +
+                        "VALUES (?, ?, ?, ?, 'ACTIVE', CURRENT_TIMESTAMP(6), 0)",
+                bytes(UUID.randomUUID()), bytes(userId), bytes(training), bytes(organizationId));
+    }
+
+    private List<UUID> enrolledUsers() {
+        return jdbc.queryForList("SELECT auth_user_id FROM course_enrollments", byte[].class).stream()
+                .map(UuidBinary::fromBytes)
+                .toList();
+    }
+
+    private static byte[] bytes(UUID uuid) {
+        return UuidBinary.toBytes(uuid);
+    }
+}
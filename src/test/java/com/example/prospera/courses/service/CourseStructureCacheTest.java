@@ -0,0 +1,162 @@
+package com.example.prospera.courses.service;
+
+import com.example.prospera.common.events.CourseStructureChangedEvent;
+import com.example.prospera.courses.domain.Lesson;
+import com.example.prospera.courses.domain.Module;
+import com.example.prospera.courses.dto.CourseStructure;
+import com.example.prospera.courses.repositories.LessonRepository;
+import com.example.prospera.courses.repositories.ModuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CourseStructureCacheTest {
+
+    private final UUID trainingId = UUID.randomUUID();
+
+    private ModuleRepository moduleRepository;
+    private LessonRepository lessonRepository;
+    private PlatformTransactionManager transactionManager;
+    private CourseStructureCache cache;
+
+    private Module module;
+    private Lesson first;
+    private Lesson second;
+
+    @BeforeEach
+    void setUp() {
+        moduleRepository = mock(ModuleRepository.class);
+        lessonRepository = mock(LessonRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        cache = new CourseStructureCache(moduleRepository, lessonRepository, transactionManager);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+
+        module = module(1);
+        first = lesson(module, 1, 10);
+        second = lesson(module, 2, 15);
+    }
+
+    @Test
+    void missBuildsInsideATransaction() {
+        stubCourse(List.of(module), List.of(first, second));
+
+        CourseStructure structure = cache.get(trainingId);
+
+        assertThat(structure.lessonCount()).isEqualTo(2);
+        assertThat(structure.totalMinutes()).isEqualTo(25);
+        assertThat(structure.next(first.getId())).map(CourseStructure.LessonNode::id).contains(second.getId());
+        verify(transactionManager).getTransaction(any());
+    }
+
+    @Test
+    void hitNeitherQueriesNorOpensATransaction() {
+        stubCourse(List.of(module), List.of(first, second));
+        cache.get(trainingId);
+
+        cache.get(trainingId);
+        Optional<CourseStructure> byLesson = cache.findByLessonId(second.getId());
+
+        assertThat(byLesson).map(CourseStructure::trainingId).contains(trainingId);
+        verify(moduleRepository, times(1)).findAllByCourse_IdOrderByModuleOrder(trainingId);
+        verify(lessonRepository, never()).findTrainingIdByLessonId(any());
+        verify(transactionManager, times(1)).getTransaction(any());
+    }
+
+    @Test
+    void emptyStructureIsCached() {
+        stubCourse(List.of(), List.of());
+
+        assertThat(cache.get(trainingId).isEmpty()).isTrue();
+        assertThat(cache.get(trainingId).isEmpty()).isTrue();
+
+        verify(moduleRepository, times(1)).findAllByCourse_IdOrderByModuleOrder(trainingId);
+    }
+
+    @Test
+    void unknownLessonIsResolvedThroughTheRepository() {
+        stubCourse(List.of(module), List.of(first, second));
+        when(lessonRepository.findTrainingIdByLessonId(first.getId())).thenReturn(Optional.of(trainingId));
+        UUID missing = UUID.randomUUID();
+        when(lessonRepository.findTrainingIdByLessonId(missing)).thenReturn(Optional.empty());
+
+        assertThat(cache.findByLessonId(first.getId())).map(CourseStructure::lessonCount).contains(2);
+        assertThat(cache.findByLessonId(missing)).isEmpty();
+    }
+
+    @Test
+    void changeEventDropsTheStructure() {
+        Lesson third = lesson(module, 3, 5);
+        when(moduleRepository.findAllByCourse_IdOrderByModuleOrder(trainingId)).thenReturn(List.of(module));
+        when(lessonRepository.findAllByCourseIdOrdered(trainingId))
+                .thenReturn(List.of(first, second), List.of(first, second, third));
+        cache.get(trainingId);
+
+        cache.onCourseStructureChanged(new CourseStructureChangedEvent(trainingId));
+
+        assertThat(cache.get(trainingId).lessonCount()).isEqualTo(3);
+    }
+
+    @Test
+    void expiredStructureIsRebuilt() {
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 0L);
+        stubCourse(List.of(module), List.of(first, second));
+
+        cache.get(trainingId);
+        cache.get(trainingId);
+
+        verify(moduleRepository, times(2)).findAllByCourse_IdOrderByModuleOrder(trainingId);
+    }
+
+    @Test
+    void buildStartedBeforeAChangeIsNotCached() {
+        // Uma aula é adicionada enquanto a estrutura antiga está sendo montada.
+        when(moduleRepository.findAllByCourse_IdOrderByModuleOrder(trainingId))
+                .thenAnswer(invocation -> {
+                    cache.onCourseStructureChanged(new CourseStructureChangedEvent(trainingId));
+                    return List.of(module);
+                })
+                .thenReturn(List.of(module));
+        when(lessonRepository.findAllByCourseIdOrdered(trainingId)).thenReturn(List.of(first, second));
+
+        cache.get(trainingId);
+        cache.get(trainingId);
+
+        verify(moduleRepository, times(2)).findAllByCourse_IdOrderByModuleOrder(trainingId);
+    }
+
+    private void stubCourse(List<Module> modules, List<Lesson> lessons) {
+        when(moduleRepository.findAllByCourse_IdOrderByModuleOrder(trainingId)).thenReturn(modules);
+        when(lessonRepository.findAllByCourseIdOrdered(trainingId)).thenReturn(lessons);
+    }
+
+    private static Module module(int order) {
+        Module module = new Module();
+        module.setId(UUID.randomUUID());
+        module.setTitle("Módulo " + order);
+        module.setModuleOrder(order);
+        return module;
+    }
+
+    private static Lesson lesson(Module module, int order, int minutes) {
+        Lesson lesson = new Lesson();
+        lesson.setId(UUID.randomUUID());
+        lesson.setModule(module);
+        lesson.setTitle("Aula " + order);
+        lesson.setLessonOrder(order);
+        lesson.setDurationInMinutes(minutes);
+        return lesson;
+    }
+}
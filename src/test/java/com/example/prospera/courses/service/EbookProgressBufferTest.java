@@ -0,0 +1,148 @@
+package com.example.prospera.courses.service;
+
+import com.example.prospera.common.jdbc.UuidBinary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EbookProgressBufferTest {
+
+    private final UUID trainingId = UUID.randomUUID();
+    private final UUID healthyUser = UUID.randomUUID();
+    private final UUID brokenUser = UUID.randomUUID();
+
+    private JdbcTemplate jdbcTemplate;
+    private EbookProgressBuffer buffer;
+
+    // Usuários cuja linha falha quando gravada sozinha, e com qual erro.
+    private final Set<UUID> integrityFailures = new HashSet<>();
+    private final Set<UUID> transientFailures = new HashSet<>();
+    private boolean databaseDown;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        buffer = new EbookProgressBuffer(jdbcTemplate);
+        ReflectionTestUtils.setField(buffer, "writeBehind", true);
+        ReflectionTestUtils.setField(buffer, "maxAttempts", 3);
+
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            if (databaseDown) {
+                throw new DataAccessResourceFailureException("Communications link failure");
+            }
+            for (Object[] row : rows) {
+                UUID userId = userIdOf(row);
+                if (integrityFailures.contains(userId)) {
+                    throw new DataIntegrityViolationException("Cannot add or update a child row");
+                }
+                if (transientFailures.contains(userId)) {
+                    throw new QueryTimeoutException("Lock wait timeout exceeded");
+                }
+            }
+            return new int[rows.size()];
+        });
+    }
+
+    @Test
+    void flushWritesAndClearsPendingEntries() {
+        buffer.record(healthyUser, trainingId, 12);
+
+        buffer.flush();
+
+        assertThat(buffer.find(healthyUser, trainingId)).isEmpty();
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void integrityViolationDropsOnlyTheOffendingEntry() {
+        integrityFailures.add(brokenUser);
+        buffer.record(healthyUser, trainingId, 12);
+        buffer.record(brokenUser, trainingId, 7);
+
+        buffer.flush();
+
+        assertThat(buffer.find(healthyUser, trainingId)).isEmpty();
+        assertThat(buffer.find(brokenUser, trainingId)).isEmpty();
+
+        // O lote não volta a ser reenviado.
+        buffer.flush();
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void entryThatKeepsFailingIsDroppedAfterMaxAttempts() {
+        transientFailures.add(brokenUser);
+        buffer.record(brokenUser, trainingId, 7);
+        buffer.record(healthyUser, trainingId, 12);
+
+        buffer.flush();
+        buffer.record(healthyUser, trainingId, 13);
+        buffer.flush();
+        assertThat(buffer.find(brokenUser, trainingId)).isPresent();
+
+        buffer.record(healthyUser, trainingId, 14);
+        buffer.flush();
+
+        assertThat(buffer.find(brokenUser, trainingId)).isEmpty();
+        assertThat(buffer.find(healthyUser, trainingId)).isEmpty();
+    }
+
+    @Test
+    void unavailableDatabaseKeepsEverythingWithoutCountingAttempts() {
+        databaseDown = true;
+        buffer.record(healthyUser, trainingId, 12);
+        buffer.record(brokenUser, trainingId, 7);
+
+        for (int i = 0; i < 10; i++) {
+            buffer.flush();
+        }
+
+        assertThat(buffer.find(healthyUser, trainingId)).isPresent();
+        assertThat(buffer.find(brokenUser, trainingId)).isPresent();
+
+        databaseDown = false;
+        buffer.flush();
+
+        assertThat(buffer.find(healthyUser, trainingId)).isEmpty();
+        assertThat(buffer.find(brokenUser, trainingId)).isEmpty();
+    }
+
+    @Test
+    void newerPageReceivedDuringTheWriteStaysPending() {
+        doAnswer(invocation -> {
+            buffer.record(healthyUser, trainingId, 13);
+            List<Object[]> rows = invocation.getArgument(1);
+            return new int[rows.size()];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        buffer.record(healthyUser, trainingId, 12);
+
+        buffer.flush();
+
+        assertThat(buffer.find(healthyUser, trainingId))
+                .map(EbookProgressBuffer.PendingProgress::lastPageRead)
+                .contains(13);
+    }
+
+    private static UUID userIdOf(Object[] row) {
+        return UuidBinary.fromBytes((byte[]) row[3]);
+    }
+}
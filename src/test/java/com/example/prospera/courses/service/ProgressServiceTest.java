@@ -0,0 +1,105 @@
+package com.example.prospera.courses.service;
+
+import com.example.prospera.common.events.EnrollmentCompletedEvent;
+import com.example.prospera.courses.dto.CourseStructure;
+import com.example.prospera.courses.repositories.EbookProgressRepository;
+import com.example.prospera.courses.repositories.EnrollmentRepository;
+import com.example.prospera.courses.repositories.TrainingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProgressServiceTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID trainingId = UUID.randomUUID();
+    private final UUID enrollmentId = UUID.randomUUID();
+    private final UUID lessonId = UUID.randomUUID();
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+    @Mock
+    private EbookProgressRepository ebookProgressRepository;
+    @Mock
+    private TrainingRepository trainingRepository;
+    @Mock
+    private CourseStructureCache courseStructureCache;
+    @Mock
+    private EbookProgressBuffer ebookProgressBuffer;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ProgressService progressService;
+
+    @BeforeEach
+    void setUp() {
+        UUID moduleId = UUID.randomUUID();
+        CourseStructure.LessonNode lesson = new CourseStructure.LessonNode(lessonId, moduleId, "Aula", null, 1, null, 10);
+        CourseStructure structure = new CourseStructure(trainingId,
+                List.of(new CourseStructure.ModuleNode(moduleId, "Módulo", 1, List.of(lesson))),
+                List.of(lesson), Map.of(lessonId, 0), 10);
+        when(courseStructureCache.findByLessonId(lessonId)).thenReturn(Optional.of(structure));
+        when(enrollmentRepository.findIdByUserIdAndTrainingId(userId, trainingId)).thenReturn(Optional.of(enrollmentId));
+    }
+
+    @Test
+    void firstCompletionCountsTheLessonAndCompletesTheCourse() {
+        when(enrollmentRepository.completeIfAllLessonsDone(eq(enrollmentId), eq(1), any())).thenReturn(1);
+
+        progressService.markLessonAsCompleted(userId, lessonId);
+
+        verify(enrollmentRepository).incrementCompletedLessons(enrollmentId);
+        verify(eventPublisher).publishEvent(new EnrollmentCompletedEvent(enrollmentId));
+    }
+
+    @Test
+    void duplicateCompletionIsRejectedWithoutCountingAgain() {
+        doThrow(new DuplicateKeyException("Duplicate entry"))
+                .when(jdbcTemplate).update(anyString(), any(Object[].class));
+
+        assertThatThrownBy(() -> progressService.markLessonAsCompleted(userId, lessonId))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("já foi marcada");
+
+        verify(enrollmentRepository, never()).incrementCompletedLessons(any());
+        verify(enrollmentRepository, never()).completeIfAllLessonsDone(any(), anyInt(), any());
+    }
+
+    @Test
+    void otherIntegrityErrorsAreNotSwallowed() {
+        // Ex.: matrícula apagada entre a leitura do ID e o insert (violação de chave estrangeira).
+        doThrow(new DataIntegrityViolationException("Cannot add or update a child row"))
+                .when(jdbcTemplate).update(anyString(), any(Object[].class));
+
+        assertThatThrownBy(() -> progressService.markLessonAsCompleted(userId, lessonId))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        verify(enrollmentRepository, never()).incrementCompletedLessons(any());
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.prospera.db;
+
+import com.example.prospera.common.jdbc.UuidBinary;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Roda a V5 (deduplicação de matrículas) em um MySQL real, com dados gravados no esquema da V4.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class EnrollmentDeduplicationMigrationTest {
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    private static final Instant DAY_ONE = Instant.parse("2025-01-01T10:00:00Z");
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID trainingId = UUID.randomUUID();
+    private final UUID firstLesson = UUID.randomUUID();
+    private final UUID secondLesson = UUID.randomUUID();
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void migrateUpToV4() {
+        dataSource = new DriverManagerDataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+        Flyway flyway = flyway("4");
+        flyway.clean();
+        flyway.migrate();
+        jdbc = new JdbcTemplate(dataSource);
+
+        Timestamp now = Timestamp.from(DAY_ONE);
+        jdbc.update("INSERT INTO auth_users (id, email, enabled, password, role) VALUES (?, ?, b'1', 'x', 'USER')",
+                bytes(userId), "aluno@empresa.com");
+        jdbc.update("INSERT INTO trainings (entity_type, id, author, created_at, description, status, title, updated_at) " +
+                "VALUES ('RECORDED_COURSE', ?, 'Autor', ?, 'Descrição', 'PUBLISHED', 'NR-10', ?)", bytes(trainingId), now, now);
+        UUID moduleId = UUID.randomUUID();
+        jdbc.update("INSERT INTO training_modules (id, created_at, module_order, title, updated_at, training_id) " +
+                "VALUES (?, ?, 1, 'Módulo', ?, ?)", bytes(moduleId), now, now, bytes(trainingId));
+        for (UUID lessonId : List.of(firstLesson, secondLesson)) {
+            jdbc.update("INSERT INTO course_lessons (id, created_at, lesson_order, title, updated_at, module_id) " +
+                    "VALUES (?, ?, 1, 'Aula', ?, ?)", bytes(lessonId), now, now, bytes(moduleId));
+        }
+    }
+
+    @Test
+    void keepsTheOldestCopyWithDataAndMergesTheOthers() {
+        enrollment(0, "ACTIVE");
+        UUID rated = enrollment(1, "ACTIVE");
+        UUID completed = enrollment(2, "COMPLETED");
+        progress(rated, firstLesson);
+        rating(rated);
+        progress(completed, firstLesson);
+        progress(completed, secondLesson);
+
+        flyway("5").migrate();
+
+        assertThat(enrollmentIds()).containsExactly(rated);
+        assertThat(count("SELECT COUNT(*) FROM lesson_progress WHERE enrollment_id = ?", rated)).isEqualTo(2);
+        assertThat(count("SELECT COUNT(*) FROM training_ratings WHERE enrollment_id = ?", rated)).isEqualTo(1);
+        assertThat(count("SELECT completed_lessons FROM course_enrollments WHERE id = ?", rated)).isEqualTo(2);
+        assertThat(jdbc.queryForObject("SELECT status FROM course_enrollments WHERE id = ?", String.class, bytes(rated)))
+                .isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void keepsTheCertifiedCopyEvenWhenItIsNotTheOldest() {
+        UUID withProgress = enrollment(0, "ACTIVE");
+        UUID certified = enrollment(1, "COMPLETED");
+        progress(withProgress, firstLesson);
+        certificate(certified, "ABC123");
+
+        flyway("5").migrate();
+
+        assertThat(enrollmentIds()).containsExactly(certified);
+        assertThat(count("SELECT COUNT(*) FROM certificates WHERE enrollment_id = ?", certified)).isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM lesson_progress WHERE enrollment_id = ?", certified)).isEqualTo(1);
+    }
+
+    @Test
+    void failsBeforeChangingAnythingWhenTwoCopiesAreCertified() {
+        UUID first = enrollment(0, "COMPLETED");
+        UUID second = enrollment(1, "COMPLETED");
+        certificate(first, "ABC123");
+        certificate(second, "DEF456");
+
+        assertThatThrownBy(() -> flyway("5").migrate()).isInstanceOf(FlywayException.class);
+
+        assertThat(enrollmentIds()).containsExactlyInAnyOrder(first, second);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM certificates", Integer.class)).isEqualTo(2);
+    }
+
+    private Flyway flyway(String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .cleanDisabled(false)
+                .target(target)
+                .load();
+    }
+
+    private UUID enrollment(int daysAfterFirst, String status) {
+        UUID id = UUID.randomUUID();
+        Instant enrolledAt = DAY_ONE.plus(daysAfterFirst, ChronoUnit.DAYS);
+        jdbc.update("INSERT INTO course_enrollments (id, enrolled_at, completed_at, status, training_id, auth_user_id) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)",
+                bytes(id), Timestamp.from(enrolledAt),
+                "COMPLETED".equals(status) ? Timestamp.from(enrolledAt.plus(1, ChronoUnit.DAYS)) : null,
+                status, bytes(trainingId), bytes(userId));
+        return id;
+    }
+
+    private void progress(UUID enrollmentId, UUID lessonId) {
+        jdbc.update("INSERT INTO lesson_progress (id, completed_at, enrollment_id, lesson_id) VALUES (?, ?, ?, ?)",
+                bytes(UUID.randomUUID()), Timestamp.from(DAY_ONE), bytes(enrollmentId), bytes(lessonId));
+    }
+
+    private void rating(UUID enrollmentId) {
+        jdbc.update("INSERT INTO training_ratings (id, rated_at, score, enrollment_id) VALUES (?, ?, 5, ?)",
+                bytes(UUID.randomUUID()), Timestamp.from(DAY_ONE), bytes(enrollmentId));
+    }
+
+    private void certificate(UUID enrollmentId, String validationCode) {
+        jdbc.update("INSERT INTO certificates (id, file_path, issued_at, validation_code, enrollment_id) VALUES (?, ?, ?, ?, ?)",
+                bytes(UUID.randomUUID()), "/certificados/" + validationCode + ".pdf", Timestamp.from(DAY_ONE),
+                validationCode, bytes(enrollmentId));
+    }
+
+    private List<UUID> enrollmentIds() {
+        return jdbc.queryForList("SELECT id FROM course_enrollments WHERE auth_user_id = ?", byte[].class, bytes(userId))
+                .stream()
+                .map(UuidBinary::fromBytes)
+                .toList();
+    }
+
+    private int count(String sql, UUID enrollmentId) {
+        return jdbc.queryForObject(sql, Integer.class, bytes(enrollmentId));
+    }
+
+    private static byte[] bytes(UUID uuid) {
+        return UuidBinary.toBytes(uuid);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.prospera.enterprise.service;
+
+import com.example.prospera.courses.domain.enums.EnrollmentStatus;
+import com.example.prospera.courses.domain.enums.TrainingEntityType;
+import com.example.prospera.courses.dto.CourseStructure;
+import com.example.prospera.courses.service.CourseStructureCache;
+import com.example.prospera.courses.service.ProgressService;
+import com.example.prospera.enterprise.dto.MemberTrainingProgressDTO;
+import com.example.prospera.enterprise.dto.MemberTrainingProgressRow;
+import com.example.prospera.enterprise.repositories.MembershipRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrganizationReportServiceTest {
+
+    private final UUID organizationId = UUID.randomUUID();
+    private final UUID courseId = UUID.randomUUID();
+    private final UUID ebookId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+
+    @Mock
+    private MembershipRepository membershipRepository;
+    @Mock
+    private ProgressService progressService;
+    @Mock
+    private CourseStructureCache courseStructureCache;
+
+    @InjectMocks
+    private OrganizationReportService reportService;
+
+    @Test
+    void onlyRecordedCoursesGoThroughTheStructureCache() {
+        when(membershipRepository.findEnrolledTrainingIdsByOrganizationId(organizationId, TrainingEntityType.RECORDED_COURSE))
+                .thenReturn(List.of(courseId));
+        when(courseStructureCache.get(courseId)).thenReturn(structureWithLessons(courseId, 4));
+        when(membershipRepository.findProgressReport(organizationId, null, null)).thenReturn(List.of(
+                row(courseId, "NR-10", TrainingEntityType.RECORDED_COURSE, 2),
+                row(ebookId, "Manual", TrainingEntityType.EBOOK, 0)));
+        when(progressService.calculateProgress(any(), any(), any(), anyInt(), anyLong(), any(), any()))
+                .thenReturn(BigDecimal.ZERO);
+
+        List<MemberTrainingProgressDTO> report = reportService.getProgressReport(organizationId, null, null);
+
+        assertThat(report).hasSize(2);
+        verify(courseStructureCache, never()).get(ebookId);
+        verify(progressService).calculateProgress(TrainingEntityType.RECORDED_COURSE, courseId, userId, 2, 4L, null, null);
+        verify(progressService).calculateProgress(eq(TrainingEntityType.EBOOK), eq(ebookId), eq(userId), eq(0), eq(0L), any(), any());
+    }
+
+    @Test
+    void csvExportEscapesUserProvidedValues() throws IOException {
+        when(membershipRepository.findEnrolledTrainingIdsByOrganizationId(organizationId, TrainingEntityType.RECORDED_COURSE))
+                .thenReturn(List.of());
+        when(membershipRepository.streamProgressReport(organizationId, null, null))
+                .thenReturn(Stream.of(row(ebookId, "=CMD()", TrainingEntityType.EBOOK, 0)));
+        when(progressService.calculateProgress(any(), any(), any(), anyInt(), anyLong(), any(), any()))
+                .thenReturn(new BigDecimal("50.00"));
+
+        StringWriter out = new StringWriter();
+        reportService.exportProgressReportCsv(organizationId, null, null, out);
+
+        List<String> lines = new ArrayList<>(List.of(out.toString().split("\r\n")));
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(1)).startsWith("Ana;ana@empresa.com;'=CMD();ACTIVE;50.00;");
+    }
+
+    private MemberTrainingProgressRow row(UUID trainingId, String title, TrainingEntityType entityType, int completedLessons) {
+        return new MemberTrainingProgressRow(UUID.randomUUID(), userId, "ana@empresa.com", "Ana",
+                trainingId, title, entityType, EnrollmentStatus.ACTIVE, OffsetDateTime.now(), null,
+                completedLessons, null, null, null);
+    }
+
+    private static CourseStructure structureWithLessons(UUID trainingId, int lessons) {
+        UUID moduleId = UUID.randomUUID();
+        List<CourseStructure.LessonNode> nodes = new ArrayList<>();
+        for (int i = 0; i < lessons; i++) {
+            nodes.add(new CourseStructure.LessonNode(UUID.randomUUID(), moduleId, "Aula " + i, null, i, null, 5));
+        }
+        return new CourseStructure(trainingId,
+                List.of(new CourseStructure.ModuleNode(moduleId, "Módulo", 1, nodes)),
+                nodes, Map.of(), lessons * 5);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.prospera.subscription.service;
+
+import com.example.prospera.common.events.EntitlementsChangedEvent;
+import com.example.prospera.common.events.SubscriptionsExpiredEvent;
+import com.example.prospera.courses.repositories.EnrollmentRepository;
+import com.example.prospera.subscription.repositories.SubscriptionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EntitlementServiceTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID trainingId = UUID.randomUUID();
+
+    private EnrollmentRepository enrollmentRepository;
+    private SubscriptionRepository subscriptionRepository;
+    private PlatformTransactionManager transactionManager;
+    private EntitlementService entitlementService;
+
+    @BeforeEach
+    void setUp() {
+        enrollmentRepository = mock(EnrollmentRepository.class);
+        subscriptionRepository = mock(SubscriptionRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        entitlementService = new EntitlementService(enrollmentRepository, subscriptionRepository, transactionManager);
+        ReflectionTestUtils.setField(entitlementService, "maxTtlSeconds", 600L);
+    }
+
+    @Test
+    void missLoadsInsideATransaction() {
+        when(enrollmentRepository.findTrainingIdsByUserId(userId)).thenReturn(Set.of(trainingId));
+
+        assertThat(entitlementService.canAccess(userId, trainingId)).isTrue();
+
+        verify(enrollmentRepository).findTrainingIdsByUserId(userId);
+        verify(transactionManager).getTransaction(any());
+    }
+
+    @Test
+    void hitNeitherQueriesNorOpensATransaction() {
+        when(enrollmentRepository.findTrainingIdsByUserId(userId)).thenReturn(Set.of(trainingId));
+        entitlementService.canAccess(userId, trainingId);
+
+        assertThat(entitlementService.canAccess(userId, trainingId)).isTrue();
+        assertThat(entitlementService.canAccess(userId, UUID.randomUUID())).isFalse();
+
+        verify(enrollmentRepository, times(1)).findTrainingIdsByUserId(userId);
+        verify(transactionManager, times(1)).getTransaction(any());
+    }
+
+    @Test
+    void invalidationForTheUserReloads() {
+        when(enrollmentRepository.findTrainingIdsByUserId(userId)).thenReturn(Set.of(), Set.of(trainingId));
+        assertThat(entitlementService.canAccess(userId, trainingId)).isFalse();
+
+        entitlementService.onEntitlementsChanged(EntitlementsChangedEvent.forUser(userId));
+
+        assertThat(entitlementService.canAccess(userId, trainingId)).isTrue();
+    }
+
+    @Test
+    void invalidationForAllUsersReloadsEveryone() {
+        UUID otherUserId = UUID.randomUUID();
+        entitlementService.getEntitlements(userId);
+        entitlementService.getEntitlements(otherUserId);
+
+        entitlementService.onEntitlementsChanged(EntitlementsChangedEvent.forAllUsers());
+        entitlementService.getEntitlements(userId);
+        entitlementService.getEntitlements(otherUserId);
+
+        verify(enrollmentRepository, times(2)).findTrainingIdsByUserId(userId);
+        verify(enrollmentRepository, times(2)).findTrainingIdsByUserId(otherUserId);
+    }
+
+    @Test
+    void loadStartedBeforeAnInvalidationIsNotCached() {
+        // A matrícula é revogada enquanto a fotografia antiga está sendo montada.
+        when(enrollmentRepository.findTrainingIdsByUserId(userId))
+                .thenAnswer(invocation -> {
+                    entitlementService.onEntitlementsChanged(EntitlementsChangedEvent.forUser(userId));
+                    return Set.of(trainingId);
+                })
+                .thenReturn(Set.of());
+
+        assertThat(entitlementService.canAccess(userId, trainingId)).isTrue();
+
+        // A fotografia antiga foi descartada: a próxima consulta vê o acesso revogado.
+        assertThat(entitlementService.canAccess(userId, trainingId)).isFalse();
+        verify(enrollmentRepository, times(2)).findTrainingIdsByUserId(userId);
+    }
+
+    @Test
+    void invalidationOfAnotherUserKeepsTheCachedSnapshot() {
+        entitlementService.getEntitlements(userId);
+
+        entitlementService.onEntitlementsChanged(EntitlementsChangedEvent.forUser(UUID.randomUUID()));
+        entitlementService.getEntitlements(userId);
+
+        verify(enrollmentRepository, times(1)).findTrainingIdsByUserId(userId);
+    }
+
+    @Test
+    void expiredSubscriptionsDropTheSnapshotsOfTheirUsers() {
+        UUID personalAccountId = UUID.randomUUID();
+        UUID organizationAccountId = UUID.randomUUID();
+        UUID memberId = UUID.randomUUID();
+        UUID unrelatedUserId = UUID.randomUUID();
+        Set<UUID> accountIds = Set.of(personalAccountId, organizationAccountId);
+        when(subscriptionRepository.findUserIdsByPersonalAccountIds(accountIds)).thenReturn(Set.of(userId));
+        when(subscriptionRepository.findMemberUserIdsByOrganizationAccountIds(accountIds)).thenReturn(Set.of(memberId));
+        entitlementService.getEntitlements(userId);
+        entitlementService.getEntitlements(memberId);
+        entitlementService.getEntitlements(unrelatedUserId);
+
+        entitlementService.onSubscriptionsExpired(new SubscriptionsExpiredEvent(accountIds));
+        entitlementService.getEntitlements(userId);
+        entitlementService.getEntitlements(memberId);
+        entitlementService.getEntitlements(unrelatedUserId);
+
+        verify(enrollmentRepository, times(2)).findTrainingIdsByUserId(userId);
+        verify(enrollmentRepository, times(2)).findTrainingIdsByUserId(memberId);
+        verify(enrollmentRepository, times(1)).findTrainingIdsByUserId(unrelatedUserId);
+    }
+}